@@ -0,0 +1,80 @@
+package bezierCurve.benchmarks;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.bezier.Sampling;
+import bezierCurve.points.ControlPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares sampling a cubic curve evenly in t against sampling it evenly along its length,
+ * and measures rebuilding the arc length table after a control point moved.
+ * @author 150001289
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArcLengthBenchmark {
+
+    @Param({"100", "1000"})
+    public int numOfSamples;
+
+    private BezierCurve curve;
+    private ControlPoint moved;
+    private Sampling uniform;
+    private Sampling arcLength;
+    private int step;
+
+    @Setup
+    public void setup() {
+        curve = SyntheticScenes.curve(3, SyntheticScenes.SEED);
+        moved = curve.getControlPoints().get(1);
+        uniform = Sampling.uniform(numOfSamples);
+        arcLength = Sampling.arcLength(numOfSamples);
+    }
+
+    /**
+     * Moves a control point back and forth by one pixel, so that every call starts from a
+     * stale arc length table
+     */
+    private void move() {
+        moved.setLocation(moved.getX() + (step++ % 2 == 0 ? 1 : -1), moved.getY());
+    }
+
+    @Benchmark
+    public Object uniform() {
+        move();
+        curve.updatePoints(uniform);
+        return curve.getSamples();
+    }
+
+    /**
+     * Includes rebuilding the arc length table
+     */
+    @Benchmark
+    public Object arcLength() {
+        move();
+        curve.updatePoints(arcLength);
+        return curve.getSamples();
+    }
+
+    @Benchmark
+    public double rebuildTable() {
+        move();
+        return curve.getArcLengthTable().length();
+    }
+}
@@ -0,0 +1,109 @@
+package bezierCurve.benchmarks;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.points.Vector2D;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the paths of a single curve: evaluating points, sampling, intersecting straight
+ * lines and drawing the samples.
+ * @author 150001289
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CurveBenchmark {
+
+    private static int NUM_OF_RAYS = 256;
+
+    @Param({"2", "3", "5", "9"})
+    public int degree;
+
+    @Param({"100", "1000"})
+    public int numOfSamples;
+
+    private BezierCurve curve;
+    private Vector2D point;
+    private double[] rayX;
+    private double[] rayY;
+    private double[] roots;
+    private BufferedImage image;
+    private Graphics2D graphics;
+
+    @Setup
+    public void setup() {
+        curve = SyntheticScenes.curve(degree, SyntheticScenes.SEED);
+        curve.updatePoints(numOfSamples);
+        point = new Vector2D();
+
+        Random random = new Random(SyntheticScenes.SEED);
+        rayX = new double[NUM_OF_RAYS];
+        rayY = new double[NUM_OF_RAYS];
+        for(int i=0;i<NUM_OF_RAYS;i++) {
+            rayX[i] = random.nextInt(SyntheticScenes.WIDTH);
+            rayY[i] = random.nextInt(SyntheticScenes.HEIGHT);
+        }
+        roots = new double[curve.getMaxNumOfRoots()];
+
+        image = new BufferedImage(SyntheticScenes.WIDTH, SyntheticScenes.HEIGHT, BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public void calcPoint(Blackhole blackhole) {
+        for(int i=0;i<numOfSamples;i++) {
+            blackhole.consume(curve.calcPoint((double) i / (numOfSamples - 1), point).x);
+        }
+    }
+
+    @Benchmark
+    public Object updatePoints() {
+        curve.updatePoints(numOfSamples);
+        return curve.getSamples();
+    }
+
+    /**
+     * Intersects the curve with a straight line from every sample to a light source, which
+     * is the work of one shadow test per sample
+     */
+    @Benchmark
+    public int calculateRoots() {
+        int numOfRoots = 0;
+        for(int i=0;i<numOfSamples;i++) {
+            int ray = i & (NUM_OF_RAYS - 1);
+            numOfRoots += curve.calculateRoots(rayX[ray], rayY[ray], SyntheticScenes.WIDTH / 2, -SyntheticScenes.HEIGHT, roots, 0);
+        }
+        return numOfRoots;
+    }
+
+    @Benchmark
+    public Object drawLine() {
+        curve.drawLine(graphics);
+        return image;
+    }
+}
@@ -0,0 +1,79 @@
+package bezierCurve.benchmarks;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.lighting.ExactOcclusion;
+import bezierCurve.lighting.GridOcclusion;
+import bezierCurve.lighting.IntervalOcclusion;
+import bezierCurve.lighting.ShadowMapOcclusion;
+import bezierCurve.points.LightSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures lighting a composite curve, serially so that results do not depend
+ * on the number of cores.
+ * @author 150001289
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LightingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int numOfSegments;
+
+    @Param({"50"})
+    public int numOfSamples;
+
+    @Param({"ABOVE", "INSIDE", "SIDE"})
+    public SyntheticScenes.Light light;
+
+    @Param({"GRID", "EXACT", "MAP", "INTERVALS"})
+    public String occlusion;
+
+    private List<BezierCurve> bezierCurves;
+    private LightSource lightSource;
+
+    @Setup
+    public void setup() {
+        bezierCurves = SyntheticScenes.composite(numOfSegments, SyntheticScenes.SEED);
+        bezierCurves.forEach(curve -> curve.updatePoints(numOfSamples));
+
+        lightSource = SyntheticScenes.light(light, numOfSegments);
+        switch (occlusion) {
+            case "EXACT":
+                lightSource.setOcclusion(new ExactOcclusion());
+                break;
+            case "INTERVALS":
+                lightSource.setOcclusion(new IntervalOcclusion());
+                break;
+            case "MAP":
+                lightSource.setOcclusion(new ShadowMapOcclusion());
+                break;
+            default:
+                lightSource.setOcclusion(new GridOcclusion());
+                break;
+        }
+    }
+
+    @Benchmark
+    public Object updateColors() {
+        lightSource.updateColors(bezierCurves);
+        return bezierCurves;
+    }
+}
@@ -0,0 +1,70 @@
+package bezierCurve.benchmarks;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.bezier.RootSolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the intersection of a curve with straight lines to a light source for every root
+ * solver and degree.
+ * @author 150001289
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RootSolverBenchmark {
+
+    private static int NUM_OF_RAYS = 1024;
+
+    @Param({"POWER_BASIS", "BEZIER_CLIPPING"})
+    public RootSolver rootSolver;
+
+    @Param({"2", "3", "4", "6"})
+    public int degree;
+
+    private BezierCurve curve;
+    private double[] rayX;
+    private double[] rayY;
+    private double[] roots;
+    private int ray;
+
+    @Setup
+    public void setup() {
+        curve = SyntheticScenes.curve(degree, SyntheticScenes.SEED);
+        curve.setRootSolver(rootSolver);
+
+        Random random = new Random(SyntheticScenes.SEED);
+        rayX = new double[NUM_OF_RAYS];
+        rayY = new double[NUM_OF_RAYS];
+        for(int i=0;i<NUM_OF_RAYS;i++) {
+            rayX[i] = random.nextInt(SyntheticScenes.WIDTH);
+            rayY[i] = random.nextInt(SyntheticScenes.HEIGHT);
+        }
+        roots = new double[curve.getMaxNumOfRoots()];
+    }
+
+    /**
+     * One straight line per call, from a different point every time
+     */
+    @Benchmark
+    public int calculateRoots() {
+        ray = (ray + 1) & (NUM_OF_RAYS - 1);
+        return curve.calculateRoots(rayX[ray], rayY[ray], SyntheticScenes.WIDTH / 2, SyntheticScenes.HEIGHT / 2, roots, 0);
+    }
+}
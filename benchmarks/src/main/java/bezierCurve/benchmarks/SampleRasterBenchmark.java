@@ -0,0 +1,76 @@
+package bezierCurve.benchmarks;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.bezier.SampleBuffer;
+import bezierCurve.bezier.SampleRaster;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares drawing the samples of a cubic curve with Java2D, one oval per sample, against
+ * writing them into a SampleRaster and drawing the image once.
+ * @author 150001289
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SampleRasterBenchmark {
+
+    @Param({"1000", "50000"})
+    public int numOfSamples;
+
+    private SampleBuffer samples;
+    private SampleRaster raster;
+    private BufferedImage image;
+    private Graphics2D graphics;
+
+    @Setup
+    public void setup() {
+        BezierCurve curve = SyntheticScenes.curve(3, SyntheticScenes.SEED);
+        curve.updatePoints(numOfSamples);
+        samples = curve.getSamples();
+        for(int i=0;i<samples.size();i++) {
+            samples.setArgb(i, 0xFF000000 | (i % 256) * 0x010101);
+        }
+
+        raster = new SampleRaster();
+        image = new BufferedImage(SyntheticScenes.WIDTH, SyntheticScenes.HEIGHT, BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public Object java2D() {
+        samples.draw(graphics);
+        return image;
+    }
+
+    @Benchmark
+    public Object raster() {
+        raster.begin(SyntheticScenes.WIDTH, SyntheticScenes.HEIGHT);
+        raster.splat(samples);
+        raster.draw(graphics);
+        return image;
+    }
+}
@@ -0,0 +1,51 @@
+package bezierCurve.benchmarks;
+
+import bezierCurve.bezier.BezierCurve;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures sampling every segment of a composite curve.
+ * @author 150001289
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SamplingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int numOfSegments;
+
+    @Param({"50", "500"})
+    public int numOfSamples;
+
+    private List<BezierCurve> bezierCurves;
+
+    @Setup
+    public void setup() {
+        bezierCurves = SyntheticScenes.composite(numOfSegments, SyntheticScenes.SEED);
+    }
+
+    @Benchmark
+    public Object updatePoints() {
+        for(int i=0;i<bezierCurves.size();i++) {
+            bezierCurves.get(i).updatePoints(numOfSamples);
+        }
+        return bezierCurves;
+    }
+}
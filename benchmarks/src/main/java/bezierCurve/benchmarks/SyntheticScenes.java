@@ -0,0 +1,123 @@
+package bezierCurve.benchmarks;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.bezier.CubicBezierCurve;
+import bezierCurve.points.LightSource;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates the curves and light sources of the benchmarks from a seed, so that every run
+ * measures exactly the same scene.
+ * @author 150001289
+ */
+public final class SyntheticScenes {
+
+    public static long SEED = 150001289;
+    public static int WIDTH = 1000;
+    public static int HEIGHT = 700;
+
+    private static int SEGMENT_WIDTH = 100;
+    private static int MIN_Y = 200;
+    private static int MAX_Y = 500;
+
+    /**
+     * Where the light source is placed relative to the curves
+     */
+    public enum Light {
+
+        /**
+         * High above the middle of the curves, most samples see the light
+         */
+        ABOVE,
+
+        /**
+         * In the band crossed by the curves, most straight lines to the light hit a curve
+         */
+        INSIDE,
+
+        /**
+         * Far to the left at the height of the curves, every straight line runs along them
+         */
+        SIDE
+    }
+
+    private SyntheticScenes() {
+    }
+
+    /**
+     * Creates a curve with random control points in the frame
+     * @param degree The degree of the curve
+     * @param seed
+     * @return the curve
+     */
+    public static BezierCurve curve(int degree, long seed) {
+        Random random = new Random(seed);
+        BezierCurve curve = BezierCurve.create(degree + 1);
+        for(int i=0;i<=degree;i++) {
+            curve.addControlPoint(new Point(random.nextInt(WIDTH), random.nextInt(HEIGHT)));
+        }
+        return curve;
+    }
+
+    /**
+     * Creates the segments of a composite curve that runs from left to right, joined with
+     * mirrored control points like the ones of CompositeCurve
+     * @param numOfSegments The number of cubic segments
+     * @param seed
+     * @return the segments
+     */
+    public static List<BezierCurve> composite(int numOfSegments, long seed) {
+        Random random = new Random(seed);
+        List<BezierCurve> bezierCurves = new ArrayList<>(numOfSegments);
+
+        Point last = new Point(0, randomY(random));
+        Point third = new Point(-SEGMENT_WIDTH / 3, randomY(random));
+        for(int i=0;i<numOfSegments;i++) {
+            BezierCurve curve = new CubicBezierCurve();
+            curve.addControlPoint(new Point(last));
+            curve.addControlPoint(new Point(2 * last.x - third.x, 2 * last.y - third.y));
+
+            int x = last.x + SEGMENT_WIDTH;
+            third = new Point(x - SEGMENT_WIDTH / 3, randomY(random));
+            last = new Point(x, randomY(random));
+            curve.addControlPoint(new Point(third));
+            curve.addControlPoint(new Point(last));
+            bezierCurves.add(curve);
+        }
+        return bezierCurves;
+    }
+
+    /**
+     * Places a light source relative to a composite curve created by this class
+     * @param light Where to place the light
+     * @param numOfSegments The number of segments of the composite curve
+     * @return the light source, shaded on the calling thread
+     */
+    public static LightSource light(Light light, int numOfSegments) {
+        int middle = numOfSegments * SEGMENT_WIDTH / 2;
+        Point point;
+        switch (light) {
+            case INSIDE:
+                point = new Point(middle, (MIN_Y + MAX_Y) / 2);
+                break;
+            case SIDE:
+                point = new Point(-10 * SEGMENT_WIDTH, (MIN_Y + MAX_Y) / 2);
+                break;
+            default:
+                point = new Point(middle, -HEIGHT);
+                break;
+        }
+
+        LightSource lightSource = new LightSource(point);
+        lightSource.setPool(null);
+        return lightSource;
+    }
+
+    private static int randomY(Random random) {
+        return MIN_Y + random.nextInt(MAX_Y - MIN_Y);
+    }
+}
@@ -1,8 +1,10 @@
 package bezierCurve;
 
+import bezierCurve.bezier.Sampling;
 import bezierCurve.curves.CompositeCurve;
 import bezierCurve.curves.Curve;
 import bezierCurve.curves.SimpleCurve;
+import bezierCurve.metrics.Metrics;
 
 import javax.swing.*;
 import java.awt.*;
@@ -18,14 +20,21 @@ public class Main {
      * @param args Program parameters
      */
     public static void main(String[] args) {
+        Metrics.registerMBean();
         Main main = new Main();
     }
 
     private static int DEFAULT_NUM_OF_SAMPLES = 20;
+    private static int DEFAULT_NUM_OF_CONTROL_POINTS = 6;
+    private static int MAX_NUM_OF_CONTROL_POINTS = 10;
 
     private JFrame frame;
     private Curve curve;
     private int numOfSamples;
+    private double tolerance;
+    private boolean arcLength;
+    private boolean raster;
+    private boolean metrics;
 
     public Main() {
 
@@ -37,8 +46,7 @@ public class Main {
         JToolBar toolBar = createToolbar();
         frame.getContentPane().add(toolBar, BorderLayout.NORTH);
 
-        curve = SimpleCurve.CreateQuadraticCurve(numOfSamples);
-        frame.getContentPane().add(curve);
+        showCurve(SimpleCurve.CreateQuadraticCurve(numOfSamples));
 
         frame.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
         frame.setBounds(100, 100, 1000, 700);
@@ -68,6 +76,12 @@ public class Main {
         JButton composite = createCompositeCurveButton();
         toolBar.add(composite);
 
+        // Bezier Curve of any degree
+        JSpinner controlPoints = new JSpinner(new SpinnerNumberModel(DEFAULT_NUM_OF_CONTROL_POINTS, 2, MAX_NUM_OF_CONTROL_POINTS, 1));
+        controlPoints.setMaximumSize(controlPoints.getPreferredSize());
+        toolBar.add(createGeneralCurveButton(controlPoints));
+        toolBar.add(controlPoints);
+
         toolBar.addSeparator();
 
         JLabel label = new JLabel("Number of samples");
@@ -75,9 +89,46 @@ public class Main {
 
         toolBar.add(textField);
 
+        toolBar.addSeparator();
+
+        // Adaptive sampling
+        toolBar.add(new JLabel("Tolerance (px)"));
+        toolBar.add(createToleranceTextField());
+
+        toolBar.add(createArcLengthCheckBox());
+
+        toolBar.addSeparator();
+
+        toolBar.add(createRasterCheckBox());
+
+        toolBar.add(createMetricsCheckBox());
+
         return toolBar;
     }
 
+    /**
+     * Replaces the curve on the frame, keeping the current sampling settings
+     * @param newCurve The curve to show
+     */
+    private void showCurve(Curve newCurve) {
+        if (curve != null) {
+            frame.getContentPane().remove(curve);
+            curve.shutdown();
+        }
+
+        curve = newCurve;
+        curve.setAsync(true);
+        curve.setRaster(raster);
+        curve.setMetricsVisible(metrics);
+        if (tolerance > 0) {
+            curve.setTolerance(tolerance);
+        } else if (arcLength) {
+            curve.setSampling(Sampling.arcLength(numOfSamples));
+        }
+        frame.getContentPane().add(curve);
+        frame.revalidate();
+    }
+
     /**
      * Creates the text field that allows users to change the number of samples
      * @return The text field
@@ -104,6 +155,85 @@ public class Main {
         return textField;
     }
 
+    /**
+     * Creates the text field that allows users to switch to adaptive sampling. An empty
+     * field or 0 spaces the samples evenly.
+     * @return The text field
+     */
+    private JTextField createToleranceTextField() {
+        JTextField textField = new JTextField(4);
+        textField.addActionListener(e -> {
+            double value;
+            try {
+                value = textField.getText().isEmpty() ? 0 : Double.parseDouble(textField.getText());
+                if (value < 0) {
+                    value = 0;
+                }
+            } catch (NumberFormatException exc) {
+                value = 0;
+            }
+            textField.setText(value > 0 ? Double.toString(value) : "");
+            tolerance = value;
+            if (tolerance == 0 && arcLength) {
+                curve.setSampling(Sampling.arcLength(numOfSamples));
+            } else {
+                curve.setTolerance(tolerance);
+            }
+        });
+        textField.setMaximumSize(textField.getPreferredSize());
+
+        return textField;
+    }
+
+    /**
+     * Creates the check box that spaces the samples evenly along the length of the curve
+     * @return The check box
+     */
+    private JCheckBox createArcLengthCheckBox() {
+        JCheckBox checkBox = new JCheckBox("Equal spacing");
+        checkBox.setToolTipText("Space the samples evenly along the length of the curve");
+        checkBox.addActionListener(e -> {
+            arcLength = checkBox.isSelected();
+            if (tolerance == 0) {
+                curve.setSampling(arcLength ? Sampling.arcLength(numOfSamples) : Sampling.uniform(numOfSamples));
+            }
+        });
+
+        return checkBox;
+    }
+
+    /**
+     * Creates the check box that writes the samples straight into an image instead of drawing
+     * every sample with Java2D
+     * @return The check box
+     */
+    private JCheckBox createRasterCheckBox() {
+        JCheckBox checkBox = new JCheckBox("Raster");
+        checkBox.setToolTipText("Write the samples into an image that is drawn once per frame");
+        checkBox.addActionListener(e -> {
+            raster = checkBox.isSelected();
+            curve.setRaster(raster);
+        });
+
+        return checkBox;
+    }
+
+    /**
+     * Creates the check box that shows the frame time, samples per second and root solves
+     * per frame over the curve
+     * @return The check box
+     */
+    private JCheckBox createMetricsCheckBox() {
+        JCheckBox checkBox = new JCheckBox("Metrics");
+        checkBox.setToolTipText("Show where the time of a frame goes");
+        checkBox.addActionListener(e -> {
+            metrics = checkBox.isSelected();
+            curve.setMetricsVisible(metrics);
+        });
+
+        return checkBox;
+    }
+
     /**
      * Creates the button that allows users to draw a quadratic bezier bezier
      * @return the button
@@ -112,11 +242,7 @@ public class Main {
         JButton quadratic = new JButton("Quadratic");
         quadratic.setToolTipText("Quadratic Bezier Curve");
         quadratic.addActionListener(e -> {
-            frame.getContentPane().remove(curve);
-
-            curve = SimpleCurve.CreateQuadraticCurve(numOfSamples);
-            frame.getContentPane().add(curve);
-            frame.revalidate();
+            showCurve(SimpleCurve.CreateQuadraticCurve(numOfSamples));
         });
 
         return quadratic;
@@ -130,11 +256,7 @@ public class Main {
         JButton cubic = new JButton("Cubic");
         cubic.setToolTipText("Cubic Bezier Curve");
         cubic.addActionListener(e -> {
-            frame.getContentPane().remove(curve);
-
-            curve = SimpleCurve.CreateCubicCurve(numOfSamples);
-            frame.getContentPane().add(curve);
-            frame.revalidate();
+            showCurve(SimpleCurve.CreateCubicCurve(numOfSamples));
         });
 
         return cubic;
@@ -143,14 +265,23 @@ public class Main {
     private JButton createCompositeCurveButton() {
         JButton composite = new JButton("C¹");
         composite.addActionListener(e -> {
-            frame.getContentPane().remove(curve);
-
-            curve = new CompositeCurve(numOfSamples);
-            frame.getContentPane().add(curve);
-            frame.revalidate();
+            showCurve(new CompositeCurve(numOfSamples));
         });
         return composite;
     }
 
+    /**
+     * Creates the button that allows users to draw a bezier curve of any degree
+     * @param controlPoints The spinner with the number of control points
+     * @return the button
+     */
+    private JButton createGeneralCurveButton(JSpinner controlPoints) {
+        JButton general = new JButton("Degree N");
+        general.setToolTipText("Bezier Curve with the selected number of control points");
+        general.addActionListener(e -> {
+            showCurve(SimpleCurve.CreateCurve((Integer) controlPoints.getValue(), numOfSamples));
+        });
 
+        return general;
+    }
 }
@@ -0,0 +1,121 @@
+package bezierCurve.bezier;
+
+import bezierCurve.points.Vector2D;
+
+import java.util.Arrays;
+
+/**
+ * Lookup table from arc length to the parameter t of a bezier curve. The curve is split into
+ * equal intervals of t, the length of every interval is integrated with a five point
+ * Gauss-Legendre rule over the speed |B'(t)|, and lookups interpolate between the cumulative
+ * lengths and refine the result with one Newton step.
+ * @author 150001289
+ */
+public class ArcLengthTable {
+
+    public static int DEFAULT_NUM_OF_INTERVALS = 64;
+
+    // Gauss-Legendre nodes and weights on [-1, 1]
+    private static final double[] NODES = {
+            0,
+            -0.5384693101056831, 0.5384693101056831,
+            -0.9061798459386640, 0.9061798459386640
+    };
+    private static final double[] WEIGHTS = {
+            0.5688888888888889,
+            0.4786286704993665, 0.4786286704993665,
+            0.2369268850561891, 0.2369268850561891
+    };
+
+    private final BezierCurve curve;
+    private final long modCount;
+    private final double[] lengths;
+    private final Vector2D derivative;
+
+    /**
+     * Builds the table of a complete curve
+     * @param curve The curve
+     * @param numOfIntervals The number of intervals of t
+     */
+    public ArcLengthTable(BezierCurve curve, int numOfIntervals) {
+        this.curve = curve;
+        this.modCount = curve.getModCount();
+        this.lengths = new double[numOfIntervals + 1];
+        this.derivative = new Vector2D();
+
+        for(int i=0;i<numOfIntervals;i++) {
+            lengths[i + 1] = lengths[i] + integrate((double) i / numOfIntervals, (double) (i + 1) / numOfIntervals);
+        }
+    }
+
+    /**
+     * @return the modification counter of the curve when the table was built
+     */
+    public long getModCount() {
+        return modCount;
+    }
+
+    /**
+     * @return the length of the whole curve
+     */
+    public double length() {
+        return lengths[lengths.length - 1];
+    }
+
+    /**
+     * Finds the parameter at which the curve has the given length
+     * @param s The arc length from the start of the curve
+     * @return the parameter t
+     */
+    public double tAt(double s) {
+        int numOfIntervals = lengths.length - 1;
+        if (s <= 0) {
+            return 0;
+        }
+        if (s >= length()) {
+            return 1;
+        }
+
+        int index = Arrays.binarySearch(lengths, s);
+        if (index >= 0) {
+            return (double) index / numOfIntervals;
+        }
+        int interval = -index - 2;
+
+        double t0 = (double) interval / numOfIntervals;
+        double t1 = (double) (interval + 1) / numOfIntervals;
+        double fraction = (s - lengths[interval]) / (lengths[interval + 1] - lengths[interval]);
+        double t = t0 + fraction * (t1 - t0);
+
+        // One Newton step on the length of the interval up to t
+        double speed = speed(t);
+        if (speed > 0) {
+            double refined = t - (lengths[interval] + integrate(t0, t) - s) / speed;
+            if (refined >= t0 && refined <= t1) {
+                t = refined;
+            }
+        }
+        return t;
+    }
+
+    /**
+     * Integrates the speed of the curve between two parameters
+     * @param from
+     * @param to
+     * @return the arc length between the parameters
+     */
+    private double integrate(double from, double to) {
+        double half = (to - from) / 2;
+        double middle = (from + to) / 2;
+
+        double length = 0;
+        for(int i=0;i<NODES.length;i++) {
+            length += WEIGHTS[i] * speed(middle + half * NODES[i]);
+        }
+        return length * half;
+    }
+
+    private double speed(double t) {
+        return curve.firstDerivative(t, derivative).length();
+    }
+}
@@ -0,0 +1,91 @@
+package bezierCurve.bezier;
+
+import org.apache.commons.math3.util.CombinatoricsUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Values of the Bernstein polynomials of a degree at evenly spaced parameters. A table only
+ * depends on the degree and the number of samples, so it is shared by all curves.
+ * @author 150001289
+ */
+public class BernsteinBasis {
+
+    private static int MAX_CACHED_TABLES = 32;
+
+    private static final Map<Long, BernsteinBasis> CACHE = new LinkedHashMap<Long, BernsteinBasis>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, BernsteinBasis> eldest) {
+            return size() > MAX_CACHED_TABLES;
+        }
+    };
+
+    private final int degree;
+    private final int numOfSamples;
+    private final double[] t;
+
+    // Row i holds the value of every Bernstein polynomial at t[i]
+    private final double[] values;
+
+    private BernsteinBasis(int degree, int numOfSamples) {
+        this.degree = degree;
+        this.numOfSamples = numOfSamples;
+        this.t = new double[numOfSamples];
+        this.values = new double[numOfSamples * (degree + 1)];
+
+        double increment = numOfSamples > 1 ? 1d / (numOfSamples - 1) : 0;
+        for(int i=0;i<numOfSamples;i++) {
+            t[i] = i == numOfSamples - 1 && i > 0 ? 1 : i * increment;
+            for(int j=0;j<=degree;j++) {
+                values[i * (degree + 1) + j] = CombinatoricsUtils.binomialCoefficient(degree, j)
+                        * Math.pow(1 - t[i], degree - j) * Math.pow(t[i], j);
+            }
+        }
+    }
+
+    /**
+     * Returns the shared table of a degree and number of samples, building it if needed.
+     * @param degree The degree of the curve
+     * @param numOfSamples The number of samples
+     * @return the table
+     */
+    public static BernsteinBasis of(int degree, int numOfSamples) {
+        long key = (long) degree << 32 | numOfSamples;
+        synchronized (CACHE) {
+            BernsteinBasis basis = CACHE.get(key);
+            if (basis == null) {
+                basis = new BernsteinBasis(degree, numOfSamples);
+                CACHE.put(key, basis);
+            }
+            return basis;
+        }
+    }
+
+    /**
+     * Multiplies the table with the coordinates of the control points.
+     * @param x The x coordinates of the control points
+     * @param y The y coordinates of the control points
+     * @param samples The buffer where the samples are stored
+     */
+    public void evaluate(double[] x, double[] y, SampleBuffer samples) {
+        samples.resize(numOfSamples);
+        for(int i=0;i<numOfSamples;i++) {
+            int row = i * (degree + 1);
+            double sampleX = 0, sampleY = 0;
+            for(int j=0;j<=degree;j++) {
+                sampleX += values[row + j] * x[j];
+                sampleY += values[row + j] * y[j];
+            }
+            samples.set(i, t[i], sampleX, sampleY);
+        }
+    }
+
+    public int getDegree() {
+        return degree;
+    }
+
+    public int getNumOfSamples() {
+        return numOfSamples;
+    }
+}
@@ -0,0 +1,165 @@
+package bezierCurve.bezier;
+
+/**
+ * Finds the roots in [0, 1] of a polynomial given by its Bernstein coefficients with Bezier
+ * clipping. The coefficients are the control points (i / n, d[i]) of an explicit Bezier curve,
+ * so the curve crosses zero only where their convex hull does. Every step clips the interval
+ * to that range, and splits it in half when clipping removes less than a fifth of it. The
+ * intervals waiting to be processed are kept on a stack in the scratch array.
+ * @author 150001289
+ */
+final class BezierClipping {
+
+    private static int MAX_ITERATIONS = 512;
+    private static int MAX_DEPTH = 64;
+
+    // Width in t under which an interval is reported as a root
+    private static double ROOT_TOLERANCE = 1e-12;
+
+    // Roots closer than this are the same root found from both sides of a split
+    private static double MERGE_TOLERANCE = 1e-7;
+
+    private static double MIN_CLIP = 0.8;
+
+    private BezierClipping() {
+    }
+
+    /**
+     * @param degree The degree of the polynomial
+     * @return the size of the scratch array that solve needs
+     */
+    static int scratchSize(int degree) {
+        return MAX_DEPTH * (degree + 3);
+    }
+
+    /**
+     * Finds the roots of the polynomial in [0, 1], in ascending order
+     * @param d The Bernstein coefficients of the polynomial
+     * @param degree The degree of the polynomial
+     * @param roots The array where the roots are stored, with room for degree roots
+     * @param offset The index of the first root in the array
+     * @param scratch Scratch space of at least scratchSize(degree) values
+     * @param scratchOffset The index of the first scratch value
+     * @return the number of roots
+     */
+    static int solve(double[] d, int degree, double[] roots, int offset, double[] scratch, int scratchOffset) {
+        int slot = degree + 3;
+        int top = 0;
+        int count = 0;
+
+        // Every slot holds the coefficients of the piece followed by its range [a, b]
+        System.arraycopy(d, 0, scratch, scratchOffset, degree + 1);
+        scratch[scratchOffset + degree + 1] = 0;
+        scratch[scratchOffset + degree + 2] = 1;
+        top++;
+
+        for(int iteration=0;iteration<MAX_ITERATIONS && top > 0 && count < degree;iteration++) {
+            top--;
+            int c = scratchOffset + top * slot;
+            double a = scratch[c + degree + 1];
+            double b = scratch[c + degree + 2];
+
+            // Range of the convex hull on the axis, in the parameter of the piece
+            double low = Double.POSITIVE_INFINITY;
+            double high = Double.NEGATIVE_INFINITY;
+            for(int i=0;i<=degree;i++) {
+                double di = scratch[c + i];
+                if (di == 0) {
+                    low = Math.min(low, (double) i / degree);
+                    high = Math.max(high, (double) i / degree);
+                    continue;
+                }
+                for(int j=i+1;j<=degree;j++) {
+                    double dj = scratch[c + j];
+                    if ((di < 0) != (dj < 0) && dj != 0) {
+                        double t = (i + di * (j - i) / (di - dj)) / degree;
+                        low = Math.min(low, t);
+                        high = Math.max(high, t);
+                    }
+                }
+            }
+            if (low > high) {
+                continue;
+            }
+            low = Math.max(0, low);
+            high = Math.min(1, high);
+
+            double from = a + low * (b - a);
+            double to = a + high * (b - a);
+            if (to - from <= ROOT_TOLERANCE) {
+                count = add((from + to) / 2, roots, offset, count);
+                continue;
+            }
+
+            if (high - low > MIN_CLIP) {
+                if (top + 2 > MAX_DEPTH) {
+                    count = add((a + b) / 2, roots, offset, count);
+                    continue;
+                }
+
+                // Split in half; the left half is pushed last so it is processed first
+                int right = c;
+                int left = c + slot;
+                System.arraycopy(scratch, right, scratch, left, degree + 1);
+                keepRight(scratch, right, degree, 0.5);
+                keepLeft(scratch, left, degree, 0.5);
+                double middle = (a + b) / 2;
+                scratch[right + degree + 1] = middle;
+                scratch[right + degree + 2] = b;
+                scratch[left + degree + 1] = a;
+                scratch[left + degree + 2] = middle;
+                top += 2;
+            } else {
+                keepLeft(scratch, c, degree, high);
+                if (high > 0) {
+                    keepRight(scratch, c, degree, low / high);
+                }
+                scratch[c + degree + 1] = from;
+                scratch[c + degree + 2] = to;
+                top++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Replaces the coefficients with those of the piece [0, t], with de Casteljau's algorithm
+     */
+    private static void keepLeft(double[] c, int from, int degree, double t) {
+        for(int k=1;k<=degree;k++) {
+            for(int i=degree;i>=k;i--) {
+                c[from + i] = (1 - t) * c[from + i - 1] + t * c[from + i];
+            }
+        }
+    }
+
+    /**
+     * Replaces the coefficients with those of the piece [t, 1], with de Casteljau's algorithm
+     */
+    private static void keepRight(double[] c, int from, int degree, double t) {
+        for(int k=1;k<=degree;k++) {
+            for(int i=0;i<=degree-k;i++) {
+                c[from + i] = (1 - t) * c[from + i] + t * c[from + i + 1];
+            }
+        }
+    }
+
+    /**
+     * Inserts the root in ascending order, unless it was already found
+     */
+    private static int add(double root, double[] roots, int offset, int count) {
+        int i = count;
+        while (i > 0 && roots[offset + i - 1] > root) {
+            i--;
+        }
+        if ((i > 0 && root - roots[offset + i - 1] <= MERGE_TOLERANCE)
+                || (i < count && roots[offset + i] - root <= MERGE_TOLERANCE)) {
+            return count;
+        }
+
+        System.arraycopy(roots, offset + i, roots, offset + i + 1, count - i);
+        roots[offset + i] = root;
+        return count + 1;
+    }
+}
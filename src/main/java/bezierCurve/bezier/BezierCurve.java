@@ -1,13 +1,17 @@
 package bezierCurve.bezier;
 
-import bezierCurve.utils.Common;
 import org.apache.commons.math3.util.CombinatoricsUtils;
+import bezierCurve.metrics.Metrics;
 import bezierCurve.points.ControlPoint;
 import bezierCurve.points.LinePoint;
+import bezierCurve.points.Vector2D;
 
 import java.awt.*;
+import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.stream.Collectors;
 
 /**
@@ -16,16 +20,63 @@ import java.util.stream.Collectors;
  */
 public abstract class BezierCurve {
 
+    private static int RESEED_INTERVAL = 64;
+    private static double HULL_TOLERANCE = 1e-6;
+    private static double MIN_PIECE = 1e-6;
+
+    // Coefficients of the line equations, shared by all curves of a thread
+    private static final ThreadLocal<double[]> ROOT_SCRATCH = ThreadLocal.withInitial(() -> new double[0]);
+
     int numOfControlPoints;
     List<ControlPoint> controlPoints;
 
-    List<LinePoint> bezierPoints;
+    SampleBuffer samples;
+
+    private Evaluator evaluator;
+    private RootSolver rootSolver;
+
+    // Power-basis coefficients of the curve, lowest degree first
+    double[] powerX;
+    double[] powerY;
+    private long powerBasisModCount;
+
+    // Control polygon and its bounding box, which both contain the curve
+    private Hull hull;
+
+    private ArcLengthTable arcLengthTable;
+
+    // State of the curve when the samples were last updated
+    private long sampledModCount;
+    private Sampling sampled;
 
     BezierCurve(int numOfControlPoints) {
         this.numOfControlPoints = numOfControlPoints;
         this.controlPoints = new ArrayList<>();
 
-        this.bezierPoints = new ArrayList<>();
+        this.samples = new SampleBuffer();
+
+        this.evaluator = Evaluator.BERNSTEIN;
+        this.rootSolver = RootSolver.POWER_BASIS;
+        this.powerX = new double[numOfControlPoints];
+        this.powerY = new double[numOfControlPoints];
+        this.powerBasisModCount = -1;
+        this.sampledModCount = -1;
+    }
+
+    /**
+     * Creates an empty bezier curve with the given number of control points
+     * @param numOfControlPoints The number of control points
+     * @return the bezier curve
+     */
+    public static BezierCurve create(int numOfControlPoints) {
+        switch (numOfControlPoints) {
+            case 3:
+                return new QuadraticBezierCurve();
+            case 4:
+                return new CubicBezierCurve();
+            default:
+                return new GeneralBezierCurve(numOfControlPoints);
+        }
     }
 
     /**
@@ -33,10 +84,7 @@ public abstract class BezierCurve {
      * @param g The graphics where we draw the components
      */
     public void drawLine(Graphics g) {
-        bezierPoints.forEach(bezierPoint -> {
-            g.setColor(bezierPoint.getColor());
-            g.fillOval(bezierPoint.startX(), bezierPoint.startY(), bezierPoint.getWidth(), bezierPoint.getHeight());
-        });
+        samples.draw(g);
     }
 
     /**
@@ -85,21 +133,392 @@ public abstract class BezierCurve {
         return controlPoints;
     }
 
+    public Evaluator getEvaluator() {
+        return evaluator;
+    }
+
+    public void setEvaluator(Evaluator evaluator) {
+        if (this.evaluator != evaluator) {
+            this.evaluator = evaluator;
+            sampledModCount = -1;
+        }
+    }
+
+    public RootSolver getRootSolver() {
+        return rootSolver;
+    }
+
+    public void setRootSolver(RootSolver rootSolver) {
+        this.rootSolver = rootSolver;
+    }
+
+    /**
+     * Sums the modification counters of the control points. The result grows every time a
+     * control point is added or moved, so it identifies the current shape of the curve.
+     * @return the modification counter of the curve
+     */
+    public long getModCount() {
+        long modCount = 0;
+        for(int i=0;i<controlPoints.size();i++) {
+            modCount += controlPoints.get(i).getModCount() + 1;
+        }
+        return modCount;
+    }
+
+    /**
+     * Returns the bounding box of the control points. It is cached until a control point moves.
+     * @return the bounding box, or null if the curve is not complete
+     */
+    public Rectangle2D getBounds() {
+        Hull hull = getHull();
+        return hull != null ? hull.bounds : null;
+    }
+
+    /**
+     * Checks cheaply if the curve cannot intersect the straight line segment between two
+     * points. The curve lies inside the convex hull of its control points, so it is separated
+     * from the segment if the segment misses the bounding box of the control points, or if all
+     * the control points lie strictly on the same side of the line.
+     * @param x1
+     * @param y1
+     * @param x2
+     * @param y2
+     * @return True/false if the curve certainly does not intersect the segment
+     */
+    public boolean isSeparatedFrom(double x1, double y1, double x2, double y2) {
+        Hull hull = getHull();
+        if (hull == null) {
+            return true;
+        }
+
+        Rectangle2D bounds = hull.bounds;
+        if (Math.max(x1, x2) < bounds.getMinX() - HULL_TOLERANCE || Math.min(x1, x2) > bounds.getMaxX() + HULL_TOLERANCE
+                || Math.max(y1, y2) < bounds.getMinY() - HULL_TOLERANCE || Math.min(y1, y2) > bounds.getMaxY() + HULL_TOLERANCE) {
+            return true;
+        }
+
+        double A = y2 - y1;
+        double B = x1 - x2;
+        double C = y1 * x2 - x1 * y2;
+        double tolerance = HULL_TOLERANCE * (Math.abs(A) + Math.abs(B));
+
+        boolean above = false, below = false;
+        for(int i=0;i<hull.x.length;i++) {
+            double distance = A * hull.x[i] + B * hull.y[i] + C;
+            above |= distance >= -tolerance;
+            below |= distance <= tolerance;
+        }
+        return !(above && below);
+    }
+
+    /**
+     * Brings the cached power basis and control polygon up to date, so that the curve can
+     * then be read from several threads at once.
+     */
+    public void updateCaches() {
+        if (controlPoints.size() == numOfControlPoints) {
+            updatePowerBasis();
+            getHull();
+        }
+    }
+
+    /**
+     * Returns the control polygon of the curve, recomputing it if a control point moved.
+     * @return the control polygon, or null if the curve is not complete
+     */
+    private Hull getHull() {
+        if (controlPoints.size() < numOfControlPoints) {
+            return null;
+        }
+
+        long modCount = getModCount();
+        Hull hull = this.hull;
+        if (hull == null || hull.modCount != modCount) {
+            hull = new Hull(controlPoints, modCount);
+            this.hull = hull;
+        }
+        return hull;
+    }
+
+    /**
+     * Checks if the samples are out of date, either because a control point moved or because
+     * a different number of samples is requested.
+     * @param numOfSamples The number of samples
+     * @return True/false if the samples need to be updated
+     */
+    public boolean isDirty(int numOfSamples) {
+        return isDirty(Sampling.uniform(numOfSamples));
+    }
+
+    /**
+     * Checks if the samples are out of date, either because a control point moved or because
+     * a different sampling is requested.
+     * @param sampling The way samples are placed
+     * @return True/false if the samples need to be updated
+     */
+    public boolean isDirty(Sampling sampling) {
+        return controlPoints.size() == numOfControlPoints
+                && (sampledModCount != getModCount() || !sampling.equals(sampled));
+    }
+
+    /**
+     * Updates the positions of the sample points only if they are out of date.
+     * @param numOfSamples The number of samples
+     * @return True/false if the samples were updated
+     */
+    public boolean updatePointsIfDirty(int numOfSamples) {
+        return updatePointsIfDirty(Sampling.uniform(numOfSamples));
+    }
+
+    /**
+     * Updates the positions of the sample points only if they are out of date.
+     * @param sampling The way samples are placed
+     * @return True/false if the samples were updated
+     */
+    public boolean updatePointsIfDirty(Sampling sampling) {
+        if (isDirty(sampling)) {
+            updatePoints(sampling);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Updates the positions of the sample points
+     */
+    public void updatePoints(int numOfSamples) {
+        updatePoints(Sampling.uniform(numOfSamples));
+    }
+
     /**
      * Updates the positions of the sample points
+     * @param sampling The way samples are placed
      */
-     public void updatePoints(int numOfSamples) {
+    public void updatePoints(Sampling sampling) {
 
         if (controlPoints.size() == numOfControlPoints) {
-            double increment = 1d / (numOfSamples - 1);
+            long start = Metrics.UPDATE_POINTS.start();
+            sampledModCount = getModCount();
+            sampled = sampling;
+
+            switch (sampling.getMode()) {
+                case UNIFORM:
+                    updateUniformPoints(sampling.getNumOfSamples());
+                    break;
+                case ADAPTIVE:
+                    updateAdaptivePoints(sampling.getTolerance(), sampling.getNumOfSamples());
+                    break;
+                case ARC_LENGTH:
+                    updateArcLengthPoints(sampling.getNumOfSamples());
+                    break;
+            }
+            Metrics.SAMPLES.add(samples.size());
+            Metrics.UPDATE_POINTS.stop(start);
+        }
+    }
+
+    /**
+     * Places the given number of samples evenly in t
+     * @param numOfSamples The number of samples
+     */
+    void updateUniformPoints(int numOfSamples) {
+        if (numOfSamples <= 0) {
+            samples.clear();
+            return;
+        }
+        samples.resize(numOfSamples);
+
+        double increment = numOfSamples > 1 ? 1d / (numOfSamples - 1) : 0;
+        switch (evaluator) {
+            case BERNSTEIN:
+                Vector2D point = new Vector2D();
+                for(int i=0;i<numOfSamples;i++) {
+                    calcPoint(i * increment, point);
+                    samples.set(i, i * increment, point.x, point.y);
+                }
+                break;
+            case HORNER:
+                updatePowerBasis();
+                for(int i=0;i<numOfSamples;i++) {
+                    double t = i * increment;
+                    samples.set(i, t, horner(powerX, t), horner(powerY, t));
+                }
+                break;
+            case FORWARD_DIFFERENCES:
+                updatePowerBasis();
+                forwardDifferences(numOfSamples, increment);
+                break;
+        }
+    }
+
+    /**
+     * Places the given number of samples evenly along the length of the curve
+     * @param numOfSamples The number of samples
+     */
+    private void updateArcLengthPoints(int numOfSamples) {
+        if (numOfSamples <= 0) {
+            samples.clear();
+            return;
+        }
+        samples.resize(numOfSamples);
+
+        ArcLengthTable table = getArcLengthTable();
+        double increment = numOfSamples > 1 ? table.length() / (numOfSamples - 1) : 0;
+        Vector2D point = new Vector2D();
+        for(int i=0;i<numOfSamples;i++) {
+            double t = i == numOfSamples - 1 && i > 0 ? 1 : table.tAt(i * increment);
+            calcPoint(t, point);
+            samples.set(i, t, point.x, point.y);
+        }
+    }
+
+    /**
+     * Returns the arc length lookup table of the curve. It is cached until a control point moves.
+     * @return the table, or null if the curve is not complete
+     */
+    public ArcLengthTable getArcLengthTable() {
+        if (controlPoints.size() < numOfControlPoints) {
+            return null;
+        }
+
+        if (arcLengthTable == null || arcLengthTable.getModCount() != getModCount()) {
+            arcLengthTable = new ArcLengthTable(this, ArcLengthTable.DEFAULT_NUM_OF_INTERVALS);
+        }
+        return arcLengthTable;
+    }
+
+    /**
+     * Places the samples by subdividing the curve until every piece is flat within the
+     * tolerance. The least flat piece is always split first, so when the budget runs out the
+     * samples are where the curve bends the most.
+     * @param tolerance The maximum distance in pixels between a piece and its chord
+     * @param maxNumOfSamples The budget of samples
+     */
+    private void updateAdaptivePoints(double tolerance, int maxNumOfSamples) {
+        double[] x = new double[numOfControlPoints];
+        double[] y = new double[numOfControlPoints];
+        for(int i=0;i<numOfControlPoints;i++) {
+            x[i] = controlPoints.get(i).getX();
+            y[i] = controlPoints.get(i).getY();
+        }
+
+        PriorityQueue<Piece> queue = new PriorityQueue<>((a, b) -> Double.compare(b.flatness, a.flatness));
+        List<Piece> pieces = new ArrayList<>();
+        queue.add(new Piece(0, 1, x, y));
+
+        // Every piece adds one sample to the end point of the curve
+        while (!queue.isEmpty()) {
+            Piece piece = queue.poll();
+            if (piece.flatness <= tolerance || queue.size() + pieces.size() + 2 >= maxNumOfSamples
+                    || piece.t1 - piece.t0 < MIN_PIECE) {
+                pieces.add(piece);
+            } else {
+                Piece[] halves = piece.split();
+                queue.add(halves[0]);
+                queue.add(halves[1]);
+            }
+        }
+        pieces.sort((a, b) -> Double.compare(a.t0, b.t0));
+
+        samples.resize(pieces.size() + 1);
+        for(int i=0;i<pieces.size();i++) {
+            Piece piece = pieces.get(i);
+            samples.set(i, piece.t0, piece.x[0], piece.y[0]);
+        }
+        samples.set(pieces.size(), 1, x[numOfControlPoints - 1], y[numOfControlPoints - 1]);
+    }
+
+    /**
+     * Samples the curve by adding the forward differences of its power basis. Every
+     * RESEED_INTERVAL samples the difference table is rebuilt from exact values, which
+     * bounds the drift to the error accumulated over a single interval.
+     * @param numOfSamples The number of samples
+     * @param increment The step of t between two samples
+     */
+    private void forwardDifferences(int numOfSamples, double increment) {
+        int degree = numOfControlPoints - 1;
+        double[] dx = new double[degree + 1];
+        double[] dy = new double[degree + 1];
+
+        for(int i=0;i<numOfSamples;i++) {
+            if (i % RESEED_INTERVAL == 0) {
+                differenceTable(powerX, i, increment, dx);
+                differenceTable(powerY, i, increment, dy);
+            }
+
+            // The end of the curve is always exact
+            if (i > 0 && i == numOfSamples - 1) {
+                samples.set(i, 1d, horner(powerX, 1d), horner(powerY, 1d));
+            } else {
+                samples.set(i, i * increment, dx[0], dy[0]);
+            }
+
+            for(int k=0;k<degree;k++) {
+                dx[k] += dx[k + 1];
+                dy[k] += dy[k + 1];
+            }
+        }
+    }
 
-            bezierPoints.clear();
-            for(double t = 0; (t<1d) || Common.Equal(t, 1); t+=increment) {
-                bezierPoints.add(calcPoint(t));
+    /**
+     * Fills the forward difference table of a polynomial starting at the given sample.
+     * @param coefficients The power-basis coefficients of the polynomial
+     * @param start The index of the first sample
+     * @param increment The step of t between two samples
+     * @param differences The table to fill, one entry per order of difference
+     */
+    private static void differenceTable(double[] coefficients, int start, double increment, double[] differences) {
+        for(int k=0;k<differences.length;k++) {
+            differences[k] = horner(coefficients, (start + k) * increment);
+        }
+        for(int k=1;k<differences.length;k++) {
+            for(int j=differences.length-1;j>=k;j--) {
+                differences[j] -= differences[j - 1];
             }
         }
     }
 
+    /**
+     * Evaluates a polynomial given by its power-basis coefficients.
+     * @param coefficients The coefficients, lowest degree first
+     * @param t
+     * @return the value of the polynomial at t
+     */
+    static double horner(double[] coefficients, double t) {
+        double result = 0;
+        for(int i=coefficients.length-1;i>=0;i--) {
+            result = result * t + coefficients[i];
+        }
+        return result;
+    }
+
+    /**
+     * Converts the control points to the coefficients of the curve in the power basis.
+     * The coefficients are only recomputed when a control point has moved.
+     */
+    void updatePowerBasis() {
+        long modCount = getModCount();
+        if (modCount == powerBasisModCount) {
+            return;
+        }
+        powerBasisModCount = modCount;
+
+        int degree = numOfControlPoints - 1;
+        for(int j=0;j<=degree;j++) {
+            double x = 0, y = 0;
+            for(int i=0;i<=j;i++) {
+                double tmp = ((j - i) % 2 == 0 ? 1 : -1) * CombinatoricsUtils.binomialCoefficient(j, i);
+
+                x += tmp * controlPoints.get(i).getX();
+                y += tmp * controlPoints.get(i).getY();
+            }
+
+            double binomial = CombinatoricsUtils.binomialCoefficient(degree, j);
+            powerX[j] = binomial * x;
+            powerY[j] = binomial * y;
+        }
+    }
+
     /**
      * Deselects all selected control points
      */
@@ -121,6 +540,22 @@ public abstract class BezierCurve {
      * @return the sample point of the bezier bezier
      */
     public LinePoint calcPoint(double t) {
+        Vector2D point = calcPoint(t, new Vector2D());
+        return new LinePoint(t, point.x, point.y);
+    }
+
+    /**
+     * Given a parameter t - it calculates the sample point of the bezier without allocating
+     * @param t
+     * @param point The vector where the coordinates are stored
+     * @return the given vector
+     */
+    public Vector2D calcPoint(double t, Vector2D point) {
+        if (evaluator != Evaluator.BERNSTEIN && controlPoints.size() == numOfControlPoints) {
+            updatePowerBasis();
+            return point.set(horner(powerX, t), horner(powerY, t));
+        }
+
         double x = 0, y = 0;
         for(int i=0;i<controlPoints.size();i++) {
             double tmp = CombinatoricsUtils.binomialCoefficient(numOfControlPoints-1, i) * Math.pow(1 - t, numOfControlPoints - i -1) * Math.pow(t, i);
@@ -129,28 +564,78 @@ public abstract class BezierCurve {
             y += tmp * controlPoints.get(i).getY();
         }
 
-        return new LinePoint(t, x, y);
+        return point.set(x, y);
+    }
+
+    /**
+     * It calculates the illumination of a given sample
+     * @param sample The index of the sample
+     * @param lightSource
+     * @return the color of the sample as an ARGB value
+     */
+    public int calcColor(int sample, ControlPoint lightSource) {
+        return calcColor(sample, lightSource, new Vector2D(), new Vector2D());
+    }
+
+    /**
+     * It calculates the illumination of a given sample using the given vectors as scratch space
+     * @param sample The index of the sample
+     * @param lightSource
+     * @param normal Holder for the normal of the curve
+     * @param toLightSource Holder for the direction to the light source
+     * @return the color of the sample as an ARGB value
+     */
+    public int calcColor(int sample, ControlPoint lightSource, Vector2D normal, Vector2D toLightSource) {
+        firstDerivative(samples.getT(sample), normal).unit().perpendicular();
+        return gray(calcIntensity(sample, lightSource, normal, toLightSource));
     }
 
     /**
-     * It calculates the illumination of a given point
-     * @param bezierPoint
-     * @return
+     * It calculates the illumination of a given sample by several light sources, adding up the
+     * contributions of the light sources that are not in shadow
+     * @param sample The index of the sample
+     * @param lightSources The light sources
+     * @param lit lit[i] tells whether light source i reaches the sample
+     * @param normal Holder for the normal of the curve
+     * @param toLightSource Holder for the direction to a light source
+     * @return the color of the sample as an ARGB value
      */
-    public Color calcColor(LinePoint bezierPoint, ControlPoint lightSource) {
-        LinePoint normal = firstDerivative(bezierPoint.getT()).unit().perpendicular();
-        LinePoint toLightSource = bezierPoint.vectorToPoint(lightSource).unit();
+    public int calcColor(int sample, List<? extends ControlPoint> lightSources, boolean[] lit, Vector2D normal, Vector2D toLightSource) {
+        firstDerivative(samples.getT(sample), normal).unit().perpendicular();
+
+        float intensity = 0;
+        for(int i=0;i<lightSources.size();i++) {
+            if (lit[i]) {
+                intensity += calcIntensity(sample, lightSources.get(i), normal, toLightSource);
+            }
+        }
+        return gray(intensity);
+    }
 
-        float dot = Math.max((float) normal.dot(toLightSource), 0f);
-        return new Color(dot, dot, dot);
+    /**
+     * @param sample The index of the sample
+     * @param lightSource
+     * @param normal The unit normal of the curve at the sample
+     * @param toLightSource Holder for the direction to the light source
+     * @return the cosine between the normal and the direction to the light source, or 0 if the
+     * light source is behind the curve
+     */
+    private float calcIntensity(int sample, ControlPoint lightSource, Vector2D normal, Vector2D toLightSource) {
+        toLightSource.difference(samples.getX(sample), samples.getY(sample), lightSource.getX(), lightSource.getY()).unit();
+        return Math.max((float) normal.dot(toLightSource), 0f);
     }
 
-    public List<LinePoint> getBezierPoints() {
-        return bezierPoints;
+    /**
+     * @param intensity The light received, saturating at 1
+     * @return the gray ARGB value of the intensity
+     */
+    private static int gray(float intensity) {
+        int dot = Math.round(Math.min(intensity, 1f) * 255);
+        return 0xFF000000 | dot << 16 | dot << 8 | dot;
     }
 
-    public void setBezierPoints(List<LinePoint> bezierPoints) {
-        this.bezierPoints = bezierPoints;
+    public SampleBuffer getSamples() {
+        return samples;
     }
 
     /**
@@ -159,12 +644,262 @@ public abstract class BezierCurve {
      * @param lightSource point of the straight line
      * @return the list of roots
      */
-    public abstract List<Double> calculateRoots(LinePoint bezierPoint, ControlPoint lightSource);
+    public List<Double> calculateRoots(LinePoint bezierPoint, ControlPoint lightSource) {
+        return calculateRoots(bezierPoint.getX(), bezierPoint.getY(), lightSource);
+    }
+
+    /**
+     * @return the largest number of roots a straight line can have with the curve
+     */
+    public int getMaxNumOfRoots() {
+        return numOfControlPoints - 1;
+    }
+
+    /**
+     * Finds the roots in [0, 1] between the curve and the straight line between (x, y) and the
+     * light source with the root solver of the curve, without allocating.
+     * @param x coordinate of the point of the straight line
+     * @param y coordinate of the point of the straight line
+     * @param lightX coordinate of the light source
+     * @param lightY coordinate of the light source
+     * @param roots The array where the roots are stored in ascending order
+     * @param offset The index of the first root, followed by room for getMaxNumOfRoots() roots
+     * @return the number of roots
+     */
+    public int calculateRoots(double x, double y, double lightX, double lightY, double[] roots, int offset) {
+        if (controlPoints.size() < numOfControlPoints) {
+            return 0;
+        }
+        Metrics.ROOT_SOLVES.increment();
+
+        double A = lightY - y;
+        double B = x - lightX;
+        double C = y * lightX - x * lightY;
+        int degree = numOfControlPoints - 1;
+
+        if (rootSolver == RootSolver.BEZIER_CLIPPING) {
+            // Signed distances of the control points from the line
+            double[] scratch = rootScratch(numOfControlPoints + BezierClipping.scratchSize(degree));
+            for(int i=0;i<=degree;i++) {
+                ControlPoint controlPoint = controlPoints.get(i);
+                scratch[i] = A * controlPoint.getX() + B * controlPoint.getY() + C;
+            }
+            return BezierClipping.solve(scratch, degree, roots, offset, scratch, numOfControlPoints);
+        }
+
+        updatePowerBasis();
+        double[] scratch = rootScratch(numOfControlPoints + Polynomials.scratchSize(degree));
+        for(int j=0;j<=degree;j++) {
+            scratch[j] = A * powerX[j] + B * powerY[j];
+        }
+        scratch[0] += C;
+
+        return Polynomials.solveInUnitInterval(scratch, degree, roots, offset, scratch, numOfControlPoints);
+    }
+
+    /**
+     * @return the largest number of points of the curve whose tangent passes through a given point
+     */
+    public int getMaxNumOfTangents() {
+        return Math.max(2 * numOfControlPoints - 4, 0);
+    }
+
+    /**
+     * Finds the parameters in [0, 1] where the tangent of the curve passes through (x, y), that
+     * is the roots of the cross product between B(t) - (x, y) and B'(t). Seen from (x, y) these
+     * are the points of the silhouette of the curve.
+     * @param x
+     * @param y
+     * @param roots The array where the parameters are stored in ascending order
+     * @param offset The index of the first parameter, followed by room for getMaxNumOfTangents() values
+     * @return the number of parameters
+     */
+    public int calculateTangents(double x, double y, double[] roots, int offset) {
+        int degree = 2 * numOfControlPoints - 4;
+        if (controlPoints.size() < numOfControlPoints || degree <= 0) {
+            return 0;
+        }
+        updatePowerBasis();
+
+        double[] scratch = rootScratch(degree + 1 + Polynomials.scratchSize(degree));
+        Arrays.fill(scratch, 0, degree + 1, 0);
+        for(int i=0;i<numOfControlPoints;i++) {
+            double px = i == 0 ? powerX[0] - x : powerX[i];
+            double py = i == 0 ? powerY[0] - y : powerY[i];
+            for(int j=1;j<numOfControlPoints;j++) {
+                if (i != j) {
+                    scratch[i + j - 1] += j * (px * powerY[j] - py * powerX[j]);
+                }
+            }
+        }
+        return Polynomials.solveInUnitInterval(scratch, degree, roots, offset, scratch, degree + 1);
+    }
+
+    /**
+     * Finds the roots in [0, 1] between the curve and the straight line between (x, y) and
+     * lightSource with the root solver of the curve
+     * @param x coordinate of the point of the straight line
+     * @param y coordinate of the point of the straight line
+     * @param lightSource point of the straight line
+     * @return the list of roots
+     */
+    List<Double> calculateRootsInUnitInterval(double x, double y, ControlPoint lightSource) {
+        double[] roots = new double[getMaxNumOfRoots()];
+        int numOfRoots = calculateRoots(x, y, lightSource.getX(), lightSource.getY(), roots, 0);
+
+        List<Double> results = new ArrayList<>(numOfRoots);
+        for(int i=0;i<numOfRoots;i++) {
+            results.add(roots[i]);
+        }
+        return results;
+    }
+
+    /**
+     * Finds the roots in [0, 1] between the curve and the straight lines from a batch of points
+     * to the same light source, without allocating.
+     * @param x The x coordinates of the points
+     * @param y The y coordinates of the points
+     * @param from The first point, inclusive
+     * @param to The last point, exclusive
+     * @param lightX coordinate of the light source
+     * @param lightY coordinate of the light source
+     * @param roots The roots of point i are stored from (i - from) * getMaxNumOfRoots()
+     * @param counts counts[i - from] is set to the number of roots of point i
+     * @return the total number of roots
+     */
+    public int calculateRoots(double[] x, double[] y, int from, int to, double lightX, double lightY,
+                              double[] roots, int[] counts) {
+        int stride = getMaxNumOfRoots();
+        int total = 0;
+        for(int i=from;i<to;i++) {
+            counts[i - from] = calculateRoots(x[i], y[i], lightX, lightY, roots, (i - from) * stride);
+            total += counts[i - from];
+        }
+        return total;
+    }
+
+    /**
+     * @param size The number of values needed
+     * @return the scratch array of the current thread, grown if needed
+     */
+    private static double[] rootScratch(int size) {
+        double[] scratch = ROOT_SCRATCH.get();
+        if (scratch.length < size) {
+            scratch = new double[size];
+            ROOT_SCRATCH.set(scratch);
+        }
+        return scratch;
+    }
+
+    /**
+     * Finds the roots between the curve and the straight line between (x, y) and lightSource
+     * @param x coordinate of the point of the straight line
+     * @param y coordinate of the point of the straight line
+     * @param lightSource point of the straight line
+     * @return the list of roots
+     */
+    public abstract List<Double> calculateRoots(double x, double y, ControlPoint lightSource);
 
     /**
      * Calculates the first derivative of the curve on the point
      * @param t
+     * @param derivative The vector where the derivative is stored
      * @return the derivative on both x and y axis
      */
-    protected abstract LinePoint firstDerivative(double t);
+    protected abstract Vector2D firstDerivative(double t, Vector2D derivative);
+
+    /**
+     * Immutable copy of the control points of the curve and their bounding box.
+     */
+    private static class Hull {
+
+        private final long modCount;
+        private final double[] x;
+        private final double[] y;
+        private final Rectangle2D bounds;
+
+        private Hull(List<ControlPoint> controlPoints, long modCount) {
+            this.modCount = modCount;
+            this.x = new double[controlPoints.size()];
+            this.y = new double[controlPoints.size()];
+
+            double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+            for(int i=0;i<controlPoints.size();i++) {
+                x[i] = controlPoints.get(i).getX();
+                y[i] = controlPoints.get(i).getY();
+                minX = Math.min(minX, x[i]);
+                minY = Math.min(minY, y[i]);
+                maxX = Math.max(maxX, x[i]);
+                maxY = Math.max(maxY, y[i]);
+            }
+            this.bounds = new Rectangle2D.Double(minX, minY, maxX - minX, maxY - minY);
+        }
+    }
+
+    /**
+     * Part of the curve between two parameters, described by its own control points.
+     */
+    private static class Piece {
+
+        private final double t0;
+        private final double t1;
+        private final double[] x;
+        private final double[] y;
+        private final double flatness;
+
+        private Piece(double t0, double t1, double[] x, double[] y) {
+            this.t0 = t0;
+            this.t1 = t1;
+            this.x = x;
+            this.y = y;
+            this.flatness = flatness(x, y);
+        }
+
+        /**
+         * Splits the piece in the middle with de Casteljau's algorithm
+         * @return the two halves
+         */
+        private Piece[] split() {
+            int n = x.length;
+            double[] leftX = new double[n], leftY = new double[n];
+            double[] rightX = new double[n], rightY = new double[n];
+            double[] tmpX = x.clone(), tmpY = y.clone();
+
+            for(int level=0;level<n;level++) {
+                leftX[level] = tmpX[0];
+                leftY[level] = tmpY[0];
+                rightX[n - 1 - level] = tmpX[n - 1 - level];
+                rightY[n - 1 - level] = tmpY[n - 1 - level];
+                for(int i=0;i<n-1-level;i++) {
+                    tmpX[i] = (tmpX[i] + tmpX[i + 1]) / 2;
+                    tmpY[i] = (tmpY[i] + tmpY[i + 1]) / 2;
+                }
+            }
+
+            double middle = (t0 + t1) / 2;
+            return new Piece[] {new Piece(t0, middle, leftX, leftY), new Piece(middle, t1, rightX, rightY)};
+        }
+
+        /**
+         * The curve lies in the convex hull of its control points, so the largest distance of
+         * the inner control points to the chord bounds how far the curve strays from it.
+         * @return the flatness of the control polygon
+         */
+        private static double flatness(double[] x, double[] y) {
+            int last = x.length - 1;
+            double dx = x[last] - x[0];
+            double dy = y[last] - y[0];
+            double length = Math.sqrt(dx * dx + dy * dy);
+
+            double flatness = 0;
+            for(int i=1;i<last;i++) {
+                double distance = length > 0
+                        ? Math.abs(dx * (y[0] - y[i]) - dy * (x[0] - x[i])) / length
+                        : Math.sqrt((x[i] - x[0]) * (x[i] - x[0]) + (y[i] - y[0]) * (y[i] - y[0]));
+                flatness = Math.max(flatness, distance);
+            }
+            return flatness;
+        }
+    }
 }
@@ -1,7 +1,7 @@
 package bezierCurve.bezier;
 
 import bezierCurve.points.ControlPoint;
-import bezierCurve.points.LinePoint;
+import bezierCurve.points.Vector2D;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -11,23 +11,31 @@ public class CubicBezierCurve extends BezierCurve {
     private static int NUM_OF_CONTROL_POINTS = 4;
     private static final double TWO_PI = 2.0 * Math.PI;
     private static final double FOUR_PI = 4.0 * Math.PI;
+    private static double DEGENERATE_TOLERANCE = 1e-12;
 
     public CubicBezierCurve() {
         super(NUM_OF_CONTROL_POINTS);
     }
 
     /**
-     * Solve cubic equation to find roots between the bezier and the line.
-     * @param bezierPoint
+     * Solve cubic equation to find roots between the bezier and the line. Near-degenerate
+     * cubics and the Bezier clipping solver only report the roots in [0, 1].
+     * @param x
+     * @param y
+     * @param lightSource
      * @return The list of the roots
      */
-    public List<Double> calculateRoots(LinePoint bezierPoint, ControlPoint lightSource) {
+    public List<Double> calculateRoots(double x, double y, ControlPoint lightSource) {
+
+        if (getRootSolver() == RootSolver.BEZIER_CLIPPING) {
+            return calculateRootsInUnitInterval(x, y, lightSource);
+        }
 
         List<Double> results = new ArrayList<>();
         if (controlPoints.size() == NUM_OF_CONTROL_POINTS) {
-            double A = lightSource.getY() - bezierPoint.getY();
-            double B = bezierPoint.getX() - lightSource.getX();
-            double C = bezierPoint.getY() * lightSource.getX() - bezierPoint.getX() * lightSource.getY();
+            double A = lightSource.getY() - y;
+            double B = x - lightSource.getX();
+            double C = y * lightSource.getX() - x * lightSource.getY();
 
             ControlPoint P1 = controlPoints.get(0);
             ControlPoint P2 = controlPoints.get(1);
@@ -45,6 +53,11 @@ public class CubicBezierCurve extends BezierCurve {
             double K = B * P1.getY();
 
             double tmp = D + H;
+            double scale = Math.max(Math.abs(tmp), Math.max(Math.abs(E + I), Math.max(Math.abs(F + J), Math.abs(C + G + K))));
+            if (Math.abs(tmp) <= DEGENERATE_TOLERANCE * scale) {
+                return calculateRootsInUnitInterval(x, y, lightSource);
+            }
+
             double a = (E + I) / tmp;
             double b = (F + J) / tmp;
             double c = (C + G + K) / tmp;
@@ -89,7 +102,7 @@ public class CubicBezierCurve extends BezierCurve {
     }
 
     @Override
-    protected LinePoint firstDerivative(double t) {
+    protected Vector2D firstDerivative(double t, Vector2D derivative) {
         ControlPoint p1 = controlPoints.get(0);
         ControlPoint p2 = controlPoints.get(1);
         ControlPoint p3 = controlPoints.get(2);
@@ -98,7 +111,7 @@ public class CubicBezierCurve extends BezierCurve {
         double x = firstDerivative(t, p1.getX(), p2.getX(), p3.getX(), p4.getX());
         double y = firstDerivative(t, p1.getY(), p2.getY(), p3.getY(), p4.getY());
 
-        return new LinePoint(t, x, y);
+        return derivative.set(x, y);
     }
 
     private double firstDerivative(double t, double p1, double p2, double p3, double p4) {
@@ -0,0 +1,25 @@
+package bezierCurve.bezier;
+
+/**
+ * The ways a Bezier curve can evaluate its samples.
+ * @author 150001289
+ */
+public enum Evaluator {
+
+    /**
+     * Sums the Bernstein polynomials of every control point for each sample. The default.
+     */
+    BERNSTEIN,
+
+    /**
+     * Evaluates the cached power-basis coefficients of the curve with Horner's rule.
+     */
+    HORNER,
+
+    /**
+     * Walks the curve with incremental forward differences. The difference table is
+     * re-seeded with Horner's rule at regular intervals so that the accumulated rounding
+     * error stays bounded.
+     */
+    FORWARD_DIFFERENCES
+}
@@ -0,0 +1,118 @@
+package bezierCurve.bezier;
+
+import bezierCurve.points.ControlPoint;
+import bezierCurve.points.Vector2D;
+import org.apache.commons.math3.analysis.solvers.LaguerreSolver;
+import org.apache.commons.math3.complex.Complex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bezier curve of any degree. Its uniform samples are the product of the shared Bernstein
+ * basis table with the control points.
+ * @author 150001289
+ */
+public class GeneralBezierCurve extends BezierCurve {
+
+    private static double IMAGINARY_TOLERANCE = 1e-9;
+    private static double COEFFICIENT_TOLERANCE = 1e-12;
+
+    public GeneralBezierCurve(int numOfControlPoints) {
+        super(numOfControlPoints);
+        if (numOfControlPoints < 2) {
+            throw new IllegalArgumentException("A bezier curve needs at least two control points: " + numOfControlPoints);
+        }
+
+        setEvaluator(Evaluator.BERNSTEIN);
+
+        // Above cubics, clipping is faster than isolating the roots of the power basis
+        if (numOfControlPoints > 4) {
+            setRootSolver(RootSolver.BEZIER_CLIPPING);
+        }
+    }
+
+    /**
+     * With the Bernstein evaluator the samples come from the shared basis table.
+     * @param numOfSamples The number of samples
+     */
+    @Override
+    void updateUniformPoints(int numOfSamples) {
+        if (getEvaluator() != Evaluator.BERNSTEIN || numOfSamples <= 0) {
+            super.updateUniformPoints(numOfSamples);
+            return;
+        }
+
+        double[] x = new double[numOfControlPoints];
+        double[] y = new double[numOfControlPoints];
+        for(int i=0;i<numOfControlPoints;i++) {
+            x[i] = controlPoints.get(i).getX();
+            y[i] = controlPoints.get(i).getY();
+        }
+        BernsteinBasis.of(numOfControlPoints - 1, numOfSamples).evaluate(x, y, samples);
+    }
+
+    /**
+     * Finds the real roots of the polynomial of the curve projected on the line. The Bezier
+     * clipping solver only reports the roots in [0, 1].
+     * @param x
+     * @param y
+     * @param lightSource
+     * @return The list of the roots
+     */
+    @Override
+    public List<Double> calculateRoots(double x, double y, ControlPoint lightSource) {
+
+        if (getRootSolver() == RootSolver.BEZIER_CLIPPING) {
+            return calculateRootsInUnitInterval(x, y, lightSource);
+        }
+
+        List<Double> results = new ArrayList<>();
+        if (controlPoints.size() == numOfControlPoints) {
+            double A = lightSource.getY() - y;
+            double B = x - lightSource.getX();
+            double C = y * lightSource.getX() - x * lightSource.getY();
+
+            updatePowerBasis();
+            double[] coefficients = new double[numOfControlPoints];
+            double scale = 0;
+            for(int j=0;j<numOfControlPoints;j++) {
+                coefficients[j] = A * powerX[j] + B * powerY[j];
+                scale = Math.max(scale, Math.abs(coefficients[j]));
+            }
+            coefficients[0] += C;
+            scale = Math.max(scale, Math.abs(coefficients[0]));
+
+            // Drop the vanishing leading coefficients
+            int degree = numOfControlPoints - 1;
+            while (degree > 0 && Math.abs(coefficients[degree]) <= COEFFICIENT_TOLERANCE * scale) {
+                degree--;
+            }
+            if (degree == 0) {
+                return results;
+            }
+
+            double[] polynomial = new double[degree + 1];
+            System.arraycopy(coefficients, 0, polynomial, 0, degree + 1);
+            for (Complex root : new LaguerreSolver().solveAllComplex(polynomial, 0.5)) {
+                if (Math.abs(root.getImaginary()) <= IMAGINARY_TOLERANCE * Math.max(1, Math.abs(root.getReal()))) {
+                    results.add(root.getReal());
+                }
+            }
+        }
+
+        return results;
+    }
+
+    @Override
+    protected Vector2D firstDerivative(double t, Vector2D derivative) {
+        updatePowerBasis();
+
+        double x = 0, y = 0;
+        for(int j=numOfControlPoints-1;j>0;j--) {
+            x = x * t + j * powerX[j];
+            y = y * t + j * powerY[j];
+        }
+        return derivative.set(x, y);
+    }
+}
@@ -0,0 +1,185 @@
+package bezierCurve.bezier;
+
+/**
+ * Finds the real roots of polynomials inside [0, 1] without allocating. Coefficients are given
+ * lowest degree first. Degrees up to two are solved in closed form and higher degrees are
+ * split at the roots of their derivative into monotone pieces, whose sign changes are refined
+ * with Newton steps kept inside the bracket. The closed form of the cubic is not used, as it
+ * loses most of its digits when the leading coefficient is small next to the others.
+ * @author 150001289
+ */
+final class Polynomials {
+
+    // Roots this close outside [0, 1] are still reported, as in Common.Equal
+    static final double RANGE_TOLERANCE = 1e-9;
+
+    // Leading coefficients this small relative to the largest are treated as zero
+    private static double DEGENERATE_TOLERANCE = 1e-12;
+
+    private static int MAX_ITERATIONS = 100;
+
+    private Polynomials() {
+    }
+
+    /**
+     * @param degree The degree of the polynomial
+     * @return the size of the scratch array that solveInUnitInterval needs
+     */
+    static int scratchSize(int degree) {
+        return degree <= 2 ? 0 : degree * degree * 2;
+    }
+
+    /**
+     * Finds the real roots of the polynomial in [0, 1], in ascending order
+     * @param c The coefficients, lowest degree first
+     * @param degree The degree of the polynomial
+     * @param roots The array where the roots are stored
+     * @param offset The index of the first root in the array
+     * @param scratch Scratch space of at least scratchSize(degree) values
+     * @param scratchOffset The index of the first scratch value
+     * @return the number of roots
+     */
+    static int solveInUnitInterval(double[] c, int degree, double[] roots, int offset,
+                                   double[] scratch, int scratchOffset) {
+        return solve(c, 0, degree, roots, offset, scratch, scratchOffset);
+    }
+
+    private static int solve(double[] c, int from, int degree, double[] roots, int offset,
+                             double[] scratch, int scratchOffset) {
+        double scale = 0;
+        for(int i=0;i<=degree;i++) {
+            scale = Math.max(scale, Math.abs(c[from + i]));
+        }
+        if (scale == 0) {
+            return 0;
+        }
+        while (degree > 0 && Math.abs(c[from + degree]) <= DEGENERATE_TOLERANCE * scale) {
+            degree--;
+        }
+
+        switch (degree) {
+            case 0:
+                return 0;
+            case 1:
+                return keep(-c[from] / c[from + 1], roots, offset, 0);
+            case 2:
+                return quadratic(c[from + 2], c[from + 1], c[from], roots, offset);
+            default:
+                return isolate(c, from, degree, scale, roots, offset, scratch, scratchOffset);
+        }
+    }
+
+    private static int quadratic(double a, double b, double c, double[] roots, int offset) {
+        double discriminant = b*b - 4*a*c;
+        if (discriminant < 0) {
+            return 0;
+        }
+
+        // Stable form that avoids cancellation between -b and the square root
+        double q = -0.5 * (b + Math.copySign(Math.sqrt(discriminant), b));
+        double root1 = q / a;
+        double root2 = q != 0 ? c / q : root1;
+
+        int count = keep(Math.min(root1, root2), roots, offset, 0);
+        return keep(Math.max(root1, root2), roots, offset, count);
+    }
+
+    /**
+     * Splits [0, 1] at the roots of the derivative and refines every monotone piece that
+     * changes sign.
+     */
+    private static int isolate(double[] c, int cFrom, int degree, double scale, double[] roots, int offset,
+                               double[] scratch, int scratchOffset) {
+        int derivative = scratchOffset;
+        int critical = derivative + degree;
+        int next = critical + degree - 1;
+
+        for(int i=1;i<=degree;i++) {
+            scratch[derivative + i - 1] = i * c[cFrom + i];
+        }
+        int numOfCritical = solve(scratch, derivative, degree - 1, scratch, critical, scratch, next);
+
+        int count = 0;
+        double zero = DEGENERATE_TOLERANCE * scale;
+        double from = 0;
+        double valueFrom = evaluate(c, cFrom, degree, 0);
+        if (Math.abs(valueFrom) <= zero) {
+            count = add(0, roots, offset, count);
+        }
+
+        for(int i=0;i<=numOfCritical;i++) {
+            double to = i < numOfCritical ? Math.max(from, Math.min(1, scratch[critical + i])) : 1;
+            double valueTo = evaluate(c, cFrom, degree, to);
+
+            if (Math.abs(valueTo) <= zero) {
+                count = add(to, roots, offset, count);
+            } else if (Math.abs(valueFrom) > zero && (valueFrom < 0) != (valueTo < 0)) {
+                count = add(refine(c, cFrom, degree, from, to, valueFrom), roots, offset, count);
+            }
+
+            from = to;
+            valueFrom = valueTo;
+        }
+        return count;
+    }
+
+    /**
+     * Newton's method on a monotone piece whose ends have opposite signs. Steps that would leave
+     * the bracket are replaced by bisection, and the bracket shrinks around the root either way.
+     */
+    private static double refine(double[] c, int cFrom, int degree, double from, double to, double valueFrom) {
+        double t = (from + to) / 2;
+        for(int i=0;i<MAX_ITERATIONS && to - from > 1e-15;i++) {
+            double value = 0, slope = 0;
+            for(int j=degree;j>=0;j--) {
+                slope = slope * t + value;
+                value = value * t + c[cFrom + j];
+            }
+            if (value == 0) {
+                return t;
+            }
+            if ((value < 0) == (valueFrom < 0)) {
+                from = t;
+            } else {
+                to = t;
+            }
+
+            double next = slope != 0 ? t - value / slope : from;
+            if (next <= from || next >= to) {
+                next = (from + to) / 2;
+            } else if (Math.abs(next - t) <= 1e-15) {
+                return next;
+            }
+            t = next;
+        }
+        return t;
+    }
+
+    private static double evaluate(double[] c, int from, int degree, double t) {
+        double result = 0;
+        for(int i=degree;i>=0;i--) {
+            result = result * t + c[from + i];
+        }
+        return result;
+    }
+
+    /**
+     * Stores the root if it lies in [0, 1], up to the range tolerance
+     */
+    private static int keep(double root, double[] roots, int offset, int count) {
+        if (root >= -RANGE_TOLERANCE && root <= 1 + RANGE_TOLERANCE) {
+            roots[offset + count++] = root;
+        }
+        return count;
+    }
+
+    /**
+     * Stores the root unless it repeats the previous one
+     */
+    private static int add(double root, double[] roots, int offset, int count) {
+        if (count == 0 || roots[offset + count - 1] != root) {
+            roots[offset + count++] = root;
+        }
+        return count;
+    }
+}
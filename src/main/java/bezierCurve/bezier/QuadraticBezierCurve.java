@@ -1,7 +1,7 @@
 package bezierCurve.bezier;
 
 import bezierCurve.points.ControlPoint;
-import bezierCurve.points.LinePoint;
+import bezierCurve.points.Vector2D;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -9,23 +9,31 @@ import java.util.List;
 public class QuadraticBezierCurve extends BezierCurve {
 
     private static int NUM_OF_CONTROL_POINTS = 3;
+    private static double DEGENERATE_TOLERANCE = 1e-12;
 
     public QuadraticBezierCurve() {
         super(NUM_OF_CONTROL_POINTS);
     }
 
     /**
-     * Solve quadratic equation to find roots between the bezier and the line.
-     * @param bezierPoint
+     * Solve quadratic equation to find roots between the bezier and the line. Near-degenerate
+     * quadratics and the Bezier clipping solver only report the roots in [0, 1].
+     * @param x
+     * @param y
+     * @param lightSource
      * @return The other root of the quadratic equation.
      */
-    public List<Double> calculateRoots(LinePoint bezierPoint, ControlPoint lightSource) {
+    public List<Double> calculateRoots(double x, double y, ControlPoint lightSource) {
+
+        if (getRootSolver() == RootSolver.BEZIER_CLIPPING) {
+            return calculateRootsInUnitInterval(x, y, lightSource);
+        }
 
         List<Double> result = new ArrayList<>();
         if (controlPoints.size() == NUM_OF_CONTROL_POINTS) {
-            double A = lightSource.getY() - bezierPoint.getY();
-            double B = bezierPoint.getX() - lightSource.getX();
-            double C = bezierPoint.getY() * lightSource.getX() - bezierPoint.getX() * lightSource.getY();
+            double A = lightSource.getY() - y;
+            double B = x - lightSource.getX();
+            double C = y * lightSource.getX() - x * lightSource.getY();
 
             ControlPoint P1 = controlPoints.get(0);
             ControlPoint P2 = controlPoints.get(1);
@@ -42,6 +50,9 @@ public class QuadraticBezierCurve extends BezierCurve {
             double a = D + G;
             double b = E + H;
             double c = C + F + I;
+            if (Math.abs(a) <= DEGENERATE_TOLERANCE * Math.max(Math.abs(a), Math.max(Math.abs(b), Math.abs(c)))) {
+                return calculateRootsInUnitInterval(x, y, lightSource);
+            }
 
             double root1 = (-b + Math.sqrt(b*b - 4*a*c)) / (2 * a);
             double root2 = (-b - Math.sqrt(b*b - 4*a*c)) / (2 * a);
@@ -56,7 +67,7 @@ public class QuadraticBezierCurve extends BezierCurve {
     }
 
     @Override
-    protected LinePoint firstDerivative(double t) {
+    protected Vector2D firstDerivative(double t, Vector2D derivative) {
         ControlPoint p1 = controlPoints.get(0);
         ControlPoint p2 = controlPoints.get(1);
         ControlPoint p3 = controlPoints.get(2);
@@ -64,7 +75,7 @@ public class QuadraticBezierCurve extends BezierCurve {
         double x = firstDerivative(t, p1.getX(), p2.getX(), p3.getX());
         double y = firstDerivative(t, p1.getY(), p2.getY(), p3.getY());
 
-        return new LinePoint(t, x, y);
+        return derivative.set(x, y);
     }
 
     private double firstDerivative(double t, double p1, double p2, double p3) {
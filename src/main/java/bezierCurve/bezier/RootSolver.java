@@ -0,0 +1,22 @@
+package bezierCurve.bezier;
+
+/**
+ * The ways a Bezier curve can find its intersections with a straight line.
+ * @author 150001289
+ */
+public enum RootSolver {
+
+    /**
+     * Substitutes the cached power basis into the equation of the line and solves the
+     * polynomial in closed form up to quadratics, and by isolating the roots between the roots
+     * of its derivative for higher degrees.
+     */
+    POWER_BASIS,
+
+    /**
+     * Clips the signed distances of the control points from the line to the parameter range
+     * where their convex hull crosses zero, subdividing when clipping stalls. Works for any
+     * degree, stays inside [0, 1] and always terminates after a bounded number of steps.
+     */
+    BEZIER_CLIPPING
+}
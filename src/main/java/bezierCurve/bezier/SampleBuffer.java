@@ -0,0 +1,152 @@
+package bezierCurve.bezier;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * Holds the samples of a bezier curve in parallel primitive arrays. The arrays are reused
+ * between updates and only grow when more samples are requested.
+ * @author 150001289
+ */
+public class SampleBuffer {
+
+    public static int DEFAULT_ARGB = 0xFF000000;
+    public static int SAMPLE_SIZE = 10;
+
+    private double[] t;
+    private double[] x;
+    private double[] y;
+    private int[] argb;
+    private int size;
+    private long generation;
+    private long version;
+
+    public SampleBuffer() {
+        this(0);
+    }
+
+    public SampleBuffer(int capacity) {
+        this.t = new double[capacity];
+        this.x = new double[capacity];
+        this.y = new double[capacity];
+        this.argb = new int[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Creates an independent copy of the samples
+     * @return the copy
+     */
+    public SampleBuffer copy() {
+        SampleBuffer copy = new SampleBuffer(size);
+        System.arraycopy(t, 0, copy.t, 0, size);
+        System.arraycopy(x, 0, copy.x, 0, size);
+        System.arraycopy(y, 0, copy.y, 0, size);
+        System.arraycopy(argb, 0, copy.argb, 0, size);
+        copy.size = size;
+        copy.generation = generation;
+        copy.version = version;
+        return copy;
+    }
+
+    /**
+     * Draws all the samples on the panel
+     * @param g The graphics where we draw the samples
+     */
+    public void draw(Graphics g) {
+        int lastArgb = 0;
+        for(int i=0;i<size;i++) {
+            if (i == 0 || argb[i] != lastArgb) {
+                g.setColor(new Color(argb[i], true));
+                lastArgb = argb[i];
+            }
+            g.fillOval((int) x[i] - SAMPLE_SIZE / 2, (int) y[i] - SAMPLE_SIZE / 2, SAMPLE_SIZE, SAMPLE_SIZE);
+        }
+    }
+
+    /**
+     * Resizes the buffer to hold the given number of samples. The arrays are reallocated
+     * only when the capacity is exceeded, and all colors are reset to the default.
+     * @param size The number of samples
+     */
+    public void resize(int size) {
+        if (size > t.length) {
+            t = new double[size];
+            x = new double[size];
+            y = new double[size];
+            argb = new int[size];
+        }
+        Arrays.fill(argb, 0, size, DEFAULT_ARGB);
+        this.size = size;
+        generation++;
+        version++;
+    }
+
+    /**
+     * Stores the position of a sample
+     * @param i The index of the sample
+     * @param t The parameter of the sample on the curve
+     * @param x
+     * @param y
+     */
+    public void set(int i, double t, double x, double y) {
+        this.t[i] = t;
+        this.x[i] = x;
+        this.y[i] = y;
+    }
+
+    public void clear() {
+        size = 0;
+        generation++;
+        version++;
+    }
+
+    /**
+     * Records that the colors of the samples were updated, once after all of them are set
+     */
+    public void colorsChanged() {
+        version++;
+    }
+
+    /**
+     * @return the number of times the samples have been replaced
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return the number of times the positions or the colors of the samples have changed
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return t.length;
+    }
+
+    public double getT(int i) {
+        return t[i];
+    }
+
+    public double getX(int i) {
+        return x[i];
+    }
+
+    public double getY(int i) {
+        return y[i];
+    }
+
+    public int getArgb(int i) {
+        return argb[i];
+    }
+
+    public void setArgb(int i, int argb) {
+        this.argb[i] = argb;
+    }
+}
@@ -0,0 +1,95 @@
+package bezierCurve.bezier;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * Draws samples by writing their discs straight into the pixels of a cached image, which is
+ * then drawn once per frame. The disc is the same set of pixels that Graphics.fillOval covers,
+ * recorded once as one span per row, so both ways of drawing give the same picture.
+ * @author 150001289
+ */
+public class SampleRaster {
+
+    // First and last, exclusive, pixel of every row of the disc of a sample
+    private static final int[] SPAN_FROM = new int[SampleBuffer.SAMPLE_SIZE + 1];
+    private static final int[] SPAN_TO = new int[SampleBuffer.SAMPLE_SIZE + 1];
+
+    static {
+        int size = SampleBuffer.SAMPLE_SIZE;
+        BufferedImage disc = new BufferedImage(size + 1, size + 1, BufferedImage.TYPE_INT_ARGB);
+        Graphics g = disc.getGraphics();
+        g.setColor(Color.BLACK);
+        g.fillOval(0, 0, size, size);
+        g.dispose();
+
+        for(int row=0;row<=size;row++) {
+            SPAN_FROM[row] = size + 1;
+            for(int column=0;column<=size;column++) {
+                if (disc.getRGB(column, row) != 0) {
+                    SPAN_FROM[row] = Math.min(SPAN_FROM[row], column);
+                    SPAN_TO[row] = column + 1;
+                }
+            }
+        }
+    }
+
+    private BufferedImage image;
+    private int[] pixels;
+    private int width;
+    private int height;
+
+    /**
+     * Clears the raster, reallocating it only when it is smaller than the given size
+     * @param width The width of the component
+     * @param height The height of the component
+     */
+    public void begin(int width, int height) {
+        width = Math.max(1, width);
+        height = Math.max(1, height);
+        if (image == null || image.getWidth() < width || image.getHeight() < height) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        } else {
+            Arrays.fill(pixels, 0);
+        }
+        this.width = image.getWidth();
+        this.height = image.getHeight();
+    }
+
+    /**
+     * Writes the discs of all the samples into the raster, later samples on top
+     * @param samples The samples
+     */
+    public void splat(SampleBuffer samples) {
+        int size = SampleBuffer.SAMPLE_SIZE;
+        for(int i=0;i<samples.size();i++) {
+            int argb = samples.getArgb(i);
+            int startX = (int) samples.getX(i) - size / 2;
+            int startY = (int) samples.getY(i) - size / 2;
+
+            int fromRow = Math.max(0, -startY);
+            int toRow = Math.min(size + 1, height - startY);
+            for(int row=fromRow;row<toRow;row++) {
+                int from = Math.max(0, startX + SPAN_FROM[row]);
+                int to = Math.min(width, startX + SPAN_TO[row]);
+                if (from < to) {
+                    int offset = (startY + row) * width;
+                    Arrays.fill(pixels, offset + from, offset + to, argb);
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws the raster with its top left corner at the origin
+     * @param g The graphics where we draw the samples
+     */
+    public void draw(Graphics g) {
+        if (image != null) {
+            g.drawImage(image, 0, 0, null);
+        }
+    }
+}
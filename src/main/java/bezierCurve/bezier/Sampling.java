@@ -0,0 +1,119 @@
+package bezierCurve.bezier;
+
+import java.util.Objects;
+
+/**
+ * Describes how the samples of a bezier curve are placed.
+ * @author 150001289
+ */
+public final class Sampling {
+
+    public enum Mode {
+
+        /**
+         * A fixed number of samples evenly spaced in t
+         */
+        UNIFORM,
+
+        /**
+         * The curve is subdivided until every piece is flat within a tolerance in pixels,
+         * with at most a given number of samples
+         */
+        ADAPTIVE,
+
+        /**
+         * A fixed number of samples evenly spaced in arc length
+         */
+        ARC_LENGTH
+    }
+
+    private final Mode mode;
+    private final int numOfSamples;
+    private final double tolerance;
+
+    private Sampling(Mode mode, int numOfSamples, double tolerance) {
+        this.mode = mode;
+        this.numOfSamples = numOfSamples;
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * @param numOfSamples The number of samples
+     * @return samples evenly spaced in t
+     */
+    public static Sampling uniform(int numOfSamples) {
+        return new Sampling(Mode.UNIFORM, numOfSamples, 0);
+    }
+
+    /**
+     * @param numOfSamples The number of samples
+     * @return samples evenly spaced along the length of the curve
+     */
+    public static Sampling arcLength(int numOfSamples) {
+        return new Sampling(Mode.ARC_LENGTH, numOfSamples, 0);
+    }
+
+    /**
+     * @param tolerance The maximum distance in pixels between the curve and the line between two samples
+     * @param maxNumOfSamples The budget of samples of every curve
+     * @return samples placed by recursive subdivision
+     */
+    public static Sampling adaptive(double tolerance, int maxNumOfSamples) {
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("The tolerance must be positive: " + tolerance);
+        }
+        return new Sampling(Mode.ADAPTIVE, maxNumOfSamples, tolerance);
+    }
+
+    /**
+     * @param numOfSamples The new number of samples
+     * @return the same kind of sampling with a different number, or budget, of samples
+     */
+    public Sampling withNumOfSamples(int numOfSamples) {
+        return new Sampling(mode, numOfSamples, tolerance);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return the number of samples, or the maximum number in adaptive mode
+     */
+    public int getNumOfSamples() {
+        return numOfSamples;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Sampling)) {
+            return false;
+        }
+        Sampling sampling = (Sampling) o;
+        return mode == sampling.mode && numOfSamples == sampling.numOfSamples && Double.compare(tolerance, sampling.tolerance) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(mode, numOfSamples, tolerance);
+    }
+
+    @Override
+    public String toString() {
+        switch (mode) {
+            case ADAPTIVE:
+                return "adaptive(" + tolerance + ", " + numOfSamples + ")";
+            case ARC_LENGTH:
+                return "arcLength(" + numOfSamples + ")";
+            default:
+                return "uniform(" + numOfSamples + ")";
+        }
+    }
+}
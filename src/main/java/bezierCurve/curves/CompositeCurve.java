@@ -2,6 +2,7 @@ package bezierCurve.curves;
 
 import bezierCurve.bezier.BezierCurve;
 import bezierCurve.bezier.CubicBezierCurve;
+import bezierCurve.bezier.SampleBuffer;
 import bezierCurve.points.ControlPoint;
 import bezierCurve.points.LightSource;
 
@@ -10,8 +11,8 @@ import java.awt.*;
 import java.awt.event.MouseEvent;
 import java.awt.geom.Line2D;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
 
 public class CompositeCurve extends Curve {
 
@@ -23,6 +24,18 @@ public class CompositeCurve extends Curve {
     private List<BezierCurve> bezierCurves;
     private List<Line2D> lines;
 
+    // Modification counters of the curves and the light source when last updated
+    private long[] lineModCounts;
+
+    // Control points of all the curves, for hit testing
+    private ControlPointIndex index;
+
+    // Control points selected by the last press, dragged until the mouse is released
+    private List<ControlPoint> selected;
+
+    // Image of the control points, samples and lines, or null to draw everything on every repaint
+    private LayerCache layerCache;
+
     public CompositeCurve(int numOfSamples) {
         super(numOfSamples);
 
@@ -30,39 +43,113 @@ public class CompositeCurve extends Curve {
         bezierCurves.add(new CubicBezierCurve());
 
         lines = new ArrayList<>();
+        lineModCounts = new long[0];
+        layerCache = new LayerCache();
+        index = new ControlPointIndex();
+        selected = new ArrayList<>();
     }
 
+    /**
+     * Updates only the segments whose control points moved since the last update, together
+     * with the lines that touch them. Shadows may fall on any segment, so the colors of all
+     * segments are updated whenever one of them or a light source changes. Every light source
+     * keeps its shadows until it or a segment moves.
+     */
     @Override
     protected void update() {
-        bezierCurves.forEach(bezierCurve -> {
-            bezierCurve.updatePoints(getNumOfSamples());
-        });
-        if (lightSource != null) {
-            lightSource.updateColors(bezierCurves);
+        for(int i=0;i<bezierCurves.size();i++) {
+            bezierCurves.get(i).updatePointsIfDirty(getSampling());
         }
+
+        illumination.shade(bezierCurves, lightSources);
         updateLines();
+        repaintLayers();
+    }
+
+    @Override
+    public List<BezierCurve> getBezierCurves() {
+        return bezierCurves;
+    }
+
+    /**
+     * Keeps the drawing of the segments in an image between repaints, so that only the segments
+     * that changed are drawn again
+     * @param cached True to cache the drawing, false to draw everything on every repaint
+     */
+    public void setLayerCache(boolean cached) {
+        layerCache = cached ? new LayerCache() : null;
         repaint();
     }
 
+    public boolean isLayerCache() {
+        return layerCache != null;
+    }
+
+    LayerCache getLayerCache() {
+        return layerCache;
+    }
+
+    ControlPointIndex getControlPointIndex() {
+        return index;
+    }
+
     @Override
-    public void paint(Graphics g) {
+    public void setAsync(boolean async) {
+        // Frames of a new pipeline start counting their versions again
+        if (layerCache != null) {
+            layerCache.invalidate();
+        }
+        super.setAsync(async);
+    }
 
-        bezierCurves.forEach(bezierCurve -> {
-            // Draw the control points to the panel
-            bezierCurve.getControlPoints().forEach(controlPoint -> controlPoint.draw(g));
+    @Override
+    public void setRaster(boolean raster) {
+        if (layerCache != null) {
+            layerCache.invalidate();
+        }
+        super.setRaster(raster);
+    }
 
-            // Draw the samples
-            bezierCurve.drawLine(g);
-        });
+    @Override
+    protected void framePublished() {
+        repaintLayers();
+    }
+
+    /**
+     * Repaints only the area of the segments that changed since the last paint
+     */
+    private void repaintLayers() {
+        if (layerCache == null) {
+            repaint();
+            return;
+        }
+
+        Rectangle dirty = layerCache.dirtyBounds(new Layers(getSampleBuffers()));
+        if (dirty != null) {
+            repaint(dirty);
+        }
+    }
+
+    @Override
+    protected void paintCurve(Graphics g) {
+        if (layerCache != null) {
+            layerCache.update(getWidth(), getHeight(), new Layers(getSampleBuffers()));
+            layerCache.draw(g);
+            return;
+        }
+
+        // Draw the control points to the panel
+        bezierCurves.forEach(bezierCurve -> bezierCurve.getControlPoints().forEach(controlPoint -> controlPoint.draw(g)));
+
+        // Draw the samples
+        drawSamples(g);
 
         // Draw the red lines
         Graphics2D g2 = (Graphics2D) g;
         g2.setColor(Color.RED);
         lines.forEach(g2::draw);
 
-        if (lightSource != null) {
-            lightSource.draw(g);
-        }
+        lightSources.forEach(lightSource -> lightSource.draw(g));
     }
 
     @Override
@@ -75,17 +162,13 @@ public class CompositeCurve extends Curve {
         Point point = e.getPoint();
 
         // Find if there is a control point at this position
-        ControlPoint controlPoint = bezierCurves.stream()
-                .map(bezierCurve -> bezierCurve.getControlPoint(point))
-                .filter(Objects::nonNull)
-                .findAny()
-                .orElse(lightSource != null && lightSource.overlap(point) ? lightSource : null);
+        ControlPoint controlPoint = findControlPoint(point);
 
         if (controlPoint == null) {
             if (SwingUtilities.isLeftMouseButton(e)) {
                 // Left mouse - add control point
                 addControlPoint(point);
-                this.repaint();
+                repaintLayers();
             } else if (SwingUtilities.isRightMouseButton(e)) {
                 // Right mouse - add light source
                 addLightSource(point);
@@ -93,7 +176,8 @@ public class CompositeCurve extends Curve {
         } else {
             // Select all control points that are on this position
             selectControlPoints(point);
-            if (lightSource != null && lightSource.overlap(point)) {
+            LightSource lightSource = findLightSource(point);
+            if (lightSource != null) {
                 lightSource.select(point);
             }
         }
@@ -106,7 +190,7 @@ public class CompositeCurve extends Curve {
     private void addControlPoint(Point point) {
         BezierCurve last = bezierCurves.get(bezierCurves.size() - 1);
         last.addControlPoint(point);
-        last.updatePoints(getNumOfSamples());
+        indexControlPoints(bezierCurves.size() - 1);
 
         if (last.getControlPoints().size() == last.getNumOfControlPoints()) {
             CubicBezierCurve newCurve = new CubicBezierCurve();
@@ -123,7 +207,33 @@ public class CompositeCurve extends Curve {
             lines.add(new Line2D.Float(previous.getX(), previous.getY(), second.getX(), second.getY()));
 
             bezierCurves.add(newCurve);
+            indexControlPoints(bezierCurves.size() - 1);
         }
+        requestUpdate();
+    }
+
+    /**
+     * Registers all the control points of a curve that are not in the index yet
+     * @param curve The index of the curve
+     */
+    private void indexControlPoints(int curve) {
+        List<ControlPoint> controlPoints = bezierCurves.get(curve).getControlPoints();
+        for(int i=0;i<controlPoints.size();i++) {
+            index.add(controlPoints.get(i), curve, i);
+        }
+    }
+
+    /**
+     * Finds the control point or light source at the given coordinates
+     * @param point The coordinates of the mouse
+     * @return the control point, or null if there is none
+     */
+    private ControlPoint findControlPoint(Point point) {
+        ControlPoint controlPoint = index.find(point);
+        if (controlPoint == null) {
+            controlPoint = findLightSource(point);
+        }
+        return controlPoint;
     }
 
     /**
@@ -131,50 +241,51 @@ public class CompositeCurve extends Curve {
      * @param point The coordinates where the user clicked
      */
     private void selectControlPoints(Point point) {
-        for(int i=0;i<bezierCurves.size();i++) {
+        index.findPerCurve(point).forEach((i, cp) -> {
             BezierCurve previous = i > 0 ? bezierCurves.get(i-1) : null;
             BezierCurve curve = bezierCurves.get(i);
             BezierCurve next = i + 1 < bezierCurves.size() ? bezierCurves.get(i+1) : null;
 
-            ControlPoint cp = curve.getControlPoint(point);
-            if (cp != null) {
-                cp.select(point);
+            select(cp, point, false);
 
-                if (next != null && cp.equals(curve.getControlPoints().get(THIRD))) {
-                    next.getControlPoints().get(SECOND).inverseSelect(point);
-                }
-                if (previous != null && cp.equals(curve.getControlPoints().get(SECOND))) {
-                    previous.getControlPoints().get(THIRD).inverseSelect(point);
-                }
+            if (next != null && cp.equals(curve.getControlPoints().get(THIRD))) {
+                select(next.getControlPoints().get(SECOND), point, true);
+            }
+            if (previous != null && cp.equals(curve.getControlPoints().get(SECOND))) {
+                select(previous.getControlPoints().get(THIRD), point, true);
+            }
 
-                if (cp.equals(curve.getControlPoints().get(FIRST))) {
-                    curve.getControlPoints().get(SECOND).select(point);
-                }
-                if (curve.getControlPoints().size() > LAST && cp.equals(curve.getControlPoints().get(LAST))) {
-                    curve.getControlPoints().get(THIRD).select(point);
-                }
+            if (cp.equals(curve.getControlPoints().get(FIRST))) {
+                select(curve.getControlPoints().get(SECOND), point, false);
             }
-        }
+            if (curve.getControlPoints().size() > LAST && cp.equals(curve.getControlPoints().get(LAST))) {
+                select(curve.getControlPoints().get(THIRD), point, false);
+            }
+        });
     }
 
     /**
-     * Create light source at given coordinates
+     * Selects a control point and remembers it for dragging
+     * @param controlPoint The control point
      * @param point The coordinates where the user clicked
+     * @param inverse True if the control point moves in the opposite direction of the mouse
      */
-    private void addLightSource(Point point) {
-        if (lightSource == null) {
-            lightSource = new LightSource(point);
-            lightSource.updateColors(bezierCurves);
-            repaint();
+    private void select(ControlPoint controlPoint, Point point, boolean inverse) {
+        if (inverse) {
+            controlPoint.inverseSelect(point);
+        } else {
+            controlPoint.select(point);
+        }
+        if (!selected.contains(controlPoint)) {
+            selected.add(controlPoint);
         }
     }
 
     @Override
     public void mouseReleased(MouseEvent e) {
-        bezierCurves.forEach(BezierCurve::deselect);
-        if (lightSource != null) {
-            lightSource.deselect();
-        }
+        selected.forEach(ControlPoint::deselect);
+        selected.clear();
+        lightSources.forEach(ControlPoint::deselect);
     }
 
     @Override
@@ -191,47 +302,162 @@ public class CompositeCurve extends Curve {
     public void mouseDragged(MouseEvent e) {
         Point point = e.getPoint();
 
-        bezierCurves.stream()
-                .filter(bezierCurve -> bezierCurve.getSelectedControlPoints().size() > 0)
-                .forEach(bezierCurve -> {
-                    bezierCurve.getSelectedControlPoints().forEach(controlPoint -> controlPoint.drag(point));
-                });
-
-        update();
+        for (ControlPoint controlPoint : selected) {
+            controlPoint.drag(point);
+            index.update(controlPoint);
+        }
 
-        if (lightSource != null && lightSource.isSelected()) {
-            lightSource.drag(point);
-            lightSource.updateColors(bezierCurves);
+        for (LightSource lightSource : lightSources) {
+            if (lightSource.isSelected()) {
+                lightSource.drag(point);
+            }
         }
-        repaint();
+
+        updateLines();
+        requestUpdate();
+        repaintLayers();
     }
 
     @Override
     public void mouseMoved(MouseEvent e) {
         Point point = e.getPoint();
 
-        ControlPoint controlPoint = bezierCurves.stream()
-                .filter(bezierCurve -> bezierCurve.getControlPoint(point) != null)
-                .map(bezierCurve -> bezierCurve.getControlPoint(point))
-                .findAny()
-                .orElse(lightSource != null && lightSource.overlap(point) ? lightSource : null);
+        updateCursor(findControlPoint(point) != null);
+    }
 
-        if (controlPoint != null) {
-            setCursor(new Cursor(Cursor.HAND_CURSOR));
-        } else {
-            setCursor(new Cursor(Cursor.DEFAULT_CURSOR));
+    /**
+     * Updates the coordinates of the lines that touch a segment that moved since the last call
+     */
+    private void updateLines() {
+        int numOfCurves = bezierCurves.size();
+        if (lineModCounts.length < numOfCurves) {
+            int from = lineModCounts.length;
+            lineModCounts = Arrays.copyOf(lineModCounts, numOfCurves);
+            Arrays.fill(lineModCounts, from, numOfCurves, -1);
+        }
+
+        boolean[] dirty = new boolean[numOfCurves];
+        for(int i=0;i<numOfCurves;i++) {
+            long modCount = bezierCurves.get(i).getModCount();
+            dirty[i] = modCount != lineModCounts[i];
+            lineModCounts[i] = modCount;
+        }
+
+        for(int i=0;i<numOfCurves - 1;i++) {
+            if (dirty[i] || dirty[i + 1]) {
+                ControlPoint from = bezierCurves.get(i).getControlPoints().get(THIRD);
+                ControlPoint to = bezierCurves.get(i + 1).getControlPoints().get(SECOND);
+                lines.get(i).setLine(from.getX(), from.getY(), to.getX(), to.getY());
+            }
         }
     }
 
     /**
-     * Updates the coordinates of the lines
+     * Every segment is a layer with its control points, its samples and the line that joins it
+     * to the previous segment. The light sources are the last layers.
      */
-    private void updateLines() {
-        lines.clear();
-        for(int i=0;i<bezierCurves.size() - 1;i++) {
-            ControlPoint from = bezierCurves.get(i).getControlPoints().get(bezierCurves.get(i).getControlPoints().size() - 2);
-            ControlPoint to = bezierCurves.get(i + 1).getControlPoints().get(1);
-            lines.add(new Line2D.Float(from.getX(), from.getY(), to.getX(), to.getY()));
+    class Layers implements LayerCache.Layers {
+
+        private static final int PADDING = 2;
+
+        private final List<SampleBuffer> samples;
+
+        Layers(List<SampleBuffer> samples) {
+            this.samples = samples;
+        }
+
+        @Override
+        public int size() {
+            return bezierCurves.size() + lightSources.size();
+        }
+
+        @Override
+        public long version(int layer) {
+            if (layer >= bezierCurves.size()) {
+                return lightSources.get(layer - bezierCurves.size()).getModCount();
+            }
+
+            // Sum of counters that only grow, so it grows whenever one of them does. The line
+            // to the previous segment also starts at its third control point.
+            long version = bezierCurves.get(layer).getModCount();
+            if (layer > 0) {
+                version += bezierCurves.get(layer - 1).getControlPoints().get(THIRD).getModCount();
+            }
+            if (layer < samples.size()) {
+                version += samples.get(layer).getVersion();
+            }
+            return version;
+        }
+
+        @Override
+        public Rectangle bounds(int layer) {
+            if (layer >= bezierCurves.size()) {
+                return bounds(null, lightSources.get(layer - bezierCurves.size()));
+            }
+
+            Rectangle bounds = null;
+            for (ControlPoint controlPoint : bezierCurves.get(layer).getControlPoints()) {
+                bounds = bounds(bounds, controlPoint);
+            }
+            if (layer < samples.size()) {
+                SampleBuffer buffer = samples.get(layer);
+                for(int i=0;i<buffer.size();i++) {
+                    int x = (int) buffer.getX(i) - SampleBuffer.SAMPLE_SIZE / 2;
+                    int y = (int) buffer.getY(i) - SampleBuffer.SAMPLE_SIZE / 2;
+                    bounds = union(bounds, new Rectangle(x, y, SampleBuffer.SAMPLE_SIZE, SampleBuffer.SAMPLE_SIZE));
+                }
+            }
+            if (layer > 0) {
+                bounds = union(bounds, lines.get(layer - 1).getBounds());
+            }
+
+            if (bounds != null) {
+                bounds.grow(PADDING, PADDING);
+            }
+            return bounds;
+        }
+
+        @Override
+        public void paint(Graphics2D g, boolean[] layers) {
+            int numOfCurves = bezierCurves.size();
+
+            // Same order as drawing everything: control points, samples, lines and the lights
+            for(int i=0;i<numOfCurves;i++) {
+                if (layers[i]) {
+                    bezierCurves.get(i).getControlPoints().forEach(controlPoint -> controlPoint.draw(g));
+                }
+            }
+            List<SampleBuffer> selected = new ArrayList<>();
+            for(int i=0;i<numOfCurves && i<samples.size();i++) {
+                if (layers[i]) {
+                    selected.add(samples.get(i));
+                }
+            }
+            drawSamples(g, selected);
+            g.setColor(Color.RED);
+            for(int i=1;i<numOfCurves;i++) {
+                if (layers[i]) {
+                    g.draw(lines.get(i - 1));
+                }
+            }
+            for(int i=0;i<lightSources.size();i++) {
+                if (layers[numOfCurves + i]) {
+                    lightSources.get(i).draw(g);
+                }
+            }
+        }
+
+        private Rectangle bounds(Rectangle bounds, ControlPoint point) {
+            return union(bounds, new Rectangle(point.startX(), point.startY(),
+                    point.stopX() - point.startX() + 1, point.stopY() - point.startY() + 1));
+        }
+
+        private Rectangle union(Rectangle bounds, Rectangle other) {
+            if (bounds == null) {
+                return other;
+            }
+            bounds.add(other);
+            return bounds;
         }
     }
 }
@@ -0,0 +1,293 @@
+package bezierCurve.curves;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.bezier.Evaluator;
+import bezierCurve.bezier.RootSolver;
+import bezierCurve.bezier.SampleBuffer;
+import bezierCurve.bezier.Sampling;
+import bezierCurve.lighting.Illumination;
+import bezierCurve.lighting.Occlusion;
+import bezierCurve.metrics.Metrics;
+import bezierCurve.points.ControlPoint;
+import bezierCurve.points.LightSource;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Computes samples and lighting away from the Swing event dispatch thread. The EDT submits
+ * snapshots of the control points; if the worker is still busy, a newer snapshot replaces the
+ * pending one so that only the latest state is computed. Every computed state is published
+ * as an immutable frame that paint can draw at any time.
+ * @author 150001289
+ */
+public class ComputePipeline {
+
+    private final ExecutorService executor;
+    private final AtomicReference<Snapshot> pending;
+    private final Runnable onPublish;
+
+    private final AtomicLong submitted;
+    private final AtomicLong coalesced;
+    private final AtomicLong computed;
+
+    private volatile Frame frame;
+
+    // Worker copies of the curves, only touched by the worker thread
+    private final List<BezierCurve> bezierCurves;
+    private final List<LightSource> lightSources;
+    private final Illumination illumination;
+
+    // The occlusion of the light source on the EDT that every worker light source was copied from
+    private final List<Occlusion> occlusions;
+
+    /**
+     * @param onPublish Runs on the EDT every time a new frame is published
+     */
+    public ComputePipeline(Runnable onPublish) {
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bezier-compute");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pending = new AtomicReference<>();
+        this.onPublish = onPublish;
+
+        this.submitted = new AtomicLong();
+        this.coalesced = new AtomicLong();
+        this.computed = new AtomicLong();
+
+        this.bezierCurves = new ArrayList<>();
+        this.lightSources = new ArrayList<>();
+        this.illumination = new Illumination();
+        this.occlusions = new ArrayList<>();
+    }
+
+    /**
+     * Queues a snapshot for computation. If an older snapshot is still waiting, it is dropped.
+     * @param snapshot The state of the curve
+     */
+    public void submit(Snapshot snapshot) {
+        submitted.incrementAndGet();
+        if (pending.getAndSet(snapshot) != null) {
+            coalesced.incrementAndGet();
+        } else {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * @return the latest published frame, or null if nothing was computed yet
+     */
+    public Frame getFrame() {
+        return frame;
+    }
+
+    public long getNumOfSubmitted() {
+        return submitted.get();
+    }
+
+    /**
+     * @return the number of snapshots that were replaced by a newer one before being computed
+     */
+    public long getNumOfCoalesced() {
+        return coalesced.get();
+    }
+
+    public long getNumOfComputed() {
+        return computed.get();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void drain() {
+        Snapshot snapshot = pending.getAndSet(null);
+        if (snapshot == null) {
+            return;
+        }
+
+        long start = Metrics.UPDATE.start();
+        try {
+            frame = compute(snapshot);
+        } finally {
+            Metrics.UPDATE.stop(start);
+        }
+        // Queue the callback first, so that it is already on the EDT once the frame is counted
+        SwingUtilities.invokeLater(onPublish);
+        computed.incrementAndGet();
+    }
+
+    /**
+     * Brings the worker copies of the curves and the light sources to the state of the snapshot
+     * and updates the samples that changed.
+     * @param snapshot The state of the curve
+     * @return the frame of the snapshot
+     */
+    private Frame compute(Snapshot snapshot) {
+        for(int i=0;i<snapshot.controlPoints.length;i++) {
+            int[] coordinates = snapshot.controlPoints[i];
+            int numOfControlPoints = snapshot.numOfControlPoints[i];
+
+            if (i == bezierCurves.size() || bezierCurves.get(i).getNumOfControlPoints() != numOfControlPoints) {
+                bezierCurves.subList(i, bezierCurves.size()).clear();
+                bezierCurves.add(BezierCurve.create(numOfControlPoints));
+            }
+            BezierCurve curve = bezierCurves.get(i);
+            curve.setEvaluator(snapshot.evaluators[i]);
+            curve.setRootSolver(snapshot.rootSolvers[i]);
+
+            List<ControlPoint> controlPoints = curve.getControlPoints();
+            for(int j=0;j<coordinates.length / 2;j++) {
+                if (j < controlPoints.size()) {
+                    controlPoints.get(j).setLocation(coordinates[2 * j], coordinates[2 * j + 1]);
+                } else {
+                    curve.addControlPoint(new Point(coordinates[2 * j], coordinates[2 * j + 1]));
+                }
+            }
+
+            curve.updatePointsIfDirty(snapshot.sampling);
+        }
+        bezierCurves.subList(snapshot.controlPoints.length, bezierCurves.size()).clear();
+
+        int numOfLights = snapshot.lights.length / 2;
+        for(int i=0;i<numOfLights;i++) {
+            int x = snapshot.lights[2 * i];
+            int y = snapshot.lights[2 * i + 1];
+            Occlusion occlusion = snapshot.occlusions[i];
+            if (i < lightSources.size() && occlusions.get(i) == occlusion) {
+                lightSources.get(i).setLocation(x, y);
+            } else {
+                // A new light source, so that its shadows are computed again with the new occlusion
+                LightSource lightSource = new LightSource(new Point(x, y));
+                lightSource.setOcclusion(occlusion.copy());
+                if (i < lightSources.size()) {
+                    lightSources.set(i, lightSource);
+                    occlusions.set(i, occlusion);
+                } else {
+                    lightSources.add(lightSource);
+                    occlusions.add(occlusion);
+                }
+            }
+            lightSources.get(i).setPool(snapshot.pools[i]);
+            lightSources.get(i).setParallelThreshold(snapshot.parallelThresholds[i]);
+        }
+        lightSources.subList(numOfLights, lightSources.size()).clear();
+        occlusions.subList(numOfLights, occlusions.size()).clear();
+
+        // Only the shadows of the light sources that moved, and the ones near the curves that moved, are recomputed
+        illumination.shade(bezierCurves, lightSources);
+
+        List<SampleBuffer> samples = new ArrayList<>(bezierCurves.size());
+        bezierCurves.forEach(curve -> samples.add(curve.getSamples().copy()));
+        return new Frame(samples);
+    }
+
+    /**
+     * Immutable copy of the state of a curve taken on the EDT.
+     */
+    public static final class Snapshot {
+
+        private final int[] numOfControlPoints;
+        private final int[][] controlPoints;
+        private final int[] lights;
+        private final Sampling sampling;
+        private final Evaluator[] evaluators;
+        private final RootSolver[] rootSolvers;
+
+        // Only copied on the worker, never prepared there
+        private final Occlusion[] occlusions;
+        private final ForkJoinPool[] pools;
+        private final int[] parallelThresholds;
+
+        private Snapshot(int[] numOfControlPoints, int[][] controlPoints, int[] lights, Sampling sampling,
+                         Evaluator[] evaluators, RootSolver[] rootSolvers,
+                         Occlusion[] occlusions, ForkJoinPool[] pools, int[] parallelThresholds) {
+            this.numOfControlPoints = numOfControlPoints;
+            this.controlPoints = controlPoints;
+            this.lights = lights;
+            this.sampling = sampling;
+            this.evaluators = evaluators;
+            this.rootSolvers = rootSolvers;
+            this.occlusions = occlusions;
+            this.pools = pools;
+            this.parallelThresholds = parallelThresholds;
+        }
+
+        /**
+         * Copies the coordinates of the control points and the light sources, together with the
+         * way every curve is evaluated and every light source finds its shadows
+         * @param bezierCurves The curves
+         * @param lightSources The light sources
+         * @param sampling The way samples are placed on each curve
+         * @return the snapshot
+         */
+        public static Snapshot of(List<BezierCurve> bezierCurves, List<LightSource> lightSources, Sampling sampling) {
+            int[] numOfControlPoints = new int[bezierCurves.size()];
+            int[][] controlPoints = new int[bezierCurves.size()][];
+            Evaluator[] evaluators = new Evaluator[bezierCurves.size()];
+            RootSolver[] rootSolvers = new RootSolver[bezierCurves.size()];
+            for(int i=0;i<bezierCurves.size();i++) {
+                BezierCurve curve = bezierCurves.get(i);
+                numOfControlPoints[i] = curve.getNumOfControlPoints();
+                evaluators[i] = curve.getEvaluator();
+                rootSolvers[i] = curve.getRootSolver();
+
+                List<ControlPoint> points = curve.getControlPoints();
+                controlPoints[i] = new int[2 * points.size()];
+                for(int j=0;j<points.size();j++) {
+                    controlPoints[i][2 * j] = points.get(j).getX();
+                    controlPoints[i][2 * j + 1] = points.get(j).getY();
+                }
+            }
+
+            int[] lights = new int[2 * lightSources.size()];
+            Occlusion[] occlusions = new Occlusion[lightSources.size()];
+            ForkJoinPool[] pools = new ForkJoinPool[lightSources.size()];
+            int[] parallelThresholds = new int[lightSources.size()];
+            for(int i=0;i<lightSources.size();i++) {
+                LightSource lightSource = lightSources.get(i);
+                lights[2 * i] = lightSource.getX();
+                lights[2 * i + 1] = lightSource.getY();
+                occlusions[i] = lightSource.getOcclusion();
+                pools[i] = lightSource.getPool();
+                parallelThresholds[i] = lightSource.getParallelThreshold();
+            }
+            return new Snapshot(numOfControlPoints, controlPoints, lights, sampling,
+                    evaluators, rootSolvers, occlusions, pools, parallelThresholds);
+        }
+    }
+
+    /**
+     * Immutable result of the computation of a snapshot.
+     */
+    public static final class Frame {
+
+        private final List<SampleBuffer> samples;
+
+        private Frame(List<SampleBuffer> samples) {
+            this.samples = Collections.unmodifiableList(samples);
+        }
+
+        public List<SampleBuffer> getSamples() {
+            return samples;
+        }
+
+        /**
+         * Draws the samples of all the curves
+         * @param g The graphics where we draw the samples
+         */
+        public void draw(Graphics g) {
+            samples.forEach(buffer -> buffer.draw(g));
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package bezierCurve.curves;
+
+import bezierCurve.points.ControlPoint;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Uniform grid of the control points of a list of curves for hit testing. Every control point
+ * is registered in the cells that its circle covers, so a hit test only checks the few control
+ * points registered in the cell of the mouse.
+ * @author 150001289
+ */
+class ControlPointIndex {
+
+    // Larger than a control point, so that each one covers at most four cells
+    private static int CELL_SIZE = 32;
+
+    private final Map<Long, List<Entry>> cells;
+    private final Map<ControlPoint, Entry> entries;
+
+    ControlPointIndex() {
+        this.cells = new HashMap<>();
+        this.entries = new IdentityHashMap<>();
+    }
+
+    /**
+     * Registers a control point, unless it is already registered
+     * @param controlPoint The control point
+     * @param curve The index of its curve
+     * @param position The index of the control point on its curve
+     */
+    void add(ControlPoint controlPoint, int curve, int position) {
+        if (entries.containsKey(controlPoint)) {
+            return;
+        }
+
+        Entry entry = new Entry(controlPoint, curve, position);
+        entries.put(controlPoint, entry);
+        register(entry);
+    }
+
+    /**
+     * Moves a control point to the cells of its current position
+     * @param controlPoint A registered control point that may have moved
+     */
+    void update(ControlPoint controlPoint) {
+        Entry entry = entries.get(controlPoint);
+        if (entry != null
+                && (cell(controlPoint.startX()) != entry.minCx || cell(controlPoint.startY()) != entry.minCy
+                || cell(controlPoint.stopX()) != entry.maxCx || cell(controlPoint.stopY()) != entry.maxCy)) {
+            unregister(entry);
+            register(entry);
+        }
+    }
+
+    /**
+     * Finds the control point under the given point. If several overlap, the first one of the
+     * first curve is returned, as when scanning the curves in order.
+     * @param point The point
+     * @return the control point, or null if there is none
+     */
+    ControlPoint find(Point point) {
+        Entry found = null;
+        for (Entry entry : candidates(point)) {
+            if (entry.controlPoint.overlap(point)
+                    && (found == null || entry.curve < found.curve
+                    || (entry.curve == found.curve && entry.position < found.position))) {
+                found = entry;
+            }
+        }
+        return found != null ? found.controlPoint : null;
+    }
+
+    /**
+     * Finds the first control point under the given point on every curve
+     * @param point The point
+     * @return the control point of every curve that has one under the point, by curve index
+     */
+    Map<Integer, ControlPoint> findPerCurve(Point point) {
+        Map<Integer, Entry> found = new TreeMap<>();
+        for (Entry entry : candidates(point)) {
+            if (entry.controlPoint.overlap(point)) {
+                Entry first = found.get(entry.curve);
+                if (first == null || entry.position < first.position) {
+                    found.put(entry.curve, entry);
+                }
+            }
+        }
+
+        Map<Integer, ControlPoint> controlPoints = new TreeMap<>();
+        found.forEach((curve, entry) -> controlPoints.put(curve, entry.controlPoint));
+        return controlPoints;
+    }
+
+    private List<Entry> candidates(Point point) {
+        List<Entry> cell = cells.get(key(cell(point.x), cell(point.y)));
+        return cell != null ? cell : Collections.<Entry>emptyList();
+    }
+
+    private void register(Entry entry) {
+        ControlPoint controlPoint = entry.controlPoint;
+        entry.minCx = cell(controlPoint.startX());
+        entry.minCy = cell(controlPoint.startY());
+        entry.maxCx = cell(controlPoint.stopX());
+        entry.maxCy = cell(controlPoint.stopY());
+        for(int cx=entry.minCx;cx<=entry.maxCx;cx++) {
+            for(int cy=entry.minCy;cy<=entry.maxCy;cy++) {
+                cells.computeIfAbsent(key(cx, cy), k -> new ArrayList<>()).add(entry);
+            }
+        }
+    }
+
+    private void unregister(Entry entry) {
+        for(int cx=entry.minCx;cx<=entry.maxCx;cx++) {
+            for(int cy=entry.minCy;cy<=entry.maxCy;cy++) {
+                Long key = key(cx, cy);
+                List<Entry> cell = cells.get(key);
+                cell.remove(entry);
+                if (cell.isEmpty()) {
+                    cells.remove(key);
+                }
+            }
+        }
+    }
+
+    private static int cell(int coordinate) {
+        return Math.floorDiv(coordinate, CELL_SIZE);
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @return the number of registered control points
+     */
+    int size() {
+        return entries.size();
+    }
+
+    private static class Entry {
+
+        private final ControlPoint controlPoint;
+        private final int curve;
+        private final int position;
+
+        private int minCx, minCy, maxCx, maxCy;
+
+        private Entry(ControlPoint controlPoint, int curve, int position) {
+            this.controlPoint = controlPoint;
+            this.curve = curve;
+            this.position = position;
+        }
+    }
+}
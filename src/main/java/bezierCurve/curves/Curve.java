@@ -1,10 +1,20 @@
 package bezierCurve.curves;
 
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.bezier.SampleBuffer;
+import bezierCurve.bezier.SampleRaster;
+import bezierCurve.bezier.Sampling;
+import bezierCurve.lighting.Illumination;
+import bezierCurve.metrics.Metrics;
 import bezierCurve.points.LightSource;
 
 import javax.swing.*;
+import java.awt.*;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Implements the JComponent of the curve. It also listens to mouse and mouse motion
@@ -12,27 +22,276 @@ import java.awt.event.MouseMotionListener;
  */
 public abstract class Curve extends JComponent implements MouseListener, MouseMotionListener {
 
-    private int numOfSamples;
-    protected LightSource lightSource;
+    private static final Cursor HAND_CURSOR = Cursor.getPredefinedCursor(Cursor.HAND_CURSOR);
+    private static final Cursor DEFAULT_CURSOR = Cursor.getPredefinedCursor(Cursor.DEFAULT_CURSOR);
+
+    private Sampling sampling;
+    protected final List<LightSource> lightSources;
+    protected final Illumination illumination;
+
+    private ComputePipeline pipeline;
+
+    // Set while the samples are written straight into the pixels of an image
+    private SampleRaster raster;
+
+    // Set while the metrics are drawn over the curve
+    private MetricsOverlay overlay;
+    private Timer overlayTimer;
 
     public Curve(int numOfSamples) {
-        this.numOfSamples = numOfSamples;
+        this.sampling = Sampling.uniform(numOfSamples);
+        this.lightSources = new ArrayList<>();
+        this.illumination = new Illumination();
 
         addMouseListener(this);
         addMouseMotionListener(this);
     }
 
+    /**
+     * @return the number of samples of every curve, or the maximum number with a tolerance
+     */
     public int getNumOfSamples() {
-        return numOfSamples;
+        return sampling.getNumOfSamples();
     }
 
     public void setNumOfSamples(int numOfSamples) {
-        this.numOfSamples = numOfSamples;
-        update();
+        setSampling(sampling.withNumOfSamples(numOfSamples));
+    }
+
+    /**
+     * Places the samples adaptively so that the curve strays at most the given distance from
+     * the lines between samples. The number of samples becomes the budget of every curve.
+     * @param tolerance The tolerance in pixels, or 0 to space the samples evenly
+     */
+    public void setTolerance(double tolerance) {
+        setSampling(tolerance > 0 ? Sampling.adaptive(tolerance, getNumOfSamples()) : Sampling.uniform(getNumOfSamples()));
+    }
+
+    public Sampling getSampling() {
+        return sampling;
+    }
+
+    public void setSampling(Sampling sampling) {
+        this.sampling = sampling;
+        requestUpdate();
+
+        repaint();
+    }
+
+    public List<LightSource> getLightSources() {
+        return Collections.unmodifiableList(lightSources);
+    }
+
+    /**
+     * Adds a light source. The light of all the light sources adds up on the samples.
+     * @param point The coordinates of the light source
+     */
+    protected void addLightSource(Point point) {
+        lightSources.add(new LightSource(point));
+        requestUpdate();
+        repaint();
+    }
+
+    /**
+     * Finds the light source at the given coordinates, the last one added if several overlap
+     * @param point The coordinates of the mouse
+     * @return the light source, or null if there is none
+     */
+    protected LightSource findLightSource(Point point) {
+        for(int i=lightSources.size()-1;i>=0;i--) {
+            if (lightSources.get(i).overlap(point)) {
+                return lightSources.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Moves the computation of samples and lighting to a background thread.
+     * @param async True to compute in the background, false to compute on the EDT
+     */
+    public void setAsync(boolean async) {
+        if (pipeline != null) {
+            pipeline.shutdown();
+            pipeline = null;
+        }
+        if (async) {
+            pipeline = new ComputePipeline(this::framePublished);
+        }
+        requestUpdate();
+    }
+
+    /**
+     * Stops the background pipeline, if any, once the curve is no longer displayed
+     */
+    public void shutdown() {
+        if (pipeline != null) {
+            pipeline.shutdown();
+            pipeline = null;
+        }
+        if (overlayTimer != null) {
+            overlayTimer.stop();
+        }
+    }
+
+    public boolean isAsync() {
+        return pipeline != null;
+    }
+
+    /**
+     * @return the background pipeline, or null if the samples are computed on the EDT
+     */
+    public ComputePipeline getPipeline() {
+        return pipeline;
+    }
+
+    /**
+     * Chooses between drawing every sample with Java2D and writing the samples into the pixels
+     * of a cached image that is drawn once per frame.
+     * @param raster True to write the samples into an image, false to draw them with Java2D
+     */
+    public void setRaster(boolean raster) {
+        this.raster = raster ? new SampleRaster() : null;
+        repaint();
+    }
+
+    public boolean isRaster() {
+        return raster != null;
+    }
+
+    /**
+     * Draws the recent frame time, samples per second and root solves per frame over the curve
+     * @param visible True to show the metrics
+     */
+    public void setMetricsVisible(boolean visible) {
+        if (overlayTimer != null) {
+            overlayTimer.stop();
+            overlayTimer = null;
+        }
+        overlay = null;
 
+        if (visible) {
+            overlay = new MetricsOverlay();
+            overlayTimer = new Timer(MetricsOverlay.REFRESH_INTERVAL, e -> {
+                overlay.refresh();
+                Rectangle bounds = overlay.getBounds();
+                if (bounds != null) {
+                    repaint(bounds.x, bounds.y, getWidth(), bounds.height);
+                }
+            });
+            overlayTimer.start();
+        }
         repaint();
     }
 
+    public boolean isMetricsVisible() {
+        return overlay != null;
+    }
+
+    /**
+     * Shows the hand cursor over control points and the default cursor elsewhere
+     * @param overControlPoint True if the mouse is over a control point
+     */
+    protected void updateCursor(boolean overControlPoint) {
+        Cursor cursor = overControlPoint ? HAND_CURSOR : DEFAULT_CURSOR;
+        if (getCursor() != cursor) {
+            setCursor(cursor);
+        }
+    }
+
+    /**
+     * Updates the samples, either right away or by queueing a snapshot for the background pipeline
+     */
+    protected void requestUpdate() {
+        if (pipeline != null) {
+            pipeline.submit(ComputePipeline.Snapshot.of(getBezierCurves(), lightSources, sampling));
+        } else {
+            long start = Metrics.UPDATE.start();
+            try {
+                update();
+            } finally {
+                Metrics.UPDATE.stop(start);
+            }
+        }
+    }
+
+    /**
+     * Draws the curve and, if visible, the metrics over it
+     * @param g The graphics of the component
+     */
+    @Override
+    public final void paint(Graphics g) {
+        long start = Metrics.PAINT.start();
+        try {
+            paintCurve(g);
+        } finally {
+            Metrics.PAINT.stop(start);
+        }
+
+        if (overlay != null) {
+            overlay.draw(g);
+        }
+    }
+
+    /**
+     * Draws the samples of all the curves. In asynchronous mode the latest published frame is drawn.
+     * In raster mode the samples are written into an image that is drawn once.
+     * @param g The graphics where we draw the samples
+     */
+    protected void drawSamples(Graphics g) {
+        drawSamples(g, getSampleBuffers());
+    }
+
+    /**
+     * Draws the given samples, through the raster in raster mode
+     * @param g The graphics where we draw the samples
+     * @param samples The samples, later ones on top
+     */
+    protected void drawSamples(Graphics g, List<SampleBuffer> samples) {
+        if (raster != null) {
+            raster.begin(getWidth(), getHeight());
+            samples.forEach(raster::splat);
+            raster.draw(g);
+        } else {
+            samples.forEach(buffer -> buffer.draw(g));
+        }
+    }
+
+    /**
+     * @return the samples to draw for every curve. In asynchronous mode these are the samples of
+     * the latest published frame, which may have fewer curves than the component.
+     */
+    protected List<SampleBuffer> getSampleBuffers() {
+        List<SampleBuffer> samples = new ArrayList<>();
+        if (pipeline != null) {
+            ComputePipeline.Frame frame = pipeline.getFrame();
+            if (frame != null) {
+                samples.addAll(frame.getSamples());
+            }
+        } else {
+            getBezierCurves().forEach(bezierCurve -> samples.add(bezierCurve.getSamples()));
+        }
+        return samples;
+    }
+
+    /**
+     * Called on the EDT every time the background pipeline publishes a frame
+     */
+    protected void framePublished() {
+        repaint();
+    }
+
+    /**
+     * @return the bezier curves drawn on the component
+     */
+    public abstract List<BezierCurve> getBezierCurves();
+
+    /**
+     * Draws the control points, the samples and the light source
+     * @param g The graphics of the component
+     */
+    protected abstract void paintCurve(Graphics g);
+
     /**
      * Updates the samples (both position and lightning)
      */
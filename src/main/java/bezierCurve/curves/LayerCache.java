@@ -0,0 +1,176 @@
+package bezierCurve.curves;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Image of a component that is kept between repaints. The component is drawn as a list of
+ * layers, each with a version that grows whenever its appearance changes and bounds that
+ * contain everything it draws. Only the area of the layers whose version changed is cleared,
+ * and only the layers that overlap that area are drawn again.
+ * @author 150001289
+ */
+class LayerCache {
+
+    /**
+     * The layers of the component as they are now.
+     */
+    interface Layers {
+
+        int size();
+
+        /**
+         * @param layer The index of the layer
+         * @return a number that grows whenever the layer looks different
+         */
+        long version(int layer);
+
+        /**
+         * Only called for layers whose version changed
+         * @param layer The index of the layer
+         * @return the area that the layer draws on, or null if it draws nothing
+         */
+        Rectangle bounds(int layer);
+
+        /**
+         * Draws the selected layers, in the order of the component
+         * @param g The graphics, clipped to the area that is drawn again
+         * @param layers Which layers to draw
+         */
+        void paint(Graphics2D g, boolean[] layers);
+    }
+
+    private BufferedImage image;
+    private long[] versions = new long[0];
+    private Rectangle[] bounds = new Rectangle[0];
+
+    // Bounds computed by dirtyBounds for the versions it saw, reused by update
+    private long[] pendingVersions = new long[0];
+    private Rectangle[] pendingBounds = new Rectangle[0];
+
+    /**
+     * Forgets the image, so that the next update draws every layer
+     */
+    void invalidate() {
+        image = null;
+    }
+
+    /**
+     * @param layers The current layers
+     * @return the area that changed since the last update, or null if nothing changed
+     */
+    Rectangle dirtyBounds(Layers layers) {
+        if (image == null) {
+            return new Rectangle(0, 0, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        }
+
+        int size = layers.size();
+        if (pendingVersions.length < size) {
+            pendingVersions = new long[size];
+            pendingBounds = new Rectangle[size];
+        }
+
+        Rectangle dirty = null;
+        for(int i=0;i<Math.max(size, versions.length);i++) {
+            boolean added = i >= versions.length;
+            boolean removed = i >= size;
+            if (!added && !removed && versions[i] == layers.version(i)) {
+                continue;
+            }
+
+            if (!added) {
+                dirty = union(dirty, bounds[i]);
+            }
+            if (!removed) {
+                dirty = union(dirty, boundsOf(layers, i));
+            }
+        }
+        return dirty;
+    }
+
+    /**
+     * Brings the image up to date with the layers
+     * @param width The width of the component
+     * @param height The height of the component
+     * @param layers The current layers
+     * @return the area that was drawn again, or null if nothing changed
+     */
+    Rectangle update(int width, int height, Layers layers) {
+        width = Math.max(1, width);
+        height = Math.max(1, height);
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            versions = new long[0];
+            bounds = new Rectangle[0];
+        }
+
+        int size = layers.size();
+        Rectangle dirty = versions.length == 0 && size > 0
+                ? new Rectangle(0, 0, width, height) : dirtyBounds(layers);
+
+        long[] newVersions = new long[size];
+        Rectangle[] newBounds = new Rectangle[size];
+        for(int i=0;i<size;i++) {
+            newVersions[i] = layers.version(i);
+            newBounds[i] = i < versions.length && versions[i] == newVersions[i] ? bounds[i] : boundsOf(layers, i);
+        }
+        versions = newVersions;
+        bounds = newBounds;
+
+        if (dirty == null) {
+            return null;
+        }
+        dirty = dirty.intersection(new Rectangle(0, 0, width, height));
+        if (dirty.isEmpty()) {
+            return null;
+        }
+
+        boolean[] selected = new boolean[size];
+        for(int i=0;i<size;i++) {
+            selected[i] = bounds[i] != null && bounds[i].intersects(dirty);
+        }
+
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setClip(dirty);
+            g.setComposite(AlphaComposite.Clear);
+            g.fill(dirty);
+            g.setComposite(AlphaComposite.SrcOver);
+            layers.paint(g, selected);
+        } finally {
+            g.dispose();
+        }
+        return dirty;
+    }
+
+    /**
+     * Draws the image with its top left corner at the origin
+     * @param g The graphics of the component
+     */
+    void draw(Graphics g) {
+        if (image != null) {
+            g.drawImage(image, 0, 0, null);
+        }
+    }
+
+    private Rectangle boundsOf(Layers layers, int layer) {
+        long version = layers.version(layer);
+        if (layer < pendingVersions.length && pendingBounds[layer] != null && pendingVersions[layer] == version) {
+            return pendingBounds[layer];
+        }
+
+        Rectangle bounds = layers.bounds(layer);
+        if (layer < pendingVersions.length) {
+            pendingVersions[layer] = version;
+            pendingBounds[layer] = bounds;
+        }
+        return bounds;
+    }
+
+    private static Rectangle union(Rectangle dirty, Rectangle bounds) {
+        if (bounds == null) {
+            return dirty;
+        }
+        return dirty == null ? new Rectangle(bounds) : dirty.union(bounds);
+    }
+}
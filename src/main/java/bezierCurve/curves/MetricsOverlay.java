@@ -0,0 +1,122 @@
+package bezierCurve.curves;
+
+import bezierCurve.metrics.Counter;
+import bezierCurve.metrics.Histogram;
+import bezierCurve.metrics.Metrics;
+
+import java.awt.*;
+
+/**
+ * Draws the recent cost of a frame in the corner of a curve. The figures are averaged over
+ * windows of REFRESH_INTERVAL, computed from the change of the global metrics over the window.
+ * @author 150001289
+ */
+class MetricsOverlay {
+
+    static int REFRESH_INTERVAL = 250;
+
+    private static int MARGIN = 8;
+    private static int PADDING = 4;
+    private static Color BACKGROUND = new Color(0, 0, 0, 160);
+    private static double NANOS_PER_MILLI = 1e6;
+    private static double NANOS_PER_SECOND = 1e9;
+
+    private final Window update;
+    private final Window paint;
+    private long samples;
+    private long rootSolves;
+    private long time;
+
+    private String[] lines;
+    private Rectangle bounds;
+
+    MetricsOverlay() {
+        this.update = new Window(Metrics.UPDATE.getHistogram());
+        this.paint = new Window(Metrics.PAINT.getHistogram());
+        this.samples = Metrics.SAMPLES.get();
+        this.rootSolves = Metrics.ROOT_SOLVES.get();
+        this.time = System.nanoTime();
+        this.lines = new String[]{"metrics" + (Metrics.ENABLED ? "" : " disabled")};
+    }
+
+    /**
+     * Computes the figures of the window that just ended
+     */
+    void refresh() {
+        long now = System.nanoTime();
+        long elapsed = Math.max(1, now - time);
+        long numOfUpdates = update.count();
+        double updateMillis = update.mean() / NANOS_PER_MILLI;
+        double paintMillis = paint.mean() / NANOS_PER_MILLI;
+        long samples = delta(Metrics.SAMPLES, this.samples);
+        long rootSolves = delta(Metrics.ROOT_SOLVES, this.rootSolves);
+
+        this.samples += samples;
+        this.rootSolves += rootSolves;
+        this.time = now;
+        update.next();
+        paint.next();
+
+        lines = new String[]{
+                String.format("frame %.2f ms (update %.2f, paint %.2f)", updateMillis + paintMillis, updateMillis, paintMillis),
+                String.format("samples/s %.0f", samples * NANOS_PER_SECOND / elapsed),
+                String.format("root solves/frame %d", numOfUpdates > 0 ? rootSolves / numOfUpdates : 0)
+        };
+    }
+
+    /**
+     * @return the area drawn by the overlay, to repaint when its figures change
+     */
+    Rectangle getBounds() {
+        return bounds;
+    }
+
+    void draw(Graphics g) {
+        FontMetrics metrics = g.getFontMetrics();
+        int width = 0;
+        for (String line : lines) {
+            width = Math.max(width, metrics.stringWidth(line));
+        }
+        bounds = new Rectangle(MARGIN, MARGIN, width + 2 * PADDING, lines.length * metrics.getHeight() + 2 * PADDING);
+
+        g.setColor(BACKGROUND);
+        g.fillRect(bounds.x, bounds.y, bounds.width, bounds.height);
+        g.setColor(Color.WHITE);
+        for(int i=0;i<lines.length;i++) {
+            g.drawString(lines[i], bounds.x + PADDING, bounds.y + PADDING + i * metrics.getHeight() + metrics.getAscent());
+        }
+    }
+
+    private static long delta(Counter counter, long previous) {
+        return counter.get() - previous;
+    }
+
+    /**
+     * Count and total of a timer since the start of the window
+     */
+    private static class Window {
+
+        private final Histogram histogram;
+        private long count;
+        private long total;
+
+        private Window(Histogram histogram) {
+            this.histogram = histogram;
+            next();
+        }
+
+        private long count() {
+            return histogram.getCount() - count;
+        }
+
+        private double mean() {
+            long count = count();
+            return count > 0 ? (double) (histogram.getTotal() - total) / count : 0;
+        }
+
+        private void next() {
+            count = histogram.getCount();
+            total = histogram.getTotal();
+        }
+    }
+}
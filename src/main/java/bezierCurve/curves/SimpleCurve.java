@@ -2,12 +2,15 @@ package bezierCurve.curves;
 
 import bezierCurve.bezier.BezierCurve;
 import bezierCurve.bezier.CubicBezierCurve;
+import bezierCurve.bezier.GeneralBezierCurve;
 import bezierCurve.bezier.QuadraticBezierCurve;
 import bezierCurve.points.ControlPoint;
 import bezierCurve.points.LightSource;
 
 import java.awt.*;
 import java.awt.event.MouseEvent;
+import java.util.Collections;
+import java.util.List;
 
 public class SimpleCurve extends Curve {
 
@@ -19,13 +22,16 @@ public class SimpleCurve extends Curve {
 
     @Override
     protected void update() {
-        bezierCurve.updatePoints(getNumOfSamples());
-        if (lightSource != null) {
-            lightSource.updateColors(bezierCurve);
-        }
+        bezierCurve.updatePoints(getSampling());
+        illumination.shade(getBezierCurves(), lightSources);
         repaint();
     }
 
+    @Override
+    public List<BezierCurve> getBezierCurves() {
+        return Collections.singletonList(bezierCurve);
+    }
+
     /**
      * Create and return a quadratic curve
      * @param numOfSamples The number of samples
@@ -50,19 +56,30 @@ public class SimpleCurve extends Curve {
         return curve;
     }
 
+    /**
+     * Create and return a curve of any degree
+     * @param numOfControlPoints The number of control points
+     * @param numOfSamples The number of samples
+     * @return The Bezier curve
+     */
+    public static SimpleCurve CreateCurve(int numOfControlPoints, int numOfSamples) {
+        SimpleCurve curve = new SimpleCurve(numOfSamples);
+        curve.bezierCurve = new GeneralBezierCurve(numOfControlPoints);
+
+        return curve;
+    }
+
     @Override
-    public void paint(Graphics g) {
+    protected void paintCurve(Graphics g) {
 
         // Draw the control points to the panel
         bezierCurve.getControlPoints().forEach(controlPoint -> controlPoint.draw(g));
 
         // Draw the samples
-        bezierCurve.drawLine(g);
+        drawSamples(g);
 
-        // Draw the light source
-        if (lightSource != null) {
-            lightSource.draw(g);
-        }
+        // Draw the light sources
+        lightSources.forEach(lightSource -> lightSource.draw(g));
     }
 
     @Override
@@ -75,14 +92,14 @@ public class SimpleCurve extends Curve {
         Point point = e.getPoint();
 
         ControlPoint controlPoint = bezierCurve.getControlPoint(point);
-        if (controlPoint == null && lightSource != null && lightSource.overlap(point)) {
-            controlPoint = lightSource;
+        if (controlPoint == null) {
+            controlPoint = findLightSource(point);
         }
 
         if (controlPoint == null) {
             if (bezierCurve.getControlPoints().size() < bezierCurve.getNumOfControlPoints()) {
                 bezierCurve.addControlPoint(point);
-                update();
+                requestUpdate();
             } else {
                 addLightSource(point);
             }
@@ -94,9 +111,7 @@ public class SimpleCurve extends Curve {
     @Override
     public void mouseReleased(MouseEvent e) {
         bezierCurve.deselect();
-        if (lightSource != null) {
-            lightSource.deselect();
-        }
+        lightSources.forEach(ControlPoint::deselect);
     }
 
     @Override
@@ -112,11 +127,13 @@ public class SimpleCurve extends Curve {
     @Override
     public void mouseDragged(MouseEvent e) {
         bezierCurve.dragPoint(e.getPoint());
-        if (lightSource != null && lightSource.isSelected()) {
-            lightSource.drag(e.getPoint());
+        for (LightSource lightSource : lightSources) {
+            if (lightSource.isSelected()) {
+                lightSource.drag(e.getPoint());
+            }
         }
 
-        update();
+        requestUpdate();
     }
 
     @Override
@@ -124,28 +141,11 @@ public class SimpleCurve extends Curve {
         Point point = e.getPoint();
 
         ControlPoint controlPoint = bezierCurve.getControlPoint(point);
-        if (controlPoint == null && lightSource != null && lightSource.overlap(point)) {
-            controlPoint = lightSource;
+        if (controlPoint == null) {
+            controlPoint = findLightSource(point);
         }
 
         // Over control point - change cursor to hand
-        if (controlPoint != null) {
-            setCursor(new Cursor(Cursor.HAND_CURSOR));
-        } else {
-            setCursor(new Cursor(Cursor.DEFAULT_CURSOR));
-        }
-    }
-
-    /**
-     * Adds light source to a given point.
-     * @param p
-     */
-    private void addLightSource(Point p) {
-        if (lightSource == null) {
-            lightSource = new LightSource(p);
-
-            lightSource.updateColors(bezierCurve);
-            repaint();
-        }
+        updateCursor(controlPoint != null);
     }
 }
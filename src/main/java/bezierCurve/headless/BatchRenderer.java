@@ -0,0 +1,265 @@
+package bezierCurve.headless;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Renders scene files to PNG images without a display. Scenes are independent, so they are
+ * spread over a pool of workers, and each scene is lit on its worker thread alone.
+ * <pre>
+ * java -cp bezierCurve-1.0.jar bezierCurve.headless.BatchRenderer [-threads N] output-dir scene-or-dir...
+ * </pre>
+ * @author 150001289
+ */
+public class BatchRenderer {
+
+    public static String SCENE_EXTENSION = ".scene";
+
+    private final int numOfThreads;
+
+    public BatchRenderer(int numOfThreads) {
+        if (numOfThreads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed: " + numOfThreads);
+        }
+        this.numOfThreads = numOfThreads;
+    }
+
+    /**
+     * @param args [-threads N] output-dir scene-or-dir...
+     */
+    public static void main(String[] args) throws InterruptedException {
+        System.setProperty("java.awt.headless", "true");
+
+        int numOfThreads = Runtime.getRuntime().availableProcessors();
+        int first = 0;
+        if (args.length > 1 && args[0].equals("-threads")) {
+            numOfThreads = Integer.parseInt(args[1]);
+            first = 2;
+        }
+        if (args.length - first < 2) {
+            System.err.println("Usage: BatchRenderer [-threads N] output-dir scene-or-dir...");
+            System.exit(2);
+        }
+
+        File output = new File(args[first]);
+        List<File> scenes = findScenes(Arrays.copyOfRange(args, first + 1, args.length));
+
+        long start = System.nanoTime();
+        List<Result> results = new BatchRenderer(numOfThreads).render(scenes, output);
+        long elapsed = System.nanoTime() - start;
+
+        int failures = 0;
+        for (Result result : results) {
+            System.out.println(result);
+            if (result.getError() != null) {
+                failures++;
+            }
+        }
+        System.out.printf("%d scenes, %d failed, %d threads, %.1f ms%n", results.size(), failures, numOfThreads, elapsed / 1e6);
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    /**
+     * Expands directories to the scene files they contain
+     * @param paths Scene files and directories
+     * @return the scene files, directories in name order
+     */
+    static List<File> findScenes(String[] paths) {
+        List<File> scenes = new ArrayList<>();
+        for (String path : paths) {
+            File file = new File(path);
+            File[] children = file.listFiles((dir, name) -> name.endsWith(SCENE_EXTENSION));
+            if (children != null) {
+                Arrays.sort(children);
+                scenes.addAll(Arrays.asList(children));
+            } else {
+                scenes.add(file);
+            }
+        }
+        return scenes;
+    }
+
+    /**
+     * Renders every scene to a PNG image with the same name in the output directory. A scene
+     * whose name was already used by an earlier scene fails rather than overwrite its image.
+     * @param scenes The scene files
+     * @param output The output directory
+     * @return the result of every scene, in the order of the scenes
+     */
+    public List<Result> render(List<File> scenes, File output) throws InterruptedException {
+        if (!output.isDirectory() && !output.mkdirs()) {
+            throw new IllegalArgumentException("Cannot create the output directory " + output);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(numOfThreads, runnable -> {
+            Thread thread = new Thread(runnable, "bezier-render");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            // Names are compared ignoring case, as some file systems do
+            Set<String> names = new HashSet<>();
+            Result[] duplicates = new Result[scenes.size()];
+            List<Callable<Result>> tasks = new ArrayList<>(scenes.size());
+            for(int i=0;i<scenes.size();i++) {
+                File scene = scenes.get(i);
+                String name = nameOf(scene);
+                if (names.add(name.toLowerCase(Locale.ROOT))) {
+                    tasks.add(() -> render(scene, output));
+                } else {
+                    duplicates[i] = Result.failed(name, new IllegalArgumentException(
+                            scene + ": another scene is already written to " + name + ".png"));
+                }
+            }
+
+            List<Result> results = new ArrayList<>(scenes.size());
+            List<Future<Result>> futures = executor.invokeAll(tasks);
+            int task = 0;
+            for(int i=0;i<scenes.size();i++) {
+                if (duplicates[i] != null) {
+                    results.add(duplicates[i]);
+                    continue;
+                }
+                try {
+                    results.add(futures.get(task++).get());
+                } catch (ExecutionException e) {
+                    results.add(Result.failed(nameOf(scenes.get(i)), e.getCause()));
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @param file The scene file
+     * @return the name of the scene and of its image, the file name without the extension
+     */
+    private static String nameOf(File file) {
+        String name = file.getName();
+        if (name.endsWith(SCENE_EXTENSION)) {
+            name = name.substring(0, name.length() - SCENE_EXTENSION.length());
+        }
+        return name;
+    }
+
+    /**
+     * Reads, computes, draws and writes a single scene, timing every step. Scene files are
+     * always read as UTF-8, whatever the locale of the host.
+     * @param file The scene file
+     * @param output The output directory
+     * @return the result of the scene
+     */
+    private static Result render(File file, File output) {
+        String name = nameOf(file);
+
+        Result result = new Result(name);
+        try {
+            long start = System.nanoTime();
+            Scene scene;
+            try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                scene = Scene.read(file.getName(), reader);
+            }
+            // The pool already keeps every core busy with other scenes
+            scene.getLightSources().forEach(lightSource -> lightSource.setPool(null));
+            long read = System.nanoTime();
+
+            SceneRenderer.compute(scene);
+            long computed = System.nanoTime();
+
+            BufferedImage image = SceneRenderer.rasterize(scene);
+            long rasterized = System.nanoTime();
+
+            ImageIO.write(image, "png", new File(output, name + ".png"));
+            long written = System.nanoTime();
+
+            result.readNanos = read - start;
+            result.computeNanos = computed - read;
+            result.rasterizeNanos = rasterized - computed;
+            result.writeNanos = written - rasterized;
+        } catch (IOException | RuntimeException e) {
+            result.error = e;
+        }
+        return result;
+    }
+
+    /**
+     * Timings of one scene, or the error that stopped it.
+     */
+    public static class Result {
+
+        private final String name;
+        private long readNanos;
+        private long computeNanos;
+        private long rasterizeNanos;
+        private long writeNanos;
+        private Throwable error;
+
+        private Result(String name) {
+            this.name = name;
+        }
+
+        private static Result failed(String name, Throwable error) {
+            Result result = new Result(name);
+            result.error = error;
+            return result;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getReadNanos() {
+            return readNanos;
+        }
+
+        public long getComputeNanos() {
+            return computeNanos;
+        }
+
+        public long getRasterizeNanos() {
+            return rasterizeNanos;
+        }
+
+        public long getWriteNanos() {
+            return writeNanos;
+        }
+
+        public long getTotalNanos() {
+            return readNanos + computeNanos + rasterizeNanos + writeNanos;
+        }
+
+        /**
+         * @return the error of the scene, or null if it was rendered
+         */
+        public Throwable getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            if (error != null) {
+                return String.format("%-24s FAILED %s", name, error);
+            }
+            return String.format("%-24s read %7.2f ms  compute %7.2f ms  rasterize %7.2f ms  write %7.2f ms  total %7.2f ms",
+                    name, readNanos / 1e6, computeNanos / 1e6, rasterizeNanos / 1e6, writeNanos / 1e6, getTotalNanos() / 1e6);
+        }
+    }
+}
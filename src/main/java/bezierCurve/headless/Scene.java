@@ -0,0 +1,204 @@
+package bezierCurve.headless;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.bezier.Sampling;
+import bezierCurve.lighting.ExactOcclusion;
+import bezierCurve.lighting.GridOcclusion;
+import bezierCurve.lighting.IntervalOcclusion;
+import bezierCurve.lighting.Occlusion;
+import bezierCurve.lighting.ShadowMapOcclusion;
+import bezierCurve.points.LightSource;
+
+import java.awt.*;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Curves and light sources of one image, read from a text file. Every line holds one command,
+ * and blank lines and lines starting with # are ignored:
+ * <pre>
+ * size 1000 700
+ * sampling uniform 20          (or: arclength 20, adaptive 0.5 500)
+ * shadows map 4096            (or: exact, grid 64, intervals)
+ * light 500 50
+ * curve 100 600 300 100 500 600
+ * </pre>
+ * A curve lists the coordinates of its control points, so its degree is the number of pairs
+ * minus one. Every light line adds a light source, and the shadows line chooses how all the
+ * light sources find their shadows.
+ * @author 150001289
+ */
+public class Scene {
+
+    public static int DEFAULT_WIDTH = 1000;
+    public static int DEFAULT_HEIGHT = 700;
+    public static int DEFAULT_NUM_OF_SAMPLES = 20;
+
+    private final String name;
+    private final int width;
+    private final int height;
+    private final Sampling sampling;
+    private final List<BezierCurve> bezierCurves;
+    private final List<LightSource> lightSources;
+
+    public Scene(String name, int width, int height, Sampling sampling, List<BezierCurve> bezierCurves, List<LightSource> lightSources) {
+        this.name = name;
+        this.width = width;
+        this.height = height;
+        this.sampling = sampling;
+        this.bezierCurves = Collections.unmodifiableList(bezierCurves);
+        this.lightSources = Collections.unmodifiableList(lightSources);
+    }
+
+    /**
+     * Reads a scene
+     * @param name The name of the scene
+     * @param reader The text of the scene
+     * @return the scene
+     * @throws IOException if the text cannot be read
+     * @throws IllegalArgumentException if a line is not valid
+     */
+    public static Scene read(String name, Reader reader) throws IOException {
+        int width = DEFAULT_WIDTH;
+        int height = DEFAULT_HEIGHT;
+        Sampling sampling = Sampling.uniform(DEFAULT_NUM_OF_SAMPLES);
+        List<BezierCurve> bezierCurves = new ArrayList<>();
+        List<LightSource> lightSources = new ArrayList<>();
+        Supplier<Occlusion> occlusion = GridOcclusion::new;
+
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] tokens = line.split("\\s+");
+            try {
+                switch (tokens[0]) {
+                    case "size":
+                        expect(tokens, 3);
+                        width = Integer.parseInt(tokens[1]);
+                        height = Integer.parseInt(tokens[2]);
+                        break;
+                    case "sampling":
+                        sampling = readSampling(tokens);
+                        break;
+                    case "shadows":
+                        occlusion = readOcclusion(tokens);
+                        break;
+                    case "light":
+                        expect(tokens, 3);
+                        lightSources.add(new LightSource(new Point(Integer.parseInt(tokens[1]), Integer.parseInt(tokens[2]))));
+                        break;
+                    case "curve":
+                        if (tokens.length % 2 == 0 || tokens.length < 5) {
+                            throw new IllegalArgumentException("a curve needs at least two pairs of coordinates");
+                        }
+                        BezierCurve curve = BezierCurve.create((tokens.length - 1) / 2);
+                        for(int i=1;i<tokens.length;i+=2) {
+                            curve.addControlPoint(new Point(Integer.parseInt(tokens[i]), Integer.parseInt(tokens[i + 1])));
+                        }
+                        bezierCurves.add(curve);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown command " + tokens[0]);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(name + ":" + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+
+        for (LightSource lightSource : lightSources) {
+            lightSource.setOcclusion(occlusion.get());
+        }
+        return new Scene(name, width, height, sampling, bezierCurves, lightSources);
+    }
+
+    private static Supplier<Occlusion> readOcclusion(String[] tokens) {
+        if (tokens.length < 2) {
+            throw new IllegalArgumentException("shadows needs a mode");
+        }
+        switch (tokens[1]) {
+            case "exact":
+                expect(tokens, 2);
+                return ExactOcclusion::new;
+            case "grid":
+                expect(tokens, 3);
+                int cellSize = Integer.parseInt(tokens[2]);
+                return () -> new GridOcclusion(cellSize);
+            case "intervals":
+                expect(tokens, 2);
+                return IntervalOcclusion::new;
+            case "map":
+                expect(tokens, 3);
+                int numOfBins = Integer.parseInt(tokens[2]);
+                if (numOfBins < ShadowMapOcclusion.MIN_NUM_OF_BINS) {
+                    throw new IllegalArgumentException("a shadow map needs at least " + ShadowMapOcclusion.MIN_NUM_OF_BINS + " bins");
+                }
+                return () -> new ShadowMapOcclusion(numOfBins);
+            default:
+                throw new IllegalArgumentException("unknown shadows " + tokens[1]);
+        }
+    }
+
+    private static Sampling readSampling(String[] tokens) {
+        if (tokens.length < 3) {
+            throw new IllegalArgumentException("sampling needs a mode and a number of samples");
+        }
+        switch (tokens[1]) {
+            case "uniform":
+                expect(tokens, 3);
+                return Sampling.uniform(Integer.parseInt(tokens[2]));
+            case "arclength":
+                expect(tokens, 3);
+                return Sampling.arcLength(Integer.parseInt(tokens[2]));
+            case "adaptive":
+                expect(tokens, 4);
+                return Sampling.adaptive(Double.parseDouble(tokens[2]), Integer.parseInt(tokens[3]));
+            default:
+                throw new IllegalArgumentException("unknown sampling " + tokens[1]);
+        }
+    }
+
+    private static void expect(String[] tokens, int length) {
+        if (tokens.length != length) {
+            throw new IllegalArgumentException(tokens[0] + " expects " + (length - 1) + " values");
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public Sampling getSampling() {
+        return sampling;
+    }
+
+    public List<BezierCurve> getBezierCurves() {
+        return bezierCurves;
+    }
+
+    /**
+     * @return the light sources, empty if the scene is not lit
+     */
+    public List<LightSource> getLightSources() {
+        return lightSources;
+    }
+}
@@ -0,0 +1,69 @@
+package bezierCurve.headless;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.lighting.Illumination;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Computes and draws a scene into an image without any Swing component.
+ * @author 150001289
+ */
+public class SceneRenderer {
+
+    public static Color BACKGROUND = new Color(173, 216, 230);
+
+    private SceneRenderer() {
+    }
+
+    /**
+     * Updates the samples of every curve and, if the scene is lit, their colors
+     * @param scene The scene
+     */
+    public static void compute(Scene scene) {
+        for (BezierCurve curve : scene.getBezierCurves()) {
+            curve.updatePoints(scene.getSampling());
+        }
+
+        if (!scene.getLightSources().isEmpty()) {
+            new Illumination().shade(scene.getBezierCurves(), scene.getLightSources());
+        }
+    }
+
+    /**
+     * Draws the control points, the samples and the light source of a computed scene, in the
+     * same order as the curves on the panel
+     * @param scene The scene
+     * @return the image
+     */
+    public static BufferedImage rasterize(Scene scene) {
+        BufferedImage image = new BufferedImage(scene.getWidth(), scene.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(BACKGROUND);
+            g.fillRect(0, 0, scene.getWidth(), scene.getHeight());
+
+            for (BezierCurve curve : scene.getBezierCurves()) {
+                curve.getControlPoints().forEach(controlPoint -> controlPoint.draw(g));
+            }
+            for (BezierCurve curve : scene.getBezierCurves()) {
+                curve.drawLine(g);
+            }
+            scene.getLightSources().forEach(lightSource -> lightSource.draw(g));
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * Computes and draws a scene
+     * @param scene The scene
+     * @return the image
+     */
+    public static BufferedImage render(Scene scene) {
+        compute(scene);
+        return rasterize(scene);
+    }
+}
@@ -0,0 +1,49 @@
+package bezierCurve.io;
+
+import java.nio.ByteOrder;
+
+/**
+ * Binary format of a composite curve and its light sources. All values are little endian.
+ * <pre>
+ * offset  size  field
+ *      0     4  magic "BZSC"
+ *      4     2  version, currently 1
+ *      6     2  coordinate type: 0 for int32, 1 for float32
+ *      8     8  number of control points N
+ *     16     4  number of light sources L
+ *     20     4  reserved, 0
+ *     24  8 N  control points as (x, y) pairs
+ *   ....  8 L  light sources as (x, y) pairs
+ * </pre>
+ * The control points are the points a user places on a composite curve: the four points of
+ * the first segment, then the last two points of every following segment. The first point of
+ * a following segment is the last point of the previous one, and its second point mirrors the
+ * third point of the previous one, as in CompositeCurve.
+ * @author 150001289
+ */
+public final class BinaryScene {
+
+    public static final String EXTENSION = ".bzs";
+
+    public static final int MAGIC = 0x43535A42;
+    public static final short VERSION = 1;
+
+    public static final short INT_COORDINATES = 0;
+    public static final short FLOAT_COORDINATES = 1;
+
+    public static final int HEADER_SIZE = 24;
+    public static final int POINT_SIZE = 8;
+
+    public static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private BinaryScene() {
+    }
+
+    /**
+     * @param numOfControlPoints The number of control points placed by the user
+     * @return the number of complete segments they form
+     */
+    public static long numOfSegments(long numOfControlPoints) {
+        return numOfControlPoints < 4 ? 0 : (numOfControlPoints - 2) / 2;
+    }
+}
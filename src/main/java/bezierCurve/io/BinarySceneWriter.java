@@ -0,0 +1,133 @@
+package bezierCurve.io;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.points.ControlPoint;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a binary scene as a stream of control points. The points go through a fixed buffer,
+ * so any number of them can be written in constant memory, and the header is filled in when
+ * the writer is closed.
+ * @author 150001289
+ */
+public class BinarySceneWriter implements Closeable {
+
+    private static int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final short coordinateType;
+    private final ByteBuffer buffer;
+    private final List<float[]> lights;
+    private long numOfControlPoints;
+
+    /**
+     * @param path The file to write, replaced if it exists
+     * @param coordinateType BinaryScene.INT_COORDINATES or BinaryScene.FLOAT_COORDINATES
+     * @throws IOException if the file cannot be opened
+     */
+    public BinarySceneWriter(Path path, short coordinateType) throws IOException {
+        if (coordinateType != BinaryScene.INT_COORDINATES && coordinateType != BinaryScene.FLOAT_COORDINATES) {
+            throw new IllegalArgumentException("Unknown coordinate type: " + coordinateType);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.coordinateType = coordinateType;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(BinaryScene.ORDER);
+        this.lights = new ArrayList<>();
+
+        channel.position(BinaryScene.HEADER_SIZE);
+    }
+
+    /**
+     * Writes the user placed control points of a composite curve
+     * @param path The file to write
+     * @param bezierCurves The segments of the composite curve
+     * @param lightSources The light sources
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, List<BezierCurve> bezierCurves, List<? extends ControlPoint> lightSources) throws IOException {
+        try (BinarySceneWriter writer = new BinarySceneWriter(path, BinaryScene.INT_COORDINATES)) {
+            for(int i=0;i<bezierCurves.size();i++) {
+                List<ControlPoint> controlPoints = bezierCurves.get(i).getControlPoints();
+
+                // Following segments start with the joint and the mirrored point
+                for(int j=i == 0 ? 0 : 2;j<controlPoints.size();j++) {
+                    writer.addControlPoint(controlPoints.get(j).getX(), controlPoints.get(j).getY());
+                }
+            }
+            for (ControlPoint lightSource : lightSources) {
+                writer.addLightSource(lightSource.getX(), lightSource.getY());
+            }
+        }
+    }
+
+    public void addControlPoint(double x, double y) throws IOException {
+        if (buffer.remaining() < BinaryScene.POINT_SIZE) {
+            flush();
+        }
+        put(buffer, x, y);
+        numOfControlPoints++;
+    }
+
+    public void addLightSource(double x, double y) {
+        lights.add(new float[]{(float) x, (float) y});
+    }
+
+    public long getNumOfControlPoints() {
+        return numOfControlPoints;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            for (float[] light : lights) {
+                if (buffer.remaining() < BinaryScene.POINT_SIZE) {
+                    flush();
+                }
+                put(buffer, light[0], light[1]);
+            }
+            flush();
+
+            ByteBuffer header = ByteBuffer.allocate(BinaryScene.HEADER_SIZE).order(BinaryScene.ORDER);
+            header.putInt(BinaryScene.MAGIC);
+            header.putShort(BinaryScene.VERSION);
+            header.putShort(coordinateType);
+            header.putLong(numOfControlPoints);
+            header.putInt(lights.size());
+            header.putInt(0);
+            header.flip();
+            channel.position(0);
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void put(ByteBuffer buffer, double x, double y) {
+        if (coordinateType == BinaryScene.INT_COORDINATES) {
+            buffer.putInt((int) Math.round(x));
+            buffer.putInt((int) Math.round(y));
+        } else {
+            buffer.putFloat((float) x);
+            buffer.putFloat((float) y);
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
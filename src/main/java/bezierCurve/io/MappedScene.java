@@ -0,0 +1,241 @@
+package bezierCurve.io;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.bezier.CubicBezierCurve;
+
+import java.awt.*;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read only view of a binary scene mapped into memory. Coordinates are read from the mapping
+ * on demand, so opening a scene costs the same whatever its size, and segments are exposed as
+ * views over the mapped points instead of ControlPoint objects.
+ * @author 150001289
+ */
+public class MappedScene implements Closeable {
+
+    // Points per mapping, so that every mapping stays below the 2 GB limit of a buffer
+    private static int CHUNK_SHIFT = 27;
+    private static long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+    private final FileChannel channel;
+    private final boolean floatCoordinates;
+    private final long numOfControlPoints;
+    private final float[] lights;
+    private final MappedByteBuffer[] chunks;
+
+    private MappedScene(FileChannel channel, boolean floatCoordinates, long numOfControlPoints,
+                        float[] lights, MappedByteBuffer[] chunks) {
+        this.channel = channel;
+        this.floatCoordinates = floatCoordinates;
+        this.numOfControlPoints = numOfControlPoints;
+        this.lights = lights;
+        this.chunks = chunks;
+    }
+
+    /**
+     * Maps a binary scene
+     * @param path The file of the scene
+     * @return the scene
+     * @throws IOException if the file cannot be read or is not a valid scene
+     */
+    public static MappedScene open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(BinaryScene.HEADER_SIZE).order(BinaryScene.ORDER);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+            }
+            header.flip();
+            if (header.remaining() < BinaryScene.HEADER_SIZE || header.getInt() != BinaryScene.MAGIC) {
+                throw new IOException(path + " is not a binary scene");
+            }
+            short version = header.getShort();
+            if (version != BinaryScene.VERSION) {
+                throw new IOException(path + " has unsupported version " + version);
+            }
+            short coordinateType = header.getShort();
+            if (coordinateType != BinaryScene.INT_COORDINATES && coordinateType != BinaryScene.FLOAT_COORDINATES) {
+                throw new IOException(path + " has unknown coordinate type " + coordinateType);
+            }
+            long numOfControlPoints = header.getLong();
+            int numOfLights = header.getInt();
+
+            long pointsSize = numOfControlPoints * BinaryScene.POINT_SIZE;
+            long size = BinaryScene.HEADER_SIZE + pointsSize + (long) numOfLights * BinaryScene.POINT_SIZE;
+            if (numOfControlPoints < 0 || numOfLights < 0 || channel.size() < size) {
+                throw new IOException(path + " is truncated");
+            }
+
+            int numOfChunks = (int) ((numOfControlPoints + CHUNK_MASK) >>> CHUNK_SHIFT);
+            MappedByteBuffer[] chunks = new MappedByteBuffer[numOfChunks];
+            for(int i=0;i<numOfChunks;i++) {
+                long from = BinaryScene.HEADER_SIZE + ((long) i << CHUNK_SHIFT) * BinaryScene.POINT_SIZE;
+                long length = Math.min((CHUNK_MASK + 1) * BinaryScene.POINT_SIZE, BinaryScene.HEADER_SIZE + pointsSize - from);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+                chunks[i].order(BinaryScene.ORDER);
+            }
+
+            boolean floatCoordinates = coordinateType == BinaryScene.FLOAT_COORDINATES;
+            ByteBuffer lightBuffer = ByteBuffer.allocate(numOfLights * BinaryScene.POINT_SIZE).order(BinaryScene.ORDER);
+            channel.position(BinaryScene.HEADER_SIZE + pointsSize);
+            while (lightBuffer.hasRemaining() && channel.read(lightBuffer) >= 0) {
+            }
+            lightBuffer.flip();
+            float[] lights = new float[2 * numOfLights];
+            for(int i=0;i<lights.length;i++) {
+                lights[i] = floatCoordinates ? lightBuffer.getFloat() : lightBuffer.getInt();
+            }
+
+            return new MappedScene(channel, floatCoordinates, numOfControlPoints, lights, chunks);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of control points placed by the user
+     */
+    public long getNumOfControlPoints() {
+        return numOfControlPoints;
+    }
+
+    public long getNumOfSegments() {
+        return BinaryScene.numOfSegments(numOfControlPoints);
+    }
+
+    public double getX(long controlPoint) {
+        return coordinate(controlPoint, 0);
+    }
+
+    public double getY(long controlPoint) {
+        return coordinate(controlPoint, 4);
+    }
+
+    public int getNumOfLightSources() {
+        return lights.length / 2;
+    }
+
+    public double getLightX(int lightSource) {
+        return lights[2 * lightSource];
+    }
+
+    public double getLightY(int lightSource) {
+        return lights[2 * lightSource + 1];
+    }
+
+    /**
+     * Points a segment view at the given segment
+     * @param index The index of the segment
+     * @param segment The view to reuse, or null to create one
+     * @return the view
+     */
+    public Segment segment(long index, Segment segment) {
+        if (index < 0 || index >= getNumOfSegments()) {
+            throw new IndexOutOfBoundsException("Segment " + index + " of " + getNumOfSegments());
+        }
+        if (segment == null || segment.scene != this) {
+            segment = new Segment(this);
+        }
+        segment.index = index;
+        return segment;
+    }
+
+    /**
+     * Creates bezier curves for a range of segments, for example the ones that are visible
+     * @param from The first segment, inclusive
+     * @param to The last segment, exclusive
+     * @return the curves
+     */
+    public List<BezierCurve> toBezierCurves(long from, long to) {
+        List<BezierCurve> bezierCurves = new ArrayList<>((int) Math.max(0, to - from));
+        Segment segment = null;
+        for(long i=from;i<to;i++) {
+            segment = segment(i, segment);
+            BezierCurve curve = new CubicBezierCurve();
+            for(int j=0;j<4;j++) {
+                curve.addControlPoint(new Point((int) Math.round(segment.getX(j)), (int) Math.round(segment.getY(j))));
+            }
+            bezierCurves.add(curve);
+        }
+        return bezierCurves;
+    }
+
+    /**
+     * Closes the file. The mapping itself is released once the scene is garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private double coordinate(long controlPoint, int offset) {
+        if (controlPoint < 0 || controlPoint >= numOfControlPoints) {
+            throw new IndexOutOfBoundsException("Control point " + controlPoint + " of " + numOfControlPoints);
+        }
+        MappedByteBuffer chunk = chunks[(int) (controlPoint >>> CHUNK_SHIFT)];
+        int position = (int) (controlPoint & CHUNK_MASK) * BinaryScene.POINT_SIZE + offset;
+        return floatCoordinates ? chunk.getFloat(position) : chunk.getInt(position);
+    }
+
+    /**
+     * The four control points of a cubic segment, read from the mapped points.
+     */
+    public static final class Segment {
+
+        private final MappedScene scene;
+        private long index;
+
+        private Segment(MappedScene scene) {
+            this.scene = scene;
+        }
+
+        public long getIndex() {
+            return index;
+        }
+
+        /**
+         * @param controlPoint The index of the control point on the segment, from 0 to 3
+         * @return the x coordinate of the control point
+         */
+        public double getX(int controlPoint) {
+            return coordinate(controlPoint, 0);
+        }
+
+        /**
+         * @param controlPoint The index of the control point on the segment, from 0 to 3
+         * @return the y coordinate of the control point
+         */
+        public double getY(int controlPoint) {
+            return coordinate(controlPoint, 4);
+        }
+
+        private double coordinate(int controlPoint, int offset) {
+            if (index == 0) {
+                return scene.coordinate(controlPoint, offset);
+            }
+
+            long joint = 2 * index + 1;
+            switch (controlPoint) {
+                case 0:
+                    return scene.coordinate(joint, offset);
+                case 1:
+                    // Mirrors the third point of the previous segment around the joint
+                    return 2 * scene.coordinate(joint, offset) - scene.coordinate(joint - 1, offset);
+                case 2:
+                case 3:
+                    return scene.coordinate(joint + controlPoint - 1, offset);
+                default:
+                    throw new IndexOutOfBoundsException("Control point " + controlPoint + " of a cubic segment");
+            }
+        }
+    }
+}
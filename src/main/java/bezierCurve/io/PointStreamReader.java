@@ -0,0 +1,173 @@
+package bezierCurve.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads control points from a text stream, one point per line, either as CSV ("x,y") or as
+ * newline delimited JSON ({"x": 1, "y": 2}). The stream is read through a fixed buffer and
+ * every point is handed over as soon as its line is complete, so the memory used does not
+ * depend on the length of the stream.
+ * @author 150001289
+ */
+public class PointStreamReader {
+
+    private static int BUFFER_SIZE = 1 << 13;
+    private static int MAX_LINE_LENGTH = 1 << 12;
+
+    public enum Format {
+
+        /**
+         * The first two fields of every line, an optional header line is skipped
+         */
+        CSV,
+
+        /**
+         * The "x" and "y" members of one JSON object per line
+         */
+        NDJSON
+    }
+
+    /**
+     * Receives the points in the order they are read.
+     */
+    public interface PointConsumer {
+
+        void accept(double x, double y) throws IOException;
+    }
+
+    private final Format format;
+    private final ByteBuffer buffer;
+    private final char[] line;
+    private int length;
+    private long lineNumber;
+    private long numOfPoints;
+
+    public PointStreamReader(Format format) {
+        this.format = format;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.line = new char[MAX_LINE_LENGTH];
+    }
+
+    /**
+     * Reads points until the end of the channel
+     * @param channel The channel to read from, not closed
+     * @param consumer Receives every point
+     * @return the number of points read
+     * @throws IOException if the channel cannot be read or the consumer fails
+     */
+    public long read(ReadableByteChannel channel, PointConsumer consumer) throws IOException {
+        long start = numOfPoints;
+        while (channel.read(buffer) >= 0) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                char c = (char) (buffer.get() & 0xFF);
+                if (c == '\n') {
+                    endLine(consumer);
+                } else if (length == line.length) {
+                    throw new IllegalArgumentException("line " + (lineNumber + 1) + ": longer than " + line.length + " characters");
+                } else {
+                    line[length++] = c;
+                }
+            }
+            buffer.clear();
+        }
+        if (length > 0) {
+            endLine(consumer);
+        }
+        return numOfPoints - start;
+    }
+
+    private void endLine(PointConsumer consumer) throws IOException {
+        lineNumber++;
+        int end = length;
+        length = 0;
+        while (end > 0 && Character.isWhitespace(line[end - 1])) {
+            end--;
+        }
+        int from = 0;
+        while (from < end && Character.isWhitespace(line[from])) {
+            from++;
+        }
+        if (from == end || line[from] == '#') {
+            return;
+        }
+
+        if (format == Format.CSV) {
+            int comma = indexOf(',', from, end);
+            int secondEnd = comma < 0 ? -1 : indexOf(',', comma + 1, end);
+            if (comma < 0) {
+                throw new IllegalArgumentException("line " + lineNumber + ": expected x,y");
+            }
+            if (numOfPoints == 0 && !Character.isDigit(line[from]) && "+-.".indexOf(line[from]) < 0) {
+                // Header
+                return;
+            }
+            consumer.accept(parse(from, comma), parse(comma + 1, secondEnd < 0 ? end : secondEnd));
+        } else {
+            consumer.accept(parse(member('x', from, end), end), parse(member('y', from, end), end));
+        }
+        numOfPoints++;
+    }
+
+    /**
+     * Finds the value of a member of a flat JSON object
+     * @param name The single character name of the member
+     * @param from
+     * @param to
+     * @return the index of the first character of the value
+     */
+    private int member(char name, int from, int to) {
+        for(int i=from;i+2<to;i++) {
+            if (line[i] == '"' && line[i + 1] == name && line[i + 2] == '"') {
+                int j = i + 3;
+                while (j < to && Character.isWhitespace(line[j])) {
+                    j++;
+                }
+                if (j < to && line[j] == ':') {
+                    return j + 1;
+                }
+            }
+        }
+        throw new IllegalArgumentException("line " + lineNumber + ": missing \"" + name + "\"");
+    }
+
+    /**
+     * Parses the number at the start of a range, surrounded by optional whitespace
+     * @param from
+     * @param to
+     * @return the number
+     */
+    private double parse(int from, int to) {
+        while (from < to && Character.isWhitespace(line[from])) {
+            from++;
+        }
+        int end = from;
+        while (end < to && isNumber(line[end])) {
+            end++;
+        }
+        try {
+            return Double.parseDouble(new String(line, from, end - from));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("line " + lineNumber + ": invalid number \"" + new String(line, from, to - from).trim() + "\"");
+        }
+    }
+
+    private int indexOf(char c, int from, int to) {
+        for(int i=from;i<to;i++) {
+            if (line[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isNumber(char c) {
+        return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E';
+    }
+
+    public long getNumOfPoints() {
+        return numOfPoints;
+    }
+}
@@ -0,0 +1,21 @@
+package bezierCurve.io;
+
+import bezierCurve.bezier.BezierCurve;
+
+import java.io.IOException;
+
+/**
+ * Receives the segments of a composite curve as soon as they are finished.
+ * @author 150001289
+ */
+public interface SegmentSink {
+
+    /**
+     * Called once per segment, in order. The builder keeps no reference to the segment
+     * afterwards, so it can be collected as soon as the sink lets go of it.
+     * @param index The index of the segment on the composite curve
+     * @param segment The cubic segment with its samples up to date
+     * @throws IOException if the sink fails to store the segment
+     */
+    void accept(long index, BezierCurve segment) throws IOException;
+}
@@ -0,0 +1,99 @@
+package bezierCurve.io;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.bezier.CubicBezierCurve;
+import bezierCurve.bezier.Sampling;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Builds a composite curve from a stream of control points without keeping it. The points are
+ * joined the same way as in CompositeCurve: the first segment takes four points, and every
+ * following segment starts at the last point of the previous one, continues along the mirror
+ * of its third point and takes two more points. Every segment is sampled and handed to a sink
+ * as soon as its last point arrives; only the two points the next segment depends on are kept.
+ * @author 150001289
+ */
+public class StreamingCurveBuilder implements PointStreamReader.PointConsumer {
+
+    private static int NUM_OF_CONTROL_POINTS = 4;
+
+    private final Sampling sampling;
+    private final SegmentSink sink;
+
+    // Control points of the segment being built
+    private final int[] x;
+    private final int[] y;
+    private int numOfPending;
+
+    private long numOfControlPoints;
+    private long numOfSegments;
+
+    /**
+     * @param sampling The way samples are placed on every segment
+     * @param sink Receives the finished segments
+     */
+    public StreamingCurveBuilder(Sampling sampling, SegmentSink sink) {
+        this.sampling = sampling;
+        this.sink = sink;
+        this.x = new int[NUM_OF_CONTROL_POINTS];
+        this.y = new int[NUM_OF_CONTROL_POINTS];
+    }
+
+    /**
+     * Reads control points from a channel until its end
+     * @param channel The channel, not closed
+     * @param format The format of the points
+     * @return the number of points read
+     * @throws IOException if the channel cannot be read or the sink fails
+     */
+    public long read(ReadableByteChannel channel, PointStreamReader.Format format) throws IOException {
+        return new PointStreamReader(format).read(channel, this);
+    }
+
+    /**
+     * Adds the next control point, placed by the user, and emits the segment it finishes
+     * @param x
+     * @param y
+     * @throws IOException if the sink fails
+     */
+    @Override
+    public void accept(double x, double y) throws IOException {
+        this.x[numOfPending] = (int) Math.round(x);
+        this.y[numOfPending] = (int) Math.round(y);
+        numOfPending++;
+        numOfControlPoints++;
+
+        if (numOfPending == NUM_OF_CONTROL_POINTS) {
+            BezierCurve segment = new CubicBezierCurve();
+            for(int i=0;i<NUM_OF_CONTROL_POINTS;i++) {
+                segment.addControlPoint(new Point(this.x[i], this.y[i]));
+            }
+            segment.updatePoints(sampling);
+
+            // The next segment starts at the last point and mirrors the third one
+            int lastX = this.x[3];
+            int lastY = this.y[3];
+            this.x[0] = lastX;
+            this.y[0] = lastY;
+            this.x[1] = 2 * lastX - this.x[2];
+            this.y[1] = 2 * lastY - this.y[2];
+            numOfPending = 2;
+
+            sink.accept(numOfSegments++, segment);
+        }
+    }
+
+    public long getNumOfControlPoints() {
+        return numOfControlPoints;
+    }
+
+    /**
+     * @return the number of segments emitted so far
+     */
+    public long getNumOfSegments() {
+        return numOfSegments;
+    }
+}
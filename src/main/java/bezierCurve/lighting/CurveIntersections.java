@@ -0,0 +1,256 @@
+package bezierCurve.lighting;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.points.ControlPoint;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds where two bezier curves cross, or where a curve crosses itself, by recursive
+ * subdivision. Pieces whose bounding boxes do not overlap are dropped, and once both pieces
+ * are flat their chords are intersected. Two consecutive pieces of the same curve always meet
+ * at their common end, so they are only split further while together they turn back on
+ * themselves. The results are parameters on the first curve, unordered and possibly repeated.
+ * @author 150001289
+ */
+final class CurveIntersections {
+
+    // Largest distance in pixels of an inner control point from the chord of a flat piece
+    private static double FLATNESS = 1e-6;
+    private static int MAX_DEPTH = 48;
+
+    // Bound on the pairs of pieces visited per query, reached when curves overlap
+    private static int MAX_PAIRS = 1 << 16;
+
+    // Chord parameters this close outside [0, 1] still count as crossing
+    private static double CHORD_TOLERANCE = 1e-9;
+
+    private double[] results;
+    private int size;
+    private int pairs;
+
+    // Whether both parameters of a crossing belong to the same curve
+    private boolean self;
+
+    CurveIntersections() {
+        this.results = new double[16];
+    }
+
+    /**
+     * Finds the parameters of the first curve where it crosses the second one
+     * @param curve A complete curve
+     * @param other Another complete curve
+     * @return the number of results
+     */
+    int intersect(BezierCurve curve, BezierCurve other) {
+        size = 0;
+        pairs = 0;
+        self = false;
+        intersect(new Piece(curve), new Piece(other), null, 0);
+        return size;
+    }
+
+    /**
+     * Finds the parameters where a curve crosses itself, both parameters of every crossing
+     * @param curve A complete curve
+     * @return the number of results
+     */
+    int selfIntersect(BezierCurve curve) {
+        size = 0;
+        pairs = 0;
+        self = true;
+        selfIntersect(new Piece(curve), 0);
+        return size;
+    }
+
+    double get(int i) {
+        return results[i];
+    }
+
+    private void selfIntersect(Piece piece, int depth) {
+        if (depth == MAX_DEPTH || ++pairs > MAX_PAIRS || piece.isFlat() || piece.isMonotone()) {
+            return;
+        }
+        Piece[] halves = piece.split(0.5);
+        selfIntersect(halves[0], depth + 1);
+        selfIntersect(halves[1], depth + 1);
+        intersect(halves[0], halves[1], piece, depth + 1);
+    }
+
+    /**
+     * @param a Piece of the first curve
+     * @param b Piece of the second curve
+     * @param union The piece made of a followed by b if they are pieces of the same curve, or null
+     * @param depth The number of splits so far
+     */
+    private void intersect(Piece a, Piece b, Piece union, int depth) {
+        if (++pairs > MAX_PAIRS || !a.overlaps(b)) {
+            return;
+        }
+        if (union != null && union.isMonotone()) {
+            return;
+        }
+        if (depth == MAX_DEPTH || a.isFlat() && b.isFlat()) {
+            // Consecutive pieces only meet at their common end, which is not a crossing
+            if (union == null) {
+                intersectChords(a, b);
+            }
+            return;
+        }
+
+        Piece[] as = a.split(0.5);
+        Piece[] bs = b.split(0.5);
+        intersect(as[0], bs[0], null, depth + 1);
+        intersect(as[0], bs[1], null, depth + 1);
+        intersect(as[1], bs[0], union != null ? union.sub(as[1].t0, bs[0].t1) : null, depth + 1);
+        intersect(as[1], bs[1], null, depth + 1);
+    }
+
+    private void intersectChords(Piece a, Piece b) {
+        int n = a.x.length - 1;
+        int m = b.x.length - 1;
+        double dax = a.x[n] - a.x[0], day = a.y[n] - a.y[0];
+        double dbx = b.x[m] - b.x[0], dby = b.y[m] - b.y[0];
+        double denominator = dax * dby - day * dbx;
+        if (denominator == 0) {
+            return;
+        }
+        double ox = b.x[0] - a.x[0], oy = b.y[0] - a.y[0];
+        double s = (ox * dby - oy * dbx) / denominator;
+        double u = (ox * day - oy * dax) / denominator;
+        if (s < -CHORD_TOLERANCE || s > 1 + CHORD_TOLERANCE || u < -CHORD_TOLERANCE || u > 1 + CHORD_TOLERANCE) {
+            return;
+        }
+
+        add(a.t0 + Math.min(Math.max(s, 0), 1) * (a.t1 - a.t0));
+        if (self) {
+            add(b.t0 + Math.min(Math.max(u, 0), 1) * (b.t1 - b.t0));
+        }
+    }
+
+    private void add(double t) {
+        if (size == results.length) {
+            results = Arrays.copyOf(results, 2 * size);
+        }
+        results[size++] = t;
+    }
+
+    /**
+     * The control points of the part of a curve between two parameters.
+     */
+    private static class Piece {
+
+        private final double[] x;
+        private final double[] y;
+        private final double t0;
+        private final double t1;
+        private double minX, minY, maxX, maxY;
+
+        private Piece(BezierCurve curve) {
+            this(new double[curve.getNumOfControlPoints()], new double[curve.getNumOfControlPoints()], 0, 1);
+            List<ControlPoint> controlPoints = curve.getControlPoints();
+            for(int i=0;i<x.length;i++) {
+                x[i] = controlPoints.get(i).getX();
+                y[i] = controlPoints.get(i).getY();
+            }
+            updateBounds();
+        }
+
+        private Piece(double[] x, double[] y, double t0, double t1) {
+            this.x = x;
+            this.y = y;
+            this.t0 = t0;
+            this.t1 = t1;
+        }
+
+        private void updateBounds() {
+            minX = minY = Double.POSITIVE_INFINITY;
+            maxX = maxY = Double.NEGATIVE_INFINITY;
+            for(int i=0;i<x.length;i++) {
+                minX = Math.min(minX, x[i]);
+                minY = Math.min(minY, y[i]);
+                maxX = Math.max(maxX, x[i]);
+                maxY = Math.max(maxY, y[i]);
+            }
+        }
+
+        private boolean overlaps(Piece other) {
+            return minX <= other.maxX && other.minX <= maxX && minY <= other.maxY && other.minY <= maxY;
+        }
+
+        /**
+         * Splits the piece with de Casteljau's algorithm
+         * @param s The local parameter of the split, in [0, 1]
+         * @return the pieces before and after the split
+         */
+        private Piece[] split(double s) {
+            int n = x.length;
+            double[] leftX = new double[n], leftY = new double[n];
+            double[] rightX = new double[n], rightY = new double[n];
+            double[] px = x.clone(), py = y.clone();
+            for(int level=0;level<n;level++) {
+                leftX[level] = px[0];
+                leftY[level] = py[0];
+                rightX[n - 1 - level] = px[n - 1 - level];
+                rightY[n - 1 - level] = py[n - 1 - level];
+                for(int i=0;i<n-level-1;i++) {
+                    px[i] += s * (px[i + 1] - px[i]);
+                    py[i] += s * (py[i + 1] - py[i]);
+                }
+            }
+
+            double t = t0 + s * (t1 - t0);
+            Piece left = new Piece(leftX, leftY, t0, t);
+            Piece right = new Piece(rightX, rightY, t, t1);
+            left.updateBounds();
+            right.updateBounds();
+            return new Piece[]{left, right};
+        }
+
+        /**
+         * @param from A parameter of the curve inside the piece
+         * @param to A larger parameter of the curve inside the piece
+         * @return the part of the piece between the two parameters
+         */
+        private Piece sub(double from, double to) {
+            Piece before = split((to - t0) / (t1 - t0))[0];
+            return before.split((from - t0) / (to - t0))[1];
+        }
+
+        /**
+         * @return True/false if all the inner control points lie on the chord
+         */
+        private boolean isFlat() {
+            int n = x.length - 1;
+            double dx = x[n] - x[0], dy = y[n] - y[0];
+            double length = Math.hypot(dx, dy);
+            for(int i=1;i<n;i++) {
+                double distance = length > 0
+                        ? Math.abs((x[i] - x[0]) * dy - (y[i] - y[0]) * dx) / length
+                        : Math.hypot(x[i] - x[0], y[i] - y[0]);
+                if (distance > FLATNESS) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * The derivative of a bezier curve is a combination of the legs of its control polygon,
+         * so if every leg moves forward along the chord the piece never turns back and cannot
+         * cross itself.
+         * @return True/false if the piece is monotone along its chord
+         */
+        private boolean isMonotone() {
+            int n = x.length - 1;
+            double dx = x[n] - x[0], dy = y[n] - y[0];
+            for(int i=0;i<n;i++) {
+                if ((x[i + 1] - x[i]) * dx + (y[i + 1] - y[i]) * dy <= 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
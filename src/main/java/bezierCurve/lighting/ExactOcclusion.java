@@ -0,0 +1,41 @@
+package bezierCurve.lighting;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.points.ControlPoint;
+import bezierCurve.points.Vector2D;
+
+import java.util.List;
+
+/**
+ * Tests every curve of the scene for every sample.
+ * @author 150001289
+ */
+public class ExactOcclusion implements Occlusion {
+
+    private final ThreadLocal<Vector2D> root = ThreadLocal.withInitial(Vector2D::new);
+
+    private List<BezierCurve> bezierCurves;
+    private ControlPoint lightSource;
+
+    @Override
+    public void prepare(List<BezierCurve> bezierCurves, ControlPoint lightSource) {
+        this.bezierCurves = bezierCurves;
+        this.lightSource = lightSource;
+    }
+
+    @Override
+    public Occlusion copy() {
+        return new ExactOcclusion();
+    }
+
+    @Override
+    public int findOccluder(BezierCurve owner, double t, double x, double y) {
+        Vector2D root = this.root.get();
+        for(int i=0;i<bezierCurves.size();i++) {
+            if (Shadows.blocks(bezierCurves.get(i), owner, t, x, y, lightSource, root)) {
+                return i;
+            }
+        }
+        return NONE;
+    }
+}
@@ -0,0 +1,242 @@
+package bezierCurve.lighting;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.points.ControlPoint;
+import bezierCurve.points.Vector2D;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registers every curve in the cells of a uniform grid that its bounding box covers. The
+ * straight line between a sample and the light source only tests the curves registered in
+ * the cells it crosses. A curve lies inside the bounding box of its control points, so this
+ * gives the same result as testing every curve.
+ * @author 150001289
+ */
+public class GridOcclusion implements Occlusion {
+
+    private static int DEFAULT_CELL_SIZE = 64;
+
+    // Bounding boxes are padded so that intersections on the border of a cell are not missed
+    private static double PADDING = 1;
+
+    private final int cellSize;
+    private final Map<Long, List<Entry>> cells;
+    private final Map<BezierCurve, Entry> entries;
+    private final ThreadLocal<Scratch> scratch;
+
+    private List<BezierCurve> bezierCurves;
+    private ControlPoint lightSource;
+    private int pass;
+
+    public GridOcclusion() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    public GridOcclusion(int cellSize) {
+        this.cellSize = cellSize;
+        this.cells = new HashMap<>();
+        this.entries = new IdentityHashMap<>();
+        this.scratch = ThreadLocal.withInitial(Scratch::new);
+    }
+
+    /**
+     * Registers the curves that were added or moved since the last pass and removes the
+     * curves that are no longer part of the scene.
+     * @param bezierCurves The curves of the scene
+     * @param lightSource The light source
+     */
+    @Override
+    public void prepare(List<BezierCurve> bezierCurves, ControlPoint lightSource) {
+        this.bezierCurves = bezierCurves;
+        this.lightSource = lightSource;
+        pass++;
+
+        for(int i=0;i<bezierCurves.size();i++) {
+            BezierCurve curve = bezierCurves.get(i);
+
+            Entry entry = entries.get(curve);
+            if (entry == null) {
+                entry = new Entry(curve);
+                entries.put(curve, entry);
+            }
+            entry.index = i;
+            entry.pass = pass;
+
+            long modCount = curve.getModCount();
+            if (entry.modCount != modCount) {
+                unregister(entry);
+                entry.modCount = modCount;
+                register(entry);
+            }
+        }
+
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.pass != pass) {
+                unregister(entry);
+                iterator.remove();
+            }
+        }
+    }
+
+    @Override
+    public Occlusion copy() {
+        return new GridOcclusion(cellSize);
+    }
+
+    @Override
+    public int findOccluder(BezierCurve owner, double t, double x, double y) {
+        Scratch scratch = this.scratch.get();
+        scratch.begin(bezierCurves.size());
+
+        double lightX = lightSource.getX();
+        double lightY = lightSource.getY();
+
+        // Walk the cells crossed by the straight line with a DDA
+        int cx = cell(x);
+        int cy = cell(y);
+        int endCx = cell(lightX);
+        int endCy = cell(lightY);
+
+        double dx = lightX - x;
+        double dy = lightY - y;
+        int stepX = dx > 0 ? 1 : -1;
+        int stepY = dy > 0 ? 1 : -1;
+        double tDeltaX = dx != 0 ? cellSize / Math.abs(dx) : Double.POSITIVE_INFINITY;
+        double tDeltaY = dy != 0 ? cellSize / Math.abs(dy) : Double.POSITIVE_INFINITY;
+        double tMaxX = dx != 0 ? ((cx + (stepX > 0 ? 1 : 0)) * (double) cellSize - x) / dx : Double.POSITIVE_INFINITY;
+        double tMaxY = dy != 0 ? ((cy + (stepY > 0 ? 1 : 0)) * (double) cellSize - y) / dy : Double.POSITIVE_INFINITY;
+
+        int steps = Math.abs(endCx - cx) + Math.abs(endCy - cy);
+        for(int step=0;step<=steps;step++) {
+            List<Entry> cell = cells.get(key(cx, cy));
+            if (cell != null) {
+                for(int i=0;i<cell.size();i++) {
+                    Entry entry = cell.get(i);
+                    if (scratch.visit(entry.index)
+                            && Shadows.blocks(entry.curve, owner, t, x, y, lightSource, scratch.root)) {
+                        return entry.index;
+                    }
+                }
+            }
+
+            if (tMaxX < tMaxY) {
+                cx += stepX;
+                tMaxX += tDeltaX;
+            } else {
+                cy += stepY;
+                tMaxY += tDeltaY;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Adds the curve to all the cells covered by its bounding box
+     * @param entry The entry of the curve
+     */
+    private void register(Entry entry) {
+        Rectangle2D bounds = entry.curve.getBounds();
+        if (bounds == null) {
+            entry.registered = false;
+            return;
+        }
+
+        entry.minCx = cell(bounds.getMinX() - PADDING);
+        entry.minCy = cell(bounds.getMinY() - PADDING);
+        entry.maxCx = cell(bounds.getMaxX() + PADDING);
+        entry.maxCy = cell(bounds.getMaxY() + PADDING);
+        for(int cx=entry.minCx;cx<=entry.maxCx;cx++) {
+            for(int cy=entry.minCy;cy<=entry.maxCy;cy++) {
+                cells.computeIfAbsent(key(cx, cy), k -> new ArrayList<>()).add(entry);
+            }
+        }
+        entry.registered = true;
+    }
+
+    /**
+     * Removes the curve from all the cells it was registered to
+     * @param entry The entry of the curve
+     */
+    private void unregister(Entry entry) {
+        if (!entry.registered) {
+            return;
+        }
+
+        for(int cx=entry.minCx;cx<=entry.maxCx;cx++) {
+            for(int cy=entry.minCy;cy<=entry.maxCy;cy++) {
+                Long key = key(cx, cy);
+                List<Entry> cell = cells.get(key);
+                cell.remove(entry);
+                if (cell.isEmpty()) {
+                    cells.remove(key);
+                }
+            }
+        }
+        entry.registered = false;
+    }
+
+    private int cell(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @return the number of non empty cells
+     */
+    public int getNumOfCells() {
+        return cells.size();
+    }
+
+    private static class Entry {
+
+        private final BezierCurve curve;
+        private int index;
+        private int pass;
+        private long modCount = -1;
+
+        private boolean registered;
+        private int minCx, minCy, maxCx, maxCy;
+
+        private Entry(BezierCurve curve) {
+            this.curve = curve;
+        }
+    }
+
+    /**
+     * Per thread state of the queries, so that every curve is tested at most once per query.
+     */
+    private static class Scratch {
+
+        private final Vector2D root = new Vector2D();
+        private int[] visited = new int[0];
+        private int query;
+
+        private void begin(int numOfCurves) {
+            if (visited.length < numOfCurves) {
+                visited = new int[numOfCurves];
+                query = 0;
+            }
+            query++;
+        }
+
+        private boolean visit(int index) {
+            if (visited[index] == query) {
+                return false;
+            }
+            visited[index] = query;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package bezierCurve.lighting;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.bezier.SampleBuffer;
+import bezierCurve.metrics.Metrics;
+import bezierCurve.points.LightSource;
+import bezierCurve.points.Vector2D;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Colors the samples of a scene lit by several light sources. Every light source keeps which
+ * curve, if any, shadows every sample, and recomputes the samples of a curve when the light
+ * source moved or the samples of the curve changed. Moving one light source therefore leaves
+ * the shadows of the others alone. When a curve moves, only the samples whose straight line to
+ * the light source crosses the bounding boxes of the curve before and after the move are tested
+ * again, unless they stay in the shadow of a curve that did not move. Only the curves whose
+ * samples changed, or are now lit differently, are colored again.
+ * @author 150001289
+ */
+public class Illumination {
+
+    // Bounding boxes are padded so that intersections on their border are not missed
+    private static double PADDING = 1;
+
+    private final Map<LightSource, Light> lights;
+
+    // The number of light sources of the previous pass
+    private int numOfLights;
+    private long numOfVisibilityUpdates;
+    private final LongAdder numOfSampleTests;
+
+    public Illumination() {
+        this.lights = new IdentityHashMap<>();
+        this.numOfSampleTests = new LongAdder();
+    }
+
+    /**
+     * Updates the shadows that changed and colors the samples with the sum of the light
+     * sources that reach them
+     * @param bezierCurves The curves of the scene
+     * @param lightSources The light sources
+     * @return true if the colors were updated, false if nothing changed since the last pass
+     */
+    public boolean shade(List<BezierCurve> bezierCurves, List<LightSource> lightSources) {
+        long start = Metrics.UPDATE_COLORS.start();
+        try {
+            // Curves are only read from now on, so their caches must be up to date
+            bezierCurves.forEach(BezierCurve::updateCaches);
+
+            boolean numOfLightsChanged = lightSources.size() != numOfLights;
+            boolean changed = numOfLightsChanged;
+            List<Light> current = new ArrayList<>(lightSources.size());
+            for (LightSource lightSource : lightSources) {
+                Light light = lights.computeIfAbsent(lightSource, Light::new);
+                changed |= light.update(bezierCurves);
+                current.add(light);
+            }
+            lights.keySet().retainAll(lightSources);
+            numOfLights = lightSources.size();
+
+            if (!changed) {
+                return false;
+            }
+
+            Vector2D normal = new Vector2D();
+            Vector2D toLightSource = new Vector2D();
+            boolean[] lit = new boolean[current.size()];
+            for(int i=0;i<bezierCurves.size();i++) {
+                BezierCurve curve = bezierCurves.get(i);
+
+                // Only the curves that a light source now reaches differently are colored again
+                boolean dirty = numOfLightsChanged;
+                for(int l=0;l<lit.length;l++) {
+                    dirty |= current.get(l).clearChanged(curve);
+                }
+                if (!dirty) {
+                    continue;
+                }
+
+                SampleBuffer samples = curve.getSamples();
+                for(int s=0;s<samples.size();s++) {
+                    for(int l=0;l<lit.length;l++) {
+                        lit[l] = current.get(l).isLit(curve, s);
+                    }
+                    samples.setArgb(s, curve.calcColor(s, lightSources, lit, normal, toLightSource));
+                }
+                samples.colorsChanged();
+            }
+            return true;
+        } finally {
+            Metrics.UPDATE_COLORS.stop(start);
+        }
+    }
+
+    /**
+     * @return the number of times the shadows of a light source on all the samples of a curve were computed
+     */
+    public long getNumOfVisibilityUpdates() {
+        return numOfVisibilityUpdates;
+    }
+
+    /**
+     * @return the number of times a sample was tested for the shadow of a light source
+     */
+    public long getNumOfSampleTests() {
+        return numOfSampleTests.sum();
+    }
+
+    /**
+     * The occluders of the samples of every curve for a light source.
+     */
+    private class Light {
+
+        private final LightSource lightSource;
+        private final Map<BezierCurve, Visibility> visibilities;
+
+        // State of the scene when the shadows were computed
+        private long lightModCount;
+        private BezierCurve[] curves;
+        private long[] modCounts;
+        private Rectangle2D[] bounds;
+
+        // The curves that moved since the last update, and the boxes they covered before and after
+        private boolean[] moved;
+        private final List<Rectangle2D> regions;
+
+        private Light(LightSource lightSource) {
+            this.lightSource = lightSource;
+            this.visibilities = new IdentityHashMap<>();
+            this.lightModCount = -1;
+            this.curves = new BezierCurve[0];
+            this.modCounts = new long[0];
+            this.bounds = new Rectangle2D[0];
+            this.moved = new boolean[0];
+            this.regions = new ArrayList<>();
+        }
+
+        /**
+         * Recomputes the shadows that are out of date
+         * @param bezierCurves The curves of the scene
+         * @return true if any shadow was recomputed
+         */
+        private boolean update(List<BezierCurve> bezierCurves) {
+            Occlusion occlusion = lightSource.getOcclusion();
+            boolean full = sceneChanged(bezierCurves) || lightSource.getModCount() != lightModCount
+                    || !regions.isEmpty() && !occlusion.isLocal();
+
+            List<Visibility> stale = new ArrayList<>();
+            List<Visibility> partial = new ArrayList<>();
+            long work = 0;
+            for(int i=0;i<bezierCurves.size();i++) {
+                BezierCurve curve = bezierCurves.get(i);
+                Visibility visibility = visibilities.computeIfAbsent(curve, Visibility::new);
+                if (full || moved[i] || visibility.generation != curve.getSamples().getGeneration()) {
+                    stale.add(visibility);
+                    work += curve.getSamples().size();
+                } else if (!regions.isEmpty()) {
+                    partial.add(visibility);
+                    work += curve.getSamples().size();
+                }
+            }
+            visibilities.keySet().retainAll(bezierCurves);
+
+            if (stale.isEmpty() && partial.isEmpty()) {
+                return false;
+            }
+
+            occlusion.prepare(bezierCurves, lightSource);
+
+            List<Visibility> updates = new ArrayList<>(stale.size() + partial.size());
+            stale.forEach(visibility -> visibility.full = true);
+            partial.forEach(visibility -> visibility.full = false);
+            updates.addAll(stale);
+            updates.addAll(partial);
+
+            ForkJoinPool pool = lightSource.getPool();
+            if (pool != null && pool.getParallelism() > 1 && work * bezierCurves.size() >= lightSource.getParallelThreshold()) {
+                pool.invoke(new Task(updates, occlusion, this, 0, updates.size()));
+            } else {
+                updates.forEach(visibility -> visibility.update(occlusion, this));
+            }
+            numOfVisibilityUpdates += stale.size();
+
+            lightModCount = lightSource.getModCount();
+            return true;
+        }
+
+        /**
+         * Compares the curves with the ones of the last update, remembers them and collects
+         * the regions of the curves that moved
+         * @param bezierCurves The curves of the scene
+         * @return true if a curve was added, removed or replaced
+         */
+        private boolean sceneChanged(List<BezierCurve> bezierCurves) {
+            boolean changed = curves.length != bezierCurves.size();
+            if (changed) {
+                curves = new BezierCurve[bezierCurves.size()];
+                modCounts = new long[bezierCurves.size()];
+                bounds = new Rectangle2D[bezierCurves.size()];
+                moved = new boolean[bezierCurves.size()];
+            }
+
+            regions.clear();
+            for(int i=0;i<curves.length;i++) {
+                BezierCurve curve = bezierCurves.get(i);
+                long modCount = curve.getModCount();
+                Rectangle2D before = bounds[i];
+                changed |= curves[i] != curve;
+                moved[i] = modCount != modCounts[i];
+
+                curves[i] = curve;
+                modCounts[i] = modCount;
+                bounds[i] = curve.getBounds();
+                if (moved[i]) {
+                    addRegion(before);
+                    addRegion(bounds[i]);
+                }
+            }
+            return changed;
+        }
+
+        private void addRegion(Rectangle2D region) {
+            if (region != null) {
+                regions.add(new Rectangle2D.Double(region.getX() - PADDING, region.getY() - PADDING,
+                        region.getWidth() + 2 * PADDING, region.getHeight() + 2 * PADDING));
+            }
+        }
+
+        /**
+         * @param x
+         * @param y
+         * @return True/false if the straight line between the point and the light source
+         * crosses the region of a curve that moved
+         */
+        private boolean crossesMovedCurve(double x, double y) {
+            for(int i=0;i<regions.size();i++) {
+                if (regions.get(i).intersectsLine(x, y, lightSource.getX(), lightSource.getY())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isLit(BezierCurve curve, int sample) {
+            return visibilities.get(curve).occluders[sample] == Occlusion.NONE;
+        }
+
+        /**
+         * @param curve A curve of the scene
+         * @return true if the samples of the curve that the light source reaches changed since the last call
+         */
+        private boolean clearChanged(BezierCurve curve) {
+            Visibility visibility = visibilities.get(curve);
+            boolean changed = visibility.changed;
+            visibility.changed = false;
+            return changed;
+        }
+    }
+
+    /**
+     * Which curve shadows every sample of a curve for a light source.
+     */
+    private class Visibility {
+
+        private final BezierCurve curve;
+        private int[] occluders;
+        private long generation;
+
+        // Whether the next update tests all the samples or only the ones near the curves that moved
+        private boolean full;
+
+        // Whether a sample was lit or shadowed differently by the last updates
+        private boolean changed;
+
+        private Visibility(BezierCurve curve) {
+            this.curve = curve;
+            this.occluders = new int[0];
+            this.generation = -1;
+        }
+
+        private void update(Occlusion occlusion, Light light) {
+            SampleBuffer samples = curve.getSamples();
+            if (occluders.length < samples.size()) {
+                occluders = new int[samples.size()];
+            }
+
+            int numOfTests = 0;
+            for(int s=0;s<samples.size();s++) {
+                if (!full) {
+                    // A curve that did not move still shadows the sample
+                    int occluder = occluders[s];
+                    if (occluder != Occlusion.NONE ? !light.moved[occluder] : !light.crossesMovedCurve(samples.getX(s), samples.getY(s))) {
+                        continue;
+                    }
+                }
+                int occluder = occlusion.findOccluder(curve, samples.getT(s), samples.getX(s), samples.getY(s));
+                changed |= (occluder == Occlusion.NONE) != (occluders[s] == Occlusion.NONE);
+                occluders[s] = occluder;
+                numOfTests++;
+            }
+            changed |= full;
+            numOfSampleTests.add(numOfTests);
+            generation = samples.getGeneration();
+        }
+    }
+
+    private static class Task extends RecursiveAction {
+
+        private final List<Visibility> visibilities;
+        private final Occlusion occlusion;
+        private final Light light;
+        private final int from;
+        private final int to;
+
+        private Task(List<Visibility> visibilities, Occlusion occlusion, Light light, int from, int to) {
+            this.visibilities = visibilities;
+            this.occlusion = occlusion;
+            this.light = light;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                visibilities.get(from).update(occlusion, light);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Task(visibilities, occlusion, light, from, middle), new Task(visibilities, occlusion, light, middle, to));
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package bezierCurve.lighting;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.points.ControlPoint;
+import bezierCurve.points.Vector2D;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes the shadowed intervals of every curve once per pass, so that every sample is a
+ * lookup in the intervals of its curve. See ShadowIntervals. Samples next to the edge of a
+ * shadow are tested exactly, as whether they graze an occluder depends on their own rounding.
+ * @author 150001289
+ */
+public class IntervalOcclusion implements Occlusion {
+
+    private final Map<BezierCurve, ShadowIntervals> intervals;
+    private final ThreadLocal<Vector2D> root = ThreadLocal.withInitial(Vector2D::new);
+
+    private List<BezierCurve> bezierCurves;
+    private ControlPoint lightSource;
+
+    public IntervalOcclusion() {
+        this.intervals = new IdentityHashMap<>();
+    }
+
+    @Override
+    public void prepare(List<BezierCurve> bezierCurves, ControlPoint lightSource) {
+        this.bezierCurves = bezierCurves;
+        this.lightSource = lightSource;
+
+        intervals.clear();
+        for(int i=0;i<bezierCurves.size();i++) {
+            BezierCurve curve = bezierCurves.get(i);
+            intervals.put(curve, ShadowIntervals.compute(curve, bezierCurves, lightSource));
+        }
+    }
+
+    @Override
+    public Occlusion copy() {
+        return new IntervalOcclusion();
+    }
+
+    @Override
+    public int findOccluder(BezierCurve owner, double t, double x, double y) {
+        ShadowIntervals shadows = intervals.get(owner);
+        if (shadows != null && !shadows.isNearEvent(t)) {
+            return shadows.findOccluder(t);
+        }
+
+        // A sample of a curve outside the scene, or near an event, is tested against every curve
+        Vector2D root = this.root.get();
+        for(int i=0;i<bezierCurves.size();i++) {
+            if (Shadows.blocks(bezierCurves.get(i), owner, t, x, y, lightSource, root)) {
+                return i;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * @param curve A curve of the last pass
+     * @return the shadowed intervals of the curve, or null if it was not part of the last pass
+     */
+    public ShadowIntervals getIntervals(BezierCurve curve) {
+        return intervals.get(curve);
+    }
+}
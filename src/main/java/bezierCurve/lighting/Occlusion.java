@@ -0,0 +1,46 @@
+package bezierCurve.lighting;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.points.ControlPoint;
+
+import java.util.List;
+
+/**
+ * Finds which curve, if any, casts a shadow on a sample.
+ * @author 150001289
+ */
+public interface Occlusion {
+
+    int NONE = -1;
+
+    /**
+     * Prepares the occlusion queries of a lighting pass.
+     * @param bezierCurves The curves of the scene
+     * @param lightSource The light source
+     */
+    void prepare(List<BezierCurve> bezierCurves, ControlPoint lightSource);
+
+    /**
+     * Finds a curve that intersects the straight line between a sample and the light source.
+     * @param owner The curve the sample belongs to
+     * @param t The parameter of the sample on its curve
+     * @param x
+     * @param y
+     * @return the index of the occluding curve or NONE if the sample is lit
+     */
+    int findOccluder(BezierCurve owner, double t, double x, double y);
+
+    /**
+     * @return a new occlusion with the same settings and nothing prepared, so that another
+     * thread can light its own copy of the scene
+     */
+    Occlusion copy();
+
+    /**
+     * @return true if the result for a sample only depends on the curves that cross the straight
+     * line to the light source, so that moving a curve leaves the samples away from it alone
+     */
+    default boolean isLocal() {
+        return true;
+    }
+}
@@ -0,0 +1,141 @@
+package bezierCurve.lighting;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.bezier.SampleBuffer;
+import bezierCurve.points.ControlPoint;
+import bezierCurve.points.Vector2D;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Colors the samples of a list of curves for one light source. The samples of all the curves
+ * are numbered consecutively, and large scenes split that range across a fork-join pool. Every
+ * sample is shaded independently and writes only its own slot of its sample buffer.
+ * @author 150001289
+ */
+public class Shading {
+
+    public static int DEFAULT_PARALLEL_THRESHOLD = 50000;
+    private static int MIN_GRAIN = 64;
+    private static int TASKS_PER_THREAD = 8;
+
+    private final List<BezierCurve> bezierCurves;
+    private final ControlPoint lightSource;
+    private final Occlusion occlusion;
+
+    // offsets[i] is the number of samples of the curves before curve i
+    private final int[] offsets;
+
+    private Shading(List<BezierCurve> bezierCurves, ControlPoint lightSource, Occlusion occlusion) {
+        this.bezierCurves = bezierCurves;
+        this.lightSource = lightSource;
+        this.occlusion = occlusion;
+
+        this.offsets = new int[bezierCurves.size() + 1];
+        for(int i=0;i<bezierCurves.size();i++) {
+            offsets[i + 1] = offsets[i] + bezierCurves.get(i).getSamples().size();
+        }
+    }
+
+    /**
+     * Colors the samples of the curves. The work runs on the pool when the number of samples
+     * times the number of curves reaches the threshold, and on the calling thread otherwise.
+     * @param bezierCurves The curves of the scene
+     * @param lightSource The light source
+     * @param occlusion The way shadows are found
+     * @param pool The pool of the parallel pass, or null to always shade serially
+     * @param parallelThreshold The amount of work from which the pool is used
+     */
+    public static void shade(List<BezierCurve> bezierCurves, ControlPoint lightSource, Occlusion occlusion,
+                             ForkJoinPool pool, int parallelThreshold) {
+
+        // Curves are only read from now on, so their caches must be up to date
+        bezierCurves.forEach(BezierCurve::updateCaches);
+        occlusion.prepare(bezierCurves, lightSource);
+
+        Shading shading = new Shading(bezierCurves, lightSource, occlusion);
+        int numOfSamples = shading.offsets[bezierCurves.size()];
+        long work = (long) numOfSamples * bezierCurves.size();
+
+        if (pool != null && pool.getParallelism() > 1 && work >= parallelThreshold) {
+            int grain = Math.max(MIN_GRAIN, numOfSamples / (pool.getParallelism() * TASKS_PER_THREAD));
+            pool.invoke(shading.new Task(0, numOfSamples, grain));
+        } else {
+            shading.shade(0, numOfSamples);
+        }
+        bezierCurves.forEach(curve -> curve.getSamples().colorsChanged());
+    }
+
+    /**
+     * Colors a range of consecutively numbered samples
+     * @param from The first sample, inclusive
+     * @param to The last sample, exclusive
+     */
+    private void shade(int from, int to) {
+        Vector2D normal = new Vector2D();
+        Vector2D toLightSource = new Vector2D();
+
+        int curve = curveOf(from);
+        for(int i=from;i<to;i++) {
+            while (i >= offsets[curve + 1]) {
+                curve++;
+            }
+
+            BezierCurve bezierCurve = bezierCurves.get(curve);
+            SampleBuffer samples = bezierCurve.getSamples();
+            int s = i - offsets[curve];
+
+            int occluder = occlusion.findOccluder(bezierCurve, samples.getT(s), samples.getX(s), samples.getY(s));
+
+            // Check if another sample intersects between the current sample and the light source.
+            if (occluder != Occlusion.NONE) {
+                samples.setArgb(s, SampleBuffer.DEFAULT_ARGB);
+            } else {
+                samples.setArgb(s, bezierCurve.calcColor(s, lightSource, normal, toLightSource));
+            }
+        }
+    }
+
+    /**
+     * @param sample The number of a sample
+     * @return the index of the curve the sample belongs to
+     */
+    private int curveOf(int sample) {
+        int index = Arrays.binarySearch(offsets, sample);
+        if (index < 0) {
+            return -index - 2;
+        }
+
+        // Skip the curves without samples
+        while (index + 1 < offsets.length && offsets[index + 1] == sample) {
+            index++;
+        }
+        return Math.min(index, bezierCurves.size() - 1);
+    }
+
+    private class Task extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final int grain;
+
+        private Task(int from, int to, int grain) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                shade(from, to);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Task(from, middle, grain), new Task(middle, to, grain));
+            }
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package bezierCurve.lighting;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.points.ControlPoint;
+import bezierCurve.points.Vector2D;
+import bezierCurve.utils.Common;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The parts of a curve that a light source cannot reach, as intervals of the parameter t.
+ * Whether an occluder blocks the straight line from B(t) to the light source can only change
+ * where that line passes through an end of the occluder, where it touches the silhouette of
+ * the occluder as seen from the light source, or where B(t) crosses the occluder. These events
+ * are found analytically for every occluder, the visibility between two consecutive events is
+ * decided by one exact test at their midpoint, and the shadowed intervals of all the occluders
+ * are merged. The cost depends on the number of curves and not on the number of samples, and
+ * every sample then only needs a binary search.
+ * @author 150001289
+ */
+public class ShadowIntervals {
+
+    // Intervals of t shorter than this are ignored
+    private static double MIN_LENGTH = 1e-9;
+
+    // Points closer than this in t to an event are near the edge of a shadow, where the rounding
+    // errors of a sample decide if a straight line grazes an occluder or misses it
+    private static double EVENT_TOLERANCE = 1e-6;
+
+    private static final ShadowIntervals EMPTY = new ShadowIntervals(new double[0], new double[0], new int[0], 0, new int[]{0}, new double[0]);
+
+    // Disjoint shadowed intervals in ascending order
+    private final double[] from;
+    private final double[] to;
+    private final int numOfIntervals;
+
+    // Intervals of every occluder, sorted by their start, as from, to pairs. Interval i of the
+    // merged list covers the ones between first[i] and first[i + 1].
+    private final double[] occluded;
+    private final int[] occluders;
+    private final int[] first;
+
+    // The events of all the occluders in ascending order
+    private final double[] events;
+
+    private ShadowIntervals(double[] occluded, double[] merged, int[] occluders, int numOfIntervals, int[] first, double[] events) {
+        this.occluded = occluded;
+        this.events = events;
+        this.occluders = occluders;
+        this.numOfIntervals = numOfIntervals;
+        this.first = first;
+        this.from = new double[numOfIntervals];
+        this.to = new double[numOfIntervals];
+        for(int i=0;i<numOfIntervals;i++) {
+            from[i] = merged[2 * i];
+            to[i] = merged[2 * i + 1];
+        }
+    }
+
+    /**
+     * Computes the shadows of a light source on a curve
+     * @param curve The curve that receives the shadows
+     * @param bezierCurves The curves of the scene, which may include the curve itself
+     * @param lightSource The light source
+     * @return the shadowed intervals of the curve
+     */
+    public static ShadowIntervals compute(BezierCurve curve, List<BezierCurve> bezierCurves, ControlPoint lightSource) {
+        return new Solver().solve(curve, bezierCurves, lightSource);
+    }
+
+    /**
+     * @return the number of disjoint shadowed intervals
+     */
+    public int getNumOfIntervals() {
+        return numOfIntervals;
+    }
+
+    public double getFrom(int i) {
+        return from[i];
+    }
+
+    public double getTo(int i) {
+        return to[i];
+    }
+
+    /**
+     * A point near an event may be shadowed or lit depending on the rounding errors of its
+     * coordinates, so it should be tested on its own rather than looked up.
+     * @param t The parameter of the point
+     * @return True/false if the point is within EVENT_TOLERANCE of an event
+     */
+    public boolean isNearEvent(double t) {
+        int index = Arrays.binarySearch(events, t);
+        if (index >= 0) {
+            return true;
+        }
+        int next = -index - 1;
+        return next < events.length && events[next] - t < EVENT_TOLERANCE
+                || next > 0 && t - events[next - 1] < EVENT_TOLERANCE;
+    }
+
+    /**
+     * Finds a curve that casts a shadow on a point of the curve
+     * @param t The parameter of the point
+     * @return the index of the occluder in the list of curves of the scene, or Occlusion.NONE
+     */
+    public int findOccluder(double t) {
+        int index = Arrays.binarySearch(from, 0, numOfIntervals, t);
+        int interval = index >= 0 ? index : -index - 2;
+        if (interval < 0 || t > to[interval]) {
+            return Occlusion.NONE;
+        }
+
+        for(int i=first[interval];i<first[interval + 1];i++) {
+            if (t >= occluded[2 * i] && t <= occluded[2 * i + 1]) {
+                return occluders[i];
+            }
+        }
+        return Occlusion.NONE;
+    }
+
+    /**
+     * Collects the events and the shadowed intervals of one curve.
+     */
+    private static class Solver {
+
+        private final CurveIntersections intersections = new CurveIntersections();
+        private final Vector2D point = new Vector2D();
+        private final Vector2D root = new Vector2D();
+
+        private double[] events = new double[16];
+        private int numOfEvents;
+
+        // The events of every occluder except the ends of the curve
+        private double[] allEvents = new double[16];
+        private int numOfAllEvents;
+
+        private double[] roots = new double[0];
+
+        // Directions from the light source of the rays that enclose the curve
+        private double lowX, lowY, highX, highY;
+
+        // Shadowed intervals of every occluder as from, to pairs, and their occluders
+        private double[] intervals = new double[16];
+        private int[] occluders = new int[8];
+        private int numOfOccluded;
+
+        private ShadowIntervals solve(BezierCurve curve, List<BezierCurve> bezierCurves, ControlPoint lightSource) {
+            Rectangle2D bounds = curve.getBounds();
+            if (bounds == null) {
+                return EMPTY;
+            }
+            // The lines to the light source lie in the bounding box of the curve and the light source
+            bounds = (Rectangle2D) bounds.clone();
+            bounds.add(lightSource.getX(), lightSource.getY());
+
+            boolean wedge = !curve.getBounds().contains(lightSource.getX(), lightSource.getY()) && findWedge(curve, lightSource);
+
+            for(int k=0;k<bezierCurves.size();k++) {
+                BezierCurve occluder = bezierCurves.get(k);
+                Rectangle2D occluderBounds = occluder.getBounds();
+                if (occluderBounds != null && occluderBounds.getMinX() <= bounds.getMaxX() && bounds.getMinX() <= occluderBounds.getMaxX()
+                        && occluderBounds.getMinY() <= bounds.getMaxY() && bounds.getMinY() <= occluderBounds.getMaxY()
+                        && !(wedge && isOutsideWedge(occluder, lightSource))) {
+                    findEvents(curve, occluder, lightSource);
+                    classify(curve, occluder, k, lightSource);
+                }
+            }
+            return merge();
+        }
+
+        /**
+         * Finds the two rays from the light source that enclose the control points of the curve,
+         * and with them every straight line from the curve to the light source
+         * @return false if the control points surround the light source
+         */
+        private boolean findWedge(BezierCurve curve, ControlPoint lightSource) {
+            List<ControlPoint> controlPoints = curve.getControlPoints();
+            lowX = highX = controlPoints.get(0).getX() - lightSource.getX();
+            lowY = highY = controlPoints.get(0).getY() - lightSource.getY();
+            for(int i=1;i<controlPoints.size();i++) {
+                double dx = controlPoints.get(i).getX() - lightSource.getX();
+                double dy = controlPoints.get(i).getY() - lightSource.getY();
+                if (lowX * dy - lowY * dx < 0) {
+                    lowX = dx;
+                    lowY = dy;
+                } else if (highX * dy - highY * dx > 0) {
+                    highX = dx;
+                    highY = dy;
+                }
+            }
+            // The wedge is only valid while it is narrower than half a turn
+            for(int i=0;i<controlPoints.size();i++) {
+                double dx = controlPoints.get(i).getX() - lightSource.getX();
+                double dy = controlPoints.get(i).getY() - lightSource.getY();
+                if (lowX * dy - lowY * dx < 0 || highX * dy - highY * dx > 0) {
+                    return false;
+                }
+            }
+            return lowX * highY - lowY * highX >= 0;
+        }
+
+        /**
+         * @return True/false if all the control points of the occluder lie beyond one side of the wedge
+         */
+        private boolean isOutsideWedge(BezierCurve occluder, ControlPoint lightSource) {
+            boolean beyondLow = true, beyondHigh = true;
+            List<ControlPoint> controlPoints = occluder.getControlPoints();
+            for(int i=0;i<controlPoints.size();i++) {
+                double dx = controlPoints.get(i).getX() - lightSource.getX();
+                double dy = controlPoints.get(i).getY() - lightSource.getY();
+                beyondLow &= lowX * dy - lowY * dx < 0;
+                beyondHigh &= highX * dy - highY * dx > 0;
+            }
+            return beyondLow || beyondHigh;
+        }
+
+        /**
+         * Finds the parameters of the curve where the shadow of the occluder may begin or end
+         */
+        private void findEvents(BezierCurve curve, BezierCurve occluder, ControlPoint lightSource) {
+            numOfEvents = 0;
+            addEvent(0);
+            addEvent(1);
+
+            // The ends of the occluder and its silhouette as seen from the light source
+            int numOfTangents = occluder.calculateTangents(lightSource.getX(), lightSource.getY(), roots(occluder.getMaxNumOfTangents()), 0);
+            double[] tangents = Arrays.copyOf(roots, numOfTangents + 2);
+            tangents[numOfTangents] = 0;
+            tangents[numOfTangents + 1] = 1;
+            for(int i=0;i<tangents.length;i++) {
+                occluder.calcPoint(tangents[i], point);
+                if (occluder == curve && i < numOfTangents) {
+                    addEvent(tangents[i]);
+                }
+                if (Common.Distance(point.x, point.y, lightSource.getX(), lightSource.getY()) > 0) {
+                    int numOfRoots = curve.calculateRoots(point.x, point.y, lightSource.getX(), lightSource.getY(), roots(curve.getMaxNumOfRoots()), 0);
+                    for(int j=0;j<numOfRoots;j++) {
+                        addEvent(roots[j]);
+                    }
+                }
+            }
+
+            // The points where the curve crosses the occluder
+            int numOfCrossings = occluder == curve ? intersections.selfIntersect(curve) : intersections.intersect(curve, occluder);
+            for(int i=0;i<numOfCrossings;i++) {
+                addEvent(intersections.get(i));
+            }
+            Arrays.sort(events, 0, numOfEvents);
+
+            // Events closer than MIN_LENGTH are one event, and the ones near the ends are the ends
+            int size = 1;
+            for(int i=1;i<numOfEvents;i++) {
+                if (events[i] - events[size - 1] >= MIN_LENGTH) {
+                    events[size++] = events[i];
+                }
+            }
+            events[size - 1] = 1;
+            numOfEvents = size;
+
+            for(int i=1;i+1<numOfEvents;i++) {
+                if (numOfAllEvents == allEvents.length) {
+                    allEvents = Arrays.copyOf(allEvents, 2 * numOfAllEvents);
+                }
+                allEvents[numOfAllEvents++] = events[i];
+            }
+        }
+
+        /**
+         * Tests the visibility between every two consecutive events and records the shadowed intervals
+         */
+        private void classify(BezierCurve curve, BezierCurve occluder, int index, ControlPoint lightSource) {
+            int firstInterval = numOfOccluded;
+            boolean extending = false;
+            for(int i=0;i+1<numOfEvents;i++) {
+                double a = events[i];
+                double b = events[i + 1];
+                if (blocks(curve, occluder, (a + b) / 2, lightSource)) {
+                    if (extending) {
+                        intervals[2 * numOfOccluded - 1] = b;
+                    } else {
+                        addInterval(a, b, index);
+                    }
+                    extending = true;
+                } else {
+                    extending = false;
+                }
+            }
+
+            // The ends of a curve are often touched by the occluder, as by the next segment of a
+            // composite curve, so their visibility is tested on its own
+            boolean startsShadowed = numOfOccluded > firstInterval && intervals[2 * firstInterval] == 0;
+            if (blocks(curve, occluder, 0, lightSource) != startsShadowed) {
+                if (startsShadowed) {
+                    intervals[2 * firstInterval] = Math.nextUp(0d);
+                } else {
+                    addInterval(0, 0, index);
+                }
+            }
+            if (blocks(curve, occluder, 1, lightSource) != extending) {
+                if (extending) {
+                    intervals[2 * numOfOccluded - 1] = Math.nextDown(1d);
+                } else {
+                    addInterval(1, 1, index);
+                }
+            }
+        }
+
+        private boolean blocks(BezierCurve curve, BezierCurve occluder, double t, ControlPoint lightSource) {
+            curve.calcPoint(t, point);
+            return Shadows.blocks(occluder, curve, t, point.x, point.y, lightSource, root);
+        }
+
+        private ShadowIntervals merge() {
+            // Sort the intervals of all the occluders by their start
+            Integer[] order = new Integer[numOfOccluded];
+            for(int i=0;i<numOfOccluded;i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (i, j) -> Double.compare(intervals[2 * i], intervals[2 * j]));
+
+            double[] occluded = new double[2 * numOfOccluded];
+            int[] indices = new int[numOfOccluded];
+            double[] merged = new double[2 * numOfOccluded];
+            int[] first = new int[numOfOccluded + 1];
+            int numOfMerged = 0;
+            for(int i=0;i<numOfOccluded;i++) {
+                double a = intervals[2 * order[i]];
+                double b = intervals[2 * order[i] + 1];
+                occluded[2 * i] = a;
+                occluded[2 * i + 1] = b;
+                indices[i] = occluders[order[i]];
+
+                if (numOfMerged > 0 && a <= merged[2 * numOfMerged - 1]) {
+                    merged[2 * numOfMerged - 1] = Math.max(merged[2 * numOfMerged - 1], b);
+                } else {
+                    first[numOfMerged] = i;
+                    merged[2 * numOfMerged] = a;
+                    merged[2 * numOfMerged + 1] = b;
+                    numOfMerged++;
+                }
+            }
+            first[numOfMerged] = numOfOccluded;
+
+            double[] sortedEvents = Arrays.copyOf(allEvents, numOfAllEvents);
+            Arrays.sort(sortedEvents);
+            return new ShadowIntervals(occluded, merged, indices, numOfMerged, first, sortedEvents);
+        }
+
+        private void addEvent(double t) {
+            if (numOfEvents == events.length) {
+                events = Arrays.copyOf(events, 2 * numOfEvents);
+            }
+            events[numOfEvents++] = Math.min(Math.max(t, 0), 1);
+        }
+
+        private void addInterval(double a, double b, int index) {
+            if (numOfOccluded == occluders.length) {
+                occluders = Arrays.copyOf(occluders, 2 * numOfOccluded);
+                intervals = Arrays.copyOf(intervals, 4 * numOfOccluded);
+            }
+            intervals[2 * numOfOccluded] = a;
+            intervals[2 * numOfOccluded + 1] = b;
+            occluders[numOfOccluded++] = index;
+        }
+
+        private double[] roots(int size) {
+            if (roots.length < size) {
+                roots = new double[size];
+            }
+            return roots;
+        }
+    }
+}
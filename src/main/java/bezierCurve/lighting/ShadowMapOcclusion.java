@@ -0,0 +1,289 @@
+package bezierCurve.lighting;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.bezier.SampleBuffer;
+import bezierCurve.points.ControlPoint;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Approximates the shadows with a one dimensional shadow map around the light source. The
+ * lines between consecutive samples of every curve are rasterized into angular bins, and every
+ * bin keeps the distance of the nearest line from the light source. A sample is in shadow if
+ * something in its bin is nearer to the light source than the sample itself, so a query costs
+ * one lookup instead of a root solve per curve. The result depends on the number of bins and
+ * the number of samples; compare reports how far it is from the exact shadows of a scene.
+ * @author 150001289
+ */
+public class ShadowMapOcclusion implements Occlusion {
+
+    public static int DEFAULT_NUM_OF_BINS = 4096;
+    public static final int MIN_NUM_OF_BINS = 4;
+
+    // Distance in pixels by which an occluder must be nearer than the sample
+    private static double BIAS = 1e-6;
+
+    private final int numOfBins;
+    private final double binWidth;
+
+    // Nearest line of every bin: its distance, its curve and the parameters of its samples
+    private final double[] depth;
+    private final int[] curve;
+    private final double[] fromT;
+    private final double[] toT;
+
+    private List<BezierCurve> bezierCurves;
+    private double lightX;
+    private double lightY;
+
+    public ShadowMapOcclusion() {
+        this(DEFAULT_NUM_OF_BINS);
+    }
+
+    /**
+     * @param numOfBins The number of angular bins around the light source
+     */
+    public ShadowMapOcclusion(int numOfBins) {
+        if (numOfBins < MIN_NUM_OF_BINS) {
+            throw new IllegalArgumentException("A shadow map needs at least " + MIN_NUM_OF_BINS + " bins: " + numOfBins);
+        }
+        this.numOfBins = numOfBins;
+        this.binWidth = 2 * Math.PI / numOfBins;
+        this.depth = new double[numOfBins];
+        this.curve = new int[numOfBins];
+        this.fromT = new double[numOfBins];
+        this.toT = new double[numOfBins];
+    }
+
+    /**
+     * Rasterizes the samples of all the curves into the shadow map
+     * @param bezierCurves The curves of the scene
+     * @param lightSource The light source
+     */
+    @Override
+    public void prepare(List<BezierCurve> bezierCurves, ControlPoint lightSource) {
+        this.bezierCurves = bezierCurves;
+        this.lightX = lightSource.getX();
+        this.lightY = lightSource.getY();
+
+        Arrays.fill(depth, Double.POSITIVE_INFINITY);
+        Arrays.fill(curve, NONE);
+        for(int i=0;i<bezierCurves.size();i++) {
+            SampleBuffer samples = bezierCurves.get(i).getSamples();
+            for(int s=0;s+1<samples.size();s++) {
+                rasterize(i, samples.getX(s), samples.getY(s), samples.getT(s),
+                        samples.getX(s + 1), samples.getY(s + 1), samples.getT(s + 1));
+            }
+        }
+    }
+
+    /**
+     * @return false, since a bin also covers the straight lines next to the one of a sample
+     */
+    @Override
+    public boolean isLocal() {
+        return false;
+    }
+
+    @Override
+    public Occlusion copy() {
+        return new ShadowMapOcclusion(numOfBins);
+    }
+
+    @Override
+    public int findOccluder(BezierCurve owner, double t, double x, double y) {
+        double dx = x - lightX;
+        double dy = y - lightY;
+        int bin = bin(Math.atan2(dy, dx));
+
+        int occluder = curve[bin];
+        if (occluder == NONE || depth[bin] >= Math.sqrt(dx * dx + dy * dy) - BIAS) {
+            return NONE;
+        }
+
+        // The line through the sample itself, or a neighbouring one, is not a shadow
+        if (bezierCurves.get(occluder) == owner) {
+            double span = toT[bin] - fromT[bin];
+            if (t >= fromT[bin] - span && t <= toT[bin] + span) {
+                return NONE;
+            }
+        }
+        return occluder;
+    }
+
+    public int getNumOfBins() {
+        return numOfBins;
+    }
+
+    /**
+     * Writes the line between two samples into the bins it covers
+     * @param index The index of the curve
+     */
+    private void rasterize(int index, double x0, double y0, double t0, double x1, double y1, double t1) {
+        double dx0 = x0 - lightX;
+        double dy0 = y0 - lightY;
+        double dx1 = x1 - lightX;
+        double dy1 = y1 - lightY;
+        double angle0 = Math.atan2(dy0, dx0);
+        double angle1 = Math.atan2(dy1, dx1);
+
+        // The end points always reach their own bins, even if the line is shorter than a bin
+        write(bin(angle0), index, Math.sqrt(dx0 * dx0 + dy0 * dy0), t0, t1);
+        write(bin(angle1), index, Math.sqrt(dx1 * dx1 + dy1 * dy1), t0, t1);
+
+        // Walk the shorter arc between the end points
+        double arc = angle1 - angle0;
+        if (arc > Math.PI) {
+            arc -= 2 * Math.PI;
+        } else if (arc < -Math.PI) {
+            arc += 2 * Math.PI;
+        }
+        double from = Math.min(angle0, angle0 + arc);
+        double to = Math.max(angle0, angle0 + arc);
+
+        double ex = x1 - x0;
+        double ey = y1 - y0;
+        for(long b=(long) Math.ceil((from + Math.PI) / binWidth - 0.5);b<=(long) Math.floor((to + Math.PI) / binWidth - 0.5);b++) {
+            // Intersect the ray through the center of the bin with the line
+            double angle = (b + 0.5) * binWidth - Math.PI;
+            double ux = Math.cos(angle);
+            double uy = Math.sin(angle);
+            double denominator = ux * ey - uy * ex;
+            if (denominator == 0) {
+                continue;
+            }
+            double distance = (dx0 * ey - dy0 * ex) / denominator;
+            if (distance > 0) {
+                write((int) Math.floorMod(b, (long) numOfBins), index, distance, t0, t1);
+            }
+        }
+    }
+
+    private void write(int bin, int index, double distance, double t0, double t1) {
+        if (distance < depth[bin]) {
+            depth[bin] = distance;
+            curve[bin] = index;
+            fromT[bin] = t0;
+            toT[bin] = t1;
+        }
+    }
+
+    private int bin(double angle) {
+        int bin = (int) ((angle + Math.PI) / binWidth);
+        return bin >= numOfBins ? numOfBins - 1 : bin;
+    }
+
+    /**
+     * Compares the shadows of the map with the exact shadows of a scene
+     * @param bezierCurves The curves of the scene, with their samples up to date
+     * @param lightSource The light source
+     * @param numOfBins The number of bins of the map
+     * @return the differences between the two
+     */
+    public static ErrorReport compare(List<BezierCurve> bezierCurves, ControlPoint lightSource, int numOfBins) {
+        bezierCurves.forEach(BezierCurve::updateCaches);
+        Occlusion exact = new ExactOcclusion();
+        Occlusion map = new ShadowMapOcclusion(numOfBins);
+
+        long start = System.nanoTime();
+        exact.prepare(bezierCurves, lightSource);
+        boolean[] shadowed = new boolean[bezierCurves.stream().mapToInt(curve -> curve.getSamples().size()).sum()];
+        int sample = 0;
+        for (BezierCurve curve : bezierCurves) {
+            SampleBuffer samples = curve.getSamples();
+            for(int s=0;s<samples.size();s++) {
+                shadowed[sample++] = exact.findOccluder(curve, samples.getT(s), samples.getX(s), samples.getY(s)) != NONE;
+            }
+        }
+        long exactNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        map.prepare(bezierCurves, lightSource);
+        int falseShadows = 0;
+        int missedShadows = 0;
+        sample = 0;
+        for (BezierCurve curve : bezierCurves) {
+            SampleBuffer samples = curve.getSamples();
+            for(int s=0;s<samples.size();s++) {
+                boolean mapShadowed = map.findOccluder(curve, samples.getT(s), samples.getX(s), samples.getY(s)) != NONE;
+                if (mapShadowed && !shadowed[sample]) {
+                    falseShadows++;
+                } else if (!mapShadowed && shadowed[sample]) {
+                    missedShadows++;
+                }
+                sample++;
+            }
+        }
+        long mapNanos = System.nanoTime() - start;
+
+        return new ErrorReport(numOfBins, shadowed.length, falseShadows, missedShadows, exactNanos, mapNanos);
+    }
+
+    /**
+     * Differences between the shadows of a shadow map and the exact shadows of a scene.
+     */
+    public static final class ErrorReport {
+
+        private final int numOfBins;
+        private final int numOfSamples;
+        private final int numOfFalseShadows;
+        private final int numOfMissedShadows;
+        private final long exactNanos;
+        private final long mapNanos;
+
+        private ErrorReport(int numOfBins, int numOfSamples, int numOfFalseShadows, int numOfMissedShadows,
+                            long exactNanos, long mapNanos) {
+            this.numOfBins = numOfBins;
+            this.numOfSamples = numOfSamples;
+            this.numOfFalseShadows = numOfFalseShadows;
+            this.numOfMissedShadows = numOfMissedShadows;
+            this.exactNanos = exactNanos;
+            this.mapNanos = mapNanos;
+        }
+
+        public int getNumOfBins() {
+            return numOfBins;
+        }
+
+        public int getNumOfSamples() {
+            return numOfSamples;
+        }
+
+        /**
+         * @return the number of samples in shadow in the map but lit in the exact shadows
+         */
+        public int getNumOfFalseShadows() {
+            return numOfFalseShadows;
+        }
+
+        /**
+         * @return the number of samples lit in the map but in shadow in the exact shadows
+         */
+        public int getNumOfMissedShadows() {
+            return numOfMissedShadows;
+        }
+
+        /**
+         * @return the fraction of samples whose shadow differs from the exact one
+         */
+        public double getErrorRate() {
+            return numOfSamples > 0 ? (double) (numOfFalseShadows + numOfMissedShadows) / numOfSamples : 0;
+        }
+
+        public long getExactNanos() {
+            return exactNanos;
+        }
+
+        public long getMapNanos() {
+            return mapNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d bins: %d of %d samples differ (%.2f%%: %d false, %d missed), exact %.2f ms, map %.2f ms",
+                    numOfBins, numOfFalseShadows + numOfMissedShadows, numOfSamples, 100 * getErrorRate(),
+                    numOfFalseShadows, numOfMissedShadows, exactNanos / 1e6, mapNanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package bezierCurve.lighting;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.points.ControlPoint;
+import bezierCurve.points.Vector2D;
+import bezierCurve.utils.Common;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exact shadow test between a sample and a single curve.
+ * @author 150001289
+ */
+public class Shadows {
+
+    // Roots of the owner this close to the sample in t are the sample itself, moved by the
+    // rounding errors of its coordinates. These grow as the line turns along the curve.
+    private static double OWNER_TOLERANCE = 1e-6;
+
+    private static final LongAdder solves = new LongAdder();
+    private static final LongAdder culledSolves = new LongAdder();
+    private static final ThreadLocal<double[]> roots = ThreadLocal.withInitial(() -> new double[0]);
+
+    private Shadows() {
+    }
+
+    /**
+     * @return the number of root solves run since the last reset
+     */
+    public static long getNumOfSolves() {
+        return solves.sum();
+    }
+
+    /**
+     * @return the number of root solves skipped by the control polygon test since the last reset
+     */
+    public static long getNumOfCulledSolves() {
+        return culledSolves.sum();
+    }
+
+    public static void resetCounters() {
+        solves.reset();
+        culledSolves.reset();
+    }
+
+    /**
+     * @param size The number of roots needed
+     * @return the root buffer of the current thread, grown if needed
+     */
+    private static double[] roots(int size) {
+        double[] buffer = roots.get();
+        if (buffer.length < size) {
+            buffer = new double[size];
+            roots.set(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Checks if a curve intersects the straight line between a sample and the light source.
+     * Curves whose control polygon is away from the line are rejected without solving for the roots.
+     * @param curve The possible occluder
+     * @param owner The curve the sample belongs to
+     * @param t The parameter of the sample on its curve
+     * @param x
+     * @param y
+     * @param lightSource
+     * @param root Scratch vector for the intersection point
+     * @return True/false if the curve casts a shadow on the sample
+     */
+    public static boolean blocks(BezierCurve curve, BezierCurve owner, double t, double x, double y,
+                                 ControlPoint lightSource, Vector2D root) {
+
+        if (curve.isSeparatedFrom(x, y, lightSource.getX(), lightSource.getY())) {
+            culledSolves.increment();
+            return false;
+        }
+        solves.increment();
+
+        // Get the roots in [0, 1]
+        double[] roots = roots(curve.getMaxNumOfRoots());
+        int numOfRoots = curve.calculateRoots(x, y, lightSource.getX(), lightSource.getY(), roots, 0);
+
+        for(int j=0;j<numOfRoots;j++) {
+            double rootT = roots[j];
+
+            if (!curve.equals(owner) || Math.abs(rootT - t) >= OWNER_TOLERANCE) {
+
+                curve.calcPoint(rootT, root);
+                double pointToLightSource = Common.Distance(x, y, lightSource.getX(), lightSource.getY());
+                double pointToRootToLightSource = Common.Distance(x, y, root.x, root.y)
+                        + Common.Distance(root.x, root.y, lightSource.getX(), lightSource.getY());
+
+                // Check if another sample intersects between the current sample and the light source.
+                if (Common.Equal(pointToLightSource, pointToRootToLightSource)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,42 @@
+package bezierCurve.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts events from any number of threads.
+ * @author 150001289
+ */
+public final class Counter {
+
+    private final String name;
+    private final LongAdder count;
+
+    Counter(String name) {
+        this.name = name;
+        this.count = new LongAdder();
+    }
+
+    public void increment() {
+        if (Metrics.ENABLED) {
+            count.increment();
+        }
+    }
+
+    public void add(long n) {
+        if (Metrics.ENABLED) {
+            count.add(n);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long get() {
+        return count.sum();
+    }
+
+    void reset() {
+        count.reset();
+    }
+}
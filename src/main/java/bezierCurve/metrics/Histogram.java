@@ -0,0 +1,104 @@
+package bezierCurve.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of non negative values in power of two buckets. Recording is lock free and
+ * percentiles are accurate to within a factor of two.
+ * @author 150001289
+ */
+public final class Histogram {
+
+    // Bucket 0 holds 0 and bucket i holds [2^(i-1), 2^i)
+    private static int NUM_OF_BUCKETS = 64;
+
+    private final String name;
+    private final AtomicLongArray buckets;
+    private final LongAdder count;
+    private final LongAdder total;
+    private final AtomicLong max;
+
+    Histogram(String name) {
+        this.name = name;
+        this.buckets = new AtomicLongArray(NUM_OF_BUCKETS);
+        this.count = new LongAdder();
+        this.total = new LongAdder();
+        this.max = new AtomicLong();
+    }
+
+    /**
+     * @param value The value to record, negative values count as 0
+     */
+    public void record(long value) {
+        if (!Metrics.ENABLED) {
+            return;
+        }
+        value = Math.max(0, value);
+        buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(value));
+        count.increment();
+        total.add(value);
+
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotal() {
+        return total.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long count = getCount();
+        return count > 0 ? (double) getTotal() / count : 0;
+    }
+
+    /**
+     * @param percentile The percentile, from 0 to 100
+     * @return the upper bound of the bucket that holds the percentile, or 0 without values
+     */
+    public long getPercentile(double percentile) {
+        long[] counts = new long[NUM_OF_BUCKETS];
+        long count = 0;
+        for(int i=0;i<NUM_OF_BUCKETS;i++) {
+            counts[i] = buckets.get(i);
+            count += counts[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(percentile / 100 * count);
+        long seen = 0;
+        for(int i=0;i<NUM_OF_BUCKETS;i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) {
+                return Math.min(getMax(), i == 0 ? 0 : (1L << i) - 1);
+            }
+        }
+        return getMax();
+    }
+
+    void reset() {
+        for(int i=0;i<NUM_OF_BUCKETS;i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        total.reset();
+        max.set(0);
+    }
+}
@@ -0,0 +1,155 @@
+package bezierCurve.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Registry of the timers and counters of the hot paths. Recording costs a few nanoseconds per
+ * call, and nothing at all when the application is started with -Dbezier.metrics=false.
+ * @author 150001289
+ */
+public final class Metrics {
+
+    public static final boolean ENABLED = !"false".equals(System.getProperty("bezier.metrics"));
+
+    // Records the spans as JFR events, or null if the JVM or the build has no JFR
+    static final Spans SPANS = loadSpans();
+
+    private static final Map<String, Timer> TIMERS = new LinkedHashMap<>();
+    private static final Map<String, Counter> COUNTERS = new LinkedHashMap<>();
+
+    /**
+     * Curve.update, or its background equivalent
+     */
+    public static final Timer UPDATE = timer("update");
+
+    public static final Timer PAINT = timer("paint");
+
+    /**
+     * BezierCurve.updatePoints
+     */
+    public static final Timer UPDATE_POINTS = timer("updatePoints");
+
+    /**
+     * LightSource.updateColors
+     */
+    public static final Timer UPDATE_COLORS = timer("updateColors");
+
+    /**
+     * The samples placed by updatePoints
+     */
+    public static final Counter SAMPLES = counter("samples");
+
+    /**
+     * The straight lines intersected with a curve by BezierCurve.calculateRoots
+     */
+    public static final Counter ROOT_SOLVES = counter("rootSolves");
+
+    private static final String OBJECT_NAME = "bezierCurve:type=Metrics";
+
+    private Metrics() {
+    }
+
+    private static Timer timer(String name) {
+        Timer timer = new Timer(name);
+        TIMERS.put(name, timer);
+        return timer;
+    }
+
+    private static Counter counter(String name) {
+        Counter counter = new Counter(name);
+        COUNTERS.put(name, counter);
+        return counter;
+    }
+
+    public static Collection<Timer> getTimers() {
+        return Collections.unmodifiableCollection(TIMERS.values());
+    }
+
+    public static Collection<Counter> getCounters() {
+        return Collections.unmodifiableCollection(COUNTERS.values());
+    }
+
+    public static void reset() {
+        TIMERS.values().forEach(Timer::reset);
+        COUNTERS.values().forEach(Counter::reset);
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, once
+     * @return true if the metrics are registered
+     */
+    public static synchronized boolean registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new MBean(), name);
+            }
+            return true;
+        } catch (JMException | SecurityException e) {
+            return false;
+        }
+    }
+
+    private static Spans loadSpans() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return (Spans) Class.forName("bezierCurve.metrics.JfrSpans").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static class MBean implements MetricsMXBean {
+
+        private static double NANOS_PER_MILLI = 1e6;
+
+        @Override
+        public Map<String, Long> getCounters() {
+            Map<String, Long> counters = new LinkedHashMap<>();
+            COUNTERS.values().forEach(counter -> counters.put(counter.getName(), counter.get()));
+            return counters;
+        }
+
+        @Override
+        public Map<String, Long> getTimerCounts() {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            TIMERS.values().forEach(timer -> counts.put(timer.getName(), timer.getHistogram().getCount()));
+            return counts;
+        }
+
+        @Override
+        public Map<String, Double> getMeanMillis() {
+            return millis(Histogram::getMean);
+        }
+
+        @Override
+        public Map<String, Double> getP99Millis() {
+            return millis(histogram -> histogram.getPercentile(99));
+        }
+
+        @Override
+        public Map<String, Double> getMaxMillis() {
+            return millis(Histogram::getMax);
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+
+        private Map<String, Double> millis(ToDoubleFunction<Histogram> nanos) {
+            Map<String, Double> millis = new LinkedHashMap<>();
+            TIMERS.values().forEach(timer -> millis.put(timer.getName(), nanos.applyAsDouble(timer.getHistogram()) / NANOS_PER_MILLI));
+            return millis;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package bezierCurve.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of the metrics, registered as bezierCurve:type=Metrics. Durations are in milliseconds.
+ * @author 150001289
+ */
+public interface MetricsMXBean {
+
+    Map<String, Long> getCounters();
+
+    /**
+     * @return the number of times every timer was stopped
+     */
+    Map<String, Long> getTimerCounts();
+
+    Map<String, Double> getMeanMillis();
+
+    Map<String, Double> getP99Millis();
+
+    Map<String, Double> getMaxMillis();
+
+    /**
+     * Sets all the counters and timers back to zero
+     */
+    void reset();
+}
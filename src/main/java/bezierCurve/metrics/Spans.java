@@ -0,0 +1,20 @@
+package bezierCurve.metrics;
+
+/**
+ * Records timed spans as events of the JVM. The implementation, JfrSpans, is only compiled when
+ * the JDK has JFR, and only loaded when the running JVM has it.
+ * @author 150001289
+ */
+interface Spans {
+
+    /**
+     * @param name The name of the span
+     * @return the started event, or null if nothing records it
+     */
+    Object begin(String name);
+
+    /**
+     * @param event The event returned by begin
+     */
+    void end(Object event);
+}
@@ -0,0 +1,77 @@
+package bezierCurve.metrics;
+
+/**
+ * Measures the duration of a span of code:
+ * <pre>
+ * long start = timer.start();
+ * try {
+ *     ...
+ * } finally {
+ *     timer.stop(start);
+ * }
+ * </pre>
+ * Durations go to a histogram in nanoseconds, and to a JFR event while a recording is running.
+ * @author 150001289
+ */
+public final class Timer {
+
+    private final String name;
+    private final Histogram histogram;
+
+    // The open JFR event of every thread, only used when JFR is available
+    private final ThreadLocal<Object> event;
+
+    Timer(String name) {
+        this.name = name;
+        this.histogram = new Histogram(name);
+        this.event = Metrics.SPANS != null ? new ThreadLocal<>() : null;
+    }
+
+    /**
+     * @return the start of the span, to pass to stop
+     */
+    public long start() {
+        if (!Metrics.ENABLED) {
+            return 0;
+        }
+        if (event != null) {
+            Object span = Metrics.SPANS.begin(name);
+            if (span != null) {
+                event.set(span);
+            }
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * @param start The value returned by start
+     */
+    public void stop(long start) {
+        if (!Metrics.ENABLED) {
+            return;
+        }
+        histogram.record(System.nanoTime() - start);
+        if (event != null) {
+            Object span = event.get();
+            if (span != null) {
+                Metrics.SPANS.end(span);
+                event.remove();
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the durations in nanoseconds
+     */
+    public Histogram getHistogram() {
+        return histogram;
+    }
+
+    void reset() {
+        histogram.reset();
+    }
+}
@@ -2,7 +2,7 @@ package bezierCurve.points;
 
 import java.awt.*;
 
-public class ControlPoint extends MyPoint<Integer> {
+public class ControlPoint extends IntPoint {
 
     private static int DEFAULT_WIDTH = 20;
     private static int DEFAULT_HEIGHT = 20;
@@ -24,7 +24,7 @@ public class ControlPoint extends MyPoint<Integer> {
     }
 
     public ControlPoint(Point point, Color color) {
-        this((int) point.getX(), (int)point.getY(), color);
+        this(point.x, point.y, color);
     }
 
     public ControlPoint(int x, int y) {
@@ -41,7 +41,7 @@ public class ControlPoint extends MyPoint<Integer> {
      * @return True/false if the circle overlaps with the given point
      */
     public boolean overlap(Point p) {
-        return startX() <= p.getX() && stopX() >= p.getX() && startY() <= p.getY() && stopY() >= p.getY();
+        return startX() <= p.x && stopX() >= p.x && startY() <= p.y && stopY() >= p.y;
     }
 
     /**
@@ -101,8 +101,7 @@ public class ControlPoint extends MyPoint<Integer> {
      */
     public void drag(Point point) {
         if (isSelected()) {
-            this.setX((int) (this.getX() + dragging * (point.getX() - selectPoint.getX())));
-            this.setY((int) (this.getY() + dragging * (point.getY() - selectPoint.getY())));
+            setLocation(getX() + dragging * (point.x - selectPoint.x), getY() + dragging * (point.y - selectPoint.y));
             selectPoint = point;
         }
     }
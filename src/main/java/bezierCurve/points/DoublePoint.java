@@ -0,0 +1,46 @@
+package bezierCurve.points;
+
+import java.awt.*;
+
+/**
+ * Point with double precision coordinates.
+ * @author 150001289
+ */
+public abstract class DoublePoint extends MyPoint {
+
+    private double x;
+    private double y;
+
+    public DoublePoint(double x, double y, Color color, int width, int height) {
+        super(color, width, height);
+
+        this.x = x;
+        this.y = y;
+    }
+
+    @Override
+    protected int intX() {
+        return (int) x;
+    }
+
+    @Override
+    protected int intY() {
+        return (int) y;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public void setX(double x) {
+        this.x = x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public void setY(double y) {
+        this.y = y;
+    }
+}
@@ -0,0 +1,67 @@
+package bezierCurve.points;
+
+import java.awt.*;
+
+/**
+ * Point with integer coordinates.
+ * @author 150001289
+ */
+public abstract class IntPoint extends MyPoint {
+
+    private int x;
+    private int y;
+    private int modCount;
+
+    public IntPoint(int x, int y, Color color, int width, int height) {
+        super(color, width, height);
+
+        this.x = x;
+        this.y = y;
+    }
+
+    @Override
+    protected int intX() {
+        return x;
+    }
+
+    @Override
+    protected int intY() {
+        return y;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public void setX(int x) {
+        setLocation(x, y);
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public void setY(int y) {
+        setLocation(x, y);
+    }
+
+    /**
+     * Moves the point to the given coordinates
+     * @param x
+     * @param y
+     */
+    public void setLocation(int x, int y) {
+        if (this.x != x || this.y != y) {
+            this.x = x;
+            this.y = y;
+            modCount++;
+        }
+    }
+
+    /**
+     * @return the number of times the point has been moved
+     */
+    public int getModCount() {
+        return modCount;
+    }
+}
@@ -1,18 +1,67 @@
 package bezierCurve.points;
 
 import bezierCurve.bezier.BezierCurve;
-import bezierCurve.utils.Common;
+import bezierCurve.lighting.GridOcclusion;
+import bezierCurve.lighting.Occlusion;
+import bezierCurve.lighting.Shading;
+import bezierCurve.metrics.Metrics;
 
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 public class LightSource extends ControlPoint {
 
     private static Color DEFAULT_COLOR = Color.YELLOW;
 
+    private Occlusion occlusion;
+    private ForkJoinPool pool;
+    private int parallelThreshold;
+
     public LightSource(Point point) {
         super(point, DEFAULT_COLOR);
+
+        this.occlusion = new GridOcclusion();
+        this.pool = ForkJoinPool.commonPool();
+        this.parallelThreshold = Shading.DEFAULT_PARALLEL_THRESHOLD;
+    }
+
+    public Occlusion getOcclusion() {
+        return occlusion;
+    }
+
+    /**
+     * Sets the way shadows are found
+     * @param occlusion
+     */
+    public void setOcclusion(Occlusion occlusion) {
+        this.occlusion = occlusion;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Sets the pool of the parallel lighting pass
+     * @param pool The pool, or null to always update the colors serially
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Sets the amount of work, counted as samples times curves, from which the colors are
+     * updated in parallel
+     * @param parallelThreshold
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
     }
 
     /**
@@ -28,48 +77,11 @@ public class LightSource extends ControlPoint {
      * @param bezierCurves
      */
     public void updateColors(List<BezierCurve> bezierCurves) {
-
-        bezierCurves.forEach(bezierCurve -> {
-            List<LinePoint> bezierPoints = bezierCurve.getBezierPoints();
-            bezierPoints.forEach(bezierPoint -> {
-
-                int i = 0;
-                boolean intersect = false;
-                while (!intersect && i < bezierCurves.size()) {
-                    BezierCurve curve = bezierCurves.get(i);
-
-                    // Get the roots
-                    List<Double> roots = curve.calculateRoots(bezierPoint, this);
-
-                    int j = 0;
-                    while (!intersect && j < roots.size()) {
-                        Double rootT = roots.get(j);
-
-                        // rootT >= 0 and rootT <= 1
-                        if ((rootT > 0 || Common.Equal(rootT, 0)) && (rootT < 1 || Common.Equal(rootT, 1))) {
-                            if (!curve.equals(bezierCurve) || !Common.Equal(rootT, bezierPoint.getT())) {
-
-                                LinePoint root = curve.calcPoint(rootT);
-                                double pointToLightSource = bezierPoint.distanceTo(this);
-                                double pointToRootToLightSource = bezierPoint.distanceTo(root) + root.distanceTo(this);
-
-                                // Check if another sample intersects between the current sample and the light source.
-                                if (Common.Equal(pointToLightSource, pointToRootToLightSource)) {
-                                    bezierPoint.setColor(Color.BLACK);
-                                    intersect = true;
-                                }
-                            }
-                        }
-                        j++;
-                    }
-
-                    i++;
-                }
-
-                if (!intersect) {
-                    bezierPoint.setColor(bezierCurve.calcColor(bezierPoint, this));
-                }
-            });
-        });
+        long start = Metrics.UPDATE_COLORS.start();
+        try {
+            Shading.shade(bezierCurves, this, occlusion, pool, parallelThreshold);
+        } finally {
+            Metrics.UPDATE_COLORS.stop(start);
+        }
     }
 }
@@ -2,7 +2,7 @@ package bezierCurve.points;
 
 import java.awt.*;
 
-public class LinePoint extends MyPoint<Double> {
+public class LinePoint extends DoublePoint {
 
     private static int DEFAULT_WIDTH = 10;
     private static int DEFAULT_HEIGHT = 10;
@@ -10,11 +10,11 @@ public class LinePoint extends MyPoint<Double> {
 
     private double t;
 
-    public LinePoint(double t, Double x, Double y) {
+    public LinePoint(double t, double x, double y) {
         this(t, x, y, DEFAULT_COLOR);
     }
 
-    public LinePoint(double t, Double x, Double y, Color color) {
+    public LinePoint(double t, double x, double y, Color color) {
         super(x, y, color, DEFAULT_WIDTH, DEFAULT_HEIGHT);
 
         this.t = t;
@@ -29,7 +29,7 @@ public class LinePoint extends MyPoint<Double> {
     }
 
     public LinePoint unit() {
-        double magnitude = Math.sqrt(Math.pow(getX(), 2) + Math.pow(getY(), 2));
+        double magnitude = Math.sqrt(getX() * getX() + getY() * getY());
         return new LinePoint(t, getX() / magnitude, getY() / magnitude);
     }
 
@@ -37,8 +37,18 @@ public class LinePoint extends MyPoint<Double> {
         return new LinePoint(t, getX() - point.getX(), getY() - point.getY());
     }
 
-    public double distanceTo(MyPoint point) {
-        return Math.sqrt(Math.pow(getX() - point.getX().doubleValue(), 2) + Math.pow(getY() - point.getY().doubleValue(), 2));
+    public double distanceTo(double x, double y) {
+        double dx = getX() - x;
+        double dy = getY() - y;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    public double distanceTo(LinePoint point) {
+        return distanceTo(point.getX(), point.getY());
+    }
+
+    public double distanceTo(ControlPoint point) {
+        return distanceTo(point.getX(), point.getY());
     }
 
     public double getT() {
@@ -2,17 +2,17 @@ package bezierCurve.points;
 
 import java.awt.*;
 
-public abstract class MyPoint<T extends Number> {
+/**
+ * Point drawn on the panel as a filled circle. Subclasses store the coordinates in primitive fields.
+ * @author 150001289
+ */
+public abstract class MyPoint {
 
-    private T x;
-    private T y;
     private int width;
     private int height;
     private Color color;
 
-    public MyPoint(T x, T y, Color color, int width,int height) {
-        this.x = x;
-        this.y = y;
+    public MyPoint(Color color, int width,int height) {
         this.color = color;
         this.width = width;
         this.height = height;
@@ -23,17 +23,27 @@ public abstract class MyPoint<T extends Number> {
         g.fillOval(startX(), startY(), width, height);
     }
 
+    /**
+     * @return the x coordinate rounded towards zero
+     */
+    protected abstract int intX();
+
+    /**
+     * @return the y coordinate rounded towards zero
+     */
+    protected abstract int intY();
+
     public int startX() {
-        return x.intValue() - width / 2;
+        return intX() - width / 2;
     }
     public int stopX() {
-        return x.intValue() + width / 2;
+        return intX() + width / 2;
     }
     public int startY() {
-        return y.intValue() - height / 2;
+        return intY() - height / 2;
     }
     public int stopY() {
-        return y.intValue() + height / 2;
+        return intY() + height / 2;
     }
 
     public int getWidth() {
@@ -52,22 +62,6 @@ public abstract class MyPoint<T extends Number> {
         this.height = height;
     }
 
-    public T getX() {
-        return x;
-    }
-
-    public void setX(T x) {
-        this.x = x;
-    }
-
-    public T getY() {
-        return y;
-    }
-
-    public void setY(T y) {
-        this.y = y;
-    }
-
     public Color getColor() {
         return color;
     }
@@ -0,0 +1,63 @@
+package bezierCurve.points;
+
+/**
+ * Mutable two dimensional vector. The operations store their result in the vector they are
+ * called on, so callers can keep one instance around and avoid allocating on hot paths.
+ * @author 150001289
+ */
+public class Vector2D {
+
+    public double x;
+    public double y;
+
+    public Vector2D() {
+    }
+
+    public Vector2D(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public Vector2D set(double x, double y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
+    /**
+     * Stores the vector that goes from (toX, toY) to (fromX, fromY)
+     * @param fromX
+     * @param fromY
+     * @param toX
+     * @param toY
+     * @return this vector
+     */
+    public Vector2D difference(double fromX, double fromY, double toX, double toY) {
+        return set(fromX - toX, fromY - toY);
+    }
+
+    /**
+     * Rotates the vector by 90 degrees
+     * @return this vector
+     */
+    public Vector2D perpendicular() {
+        return set(-y, x);
+    }
+
+    /**
+     * Scales the vector to unit length
+     * @return this vector
+     */
+    public Vector2D unit() {
+        double magnitude = length();
+        return set(x / magnitude, y / magnitude);
+    }
+
+    public double dot(Vector2D vector) {
+        return x * vector.x + y * vector.y;
+    }
+
+    public double length() {
+        return Math.sqrt(x * x + y * y);
+    }
+}
@@ -11,4 +11,18 @@ public class Common {
     public static boolean Equal(double d1, double d2) {
         return Math.abs(d1 - d2) <= 1e-9;
     }
+
+    /**
+     * Calculates the euclidean distance between two points.
+     * @param x1
+     * @param y1
+     * @param x2
+     * @param y2
+     * @return the distance
+     */
+    public static double Distance(double x1, double y1, double x2, double y2) {
+        double dx = x1 - x2;
+        double dy = y1 - y2;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
 }
@@ -0,0 +1,30 @@
+package bezierCurve.metrics;
+
+/**
+ * Opens and commits span events. Only loaded once Metrics has checked that the JVM has JFR, so
+ * that the application still runs on JVMs without it.
+ * @author 150001289
+ */
+final class JfrSpans implements Spans {
+
+    // Tells whether the event is enabled in any running recording
+    private static final SpanEvent PROBE = new SpanEvent();
+
+    @Override
+    public Object begin(String name) {
+        if (!PROBE.isEnabled()) {
+            return null;
+        }
+        SpanEvent event = new SpanEvent();
+        event.span = name;
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void end(Object event) {
+        if (event != null) {
+            ((SpanEvent) event).commit();
+        }
+    }
+}
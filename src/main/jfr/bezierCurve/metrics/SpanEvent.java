@@ -0,0 +1,23 @@
+package bezierCurve.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event of a timed span, so that the spans can be lined up with GC pauses in a recording.
+ * @author 150001289
+ */
+@Name("bezierCurve.Span")
+@Label("Bezier Curve Span")
+@Description("A timed span of the bezier curve application")
+@Category("Bezier Curve")
+@StackTrace(false)
+final class SpanEvent extends Event {
+
+    @Label("Span")
+    String span;
+}
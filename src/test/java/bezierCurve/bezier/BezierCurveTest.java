@@ -2,12 +2,16 @@ package bezierCurve.bezier;
 
 import bezierCurve.points.ControlPoint;
 import bezierCurve.points.LinePoint;
+import bezierCurve.points.Vector2D;
+import bezierCurve.utils.Common;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.awt.*;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 
@@ -39,5 +43,396 @@ public class BezierCurveTest {
         roots.forEach(root -> assertEquals(0, root.doubleValue(), 1e-9));
     }
 
+    @Test
+    public void evaluatorsAgree() {
+        for (int degree = 2; degree <= 3; degree++) {
+            BezierCurve bernstein = degree == 2 ? new QuadraticBezierCurve() : new CubicBezierCurve();
+            BezierCurve horner = degree == 2 ? new QuadraticBezierCurve() : new CubicBezierCurve();
+            BezierCurve differences = degree == 2 ? new QuadraticBezierCurve() : new CubicBezierCurve();
+            for (int i = 0; i <= degree; i++) {
+                Point p = new Point(100 + 317 * i % 500, 50 + 211 * i * i % 400);
+                bernstein.addControlPoint(p);
+                horner.addControlPoint(p);
+                differences.addControlPoint(p);
+            }
+
+            bernstein.setEvaluator(Evaluator.BERNSTEIN);
+            horner.setEvaluator(Evaluator.HORNER);
+            differences.setEvaluator(Evaluator.FORWARD_DIFFERENCES);
+
+            int numOfSamples = 5000;
+            bernstein.updatePoints(numOfSamples);
+            horner.updatePoints(numOfSamples);
+            differences.updatePoints(numOfSamples);
+
+            SampleBuffer expected = bernstein.getSamples();
+            SampleBuffer actual = differences.getSamples();
+            assertEquals(numOfSamples, expected.size());
+            assertEquals(numOfSamples, horner.getSamples().size());
+            assertEquals(numOfSamples, actual.size());
+            for (int i = 0; i < numOfSamples; i++) {
+                assertEquals(expected.getT(i), actual.getT(i), 1e-12);
+                assertEquals(expected.getX(i), actual.getX(i), 1e-6);
+                assertEquals(expected.getY(i), actual.getY(i), 1e-6);
+                assertEquals(expected.getX(i), horner.getSamples().getX(i), 1e-9);
+                assertEquals(expected.getY(i), horner.getSamples().getY(i), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void sampleBufferIsReused() {
+        BezierCurve bezierCurve = new CubicBezierCurve();
+        bezierCurve.addControlPoint(new Point(0, 0));
+        bezierCurve.addControlPoint(new Point(100, 200));
+        bezierCurve.addControlPoint(new Point(300, 200));
+        bezierCurve.addControlPoint(new Point(400, 0));
+
+        bezierCurve.updatePoints(100);
+        SampleBuffer samples = bezierCurve.getSamples();
+        assertEquals(100, samples.size());
+        assertEquals(100, samples.capacity());
+
+        bezierCurve.updatePoints(50);
+        assertSame(samples, bezierCurve.getSamples());
+        assertEquals(50, samples.size());
+        assertEquals(100, samples.capacity());
+        assertEquals(400, samples.getX(49), 1e-9);
+    }
+
+    @Test
+    public void tangentsPassThroughPoint() {
+        BezierCurve bezierCurve = new QuadraticBezierCurve();
+        bezierCurve.addControlPoint(new Point(0, 0));
+        bezierCurve.addControlPoint(new Point(100, 100));
+        bezierCurve.addControlPoint(new Point(200, 0));
+        double[] roots = new double[bezierCurve.getMaxNumOfTangents()];
+
+        // The tangents at the ends meet at the middle control point
+        assertEquals(2, bezierCurve.calculateTangents(100, 100, roots, 0));
+        assertEquals(0, roots[0], 1e-9);
+        assertEquals(1, roots[1], 1e-9);
+
+        // No tangent reaches a point under the arch
+        assertEquals(0, bezierCurve.calculateTangents(100, 20, roots, 0));
+    }
+
+    @Test
+    public void separatedCurvesHaveNoRoots() {
+        Random random = new Random(3);
+        int numOfSeparated = 0;
+        for (int i = 0; i < 2000; i++) {
+            BezierCurve bezierCurve = random.nextBoolean() ? new CubicBezierCurve() : new QuadraticBezierCurve();
+            for (int j = 0; j < bezierCurve.getNumOfControlPoints(); j++) {
+                bezierCurve.addControlPoint(new Point(random.nextInt(500), random.nextInt(500)));
+            }
+
+            LinePoint from = new LinePoint(0, random.nextInt(500), random.nextInt(500));
+            ControlPoint to = new ControlPoint(random.nextInt(500), random.nextInt(500));
+            if (bezierCurve.isSeparatedFrom(from.getX(), from.getY(), to.getX(), to.getY())) {
+                numOfSeparated++;
+                for (double root : bezierCurve.calculateRoots(from, to)) {
+                    if (root >= 0 && root <= 1) {
+                        LinePoint point = bezierCurve.calcPoint(root);
+                        assertNotEquals(from.distanceTo(to), from.distanceTo(point) + point.distanceTo(to), 1e-9);
+                    }
+                }
+            }
+        }
+        assertTrue(numOfSeparated > 0);
+    }
+
+    @Test
+    public void adaptiveSamplingMeetsTolerance() {
+        BezierCurve straight = new CubicBezierCurve();
+        straight.addControlPoint(new Point(0, 0));
+        straight.addControlPoint(new Point(100, 100));
+        straight.addControlPoint(new Point(200, 200));
+        straight.addControlPoint(new Point(300, 300));
+        straight.updatePoints(Sampling.adaptive(0.5, 1000));
+        assertEquals(2, straight.getSamples().size());
+
+        BezierCurve bent = new CubicBezierCurve();
+        bent.addControlPoint(new Point(0, 0));
+        bent.addControlPoint(new Point(400, 0));
+        bent.addControlPoint(new Point(0, 400));
+        bent.addControlPoint(new Point(400, 400));
+
+        double tolerance = 0.5;
+        bent.updatePoints(Sampling.adaptive(tolerance, 1000));
+        SampleBuffer samples = bent.getSamples();
+        assertTrue(samples.size() > 2 && samples.size() < 1000);
+        assertEquals(0, samples.getT(0), 0);
+        assertEquals(1, samples.getT(samples.size() - 1), 0);
+        for (int i = 0; i + 1 < samples.size(); i++) {
+            assertTrue(samples.getT(i) < samples.getT(i + 1));
+
+            double dx = samples.getX(i + 1) - samples.getX(i);
+            double dy = samples.getY(i + 1) - samples.getY(i);
+            for (int k = 1; k < 10; k++) {
+                LinePoint point = bent.calcPoint(samples.getT(i) + k * (samples.getT(i + 1) - samples.getT(i)) / 10);
+                double distance = Math.abs(dx * (samples.getY(i) - point.getY()) - dy * (samples.getX(i) - point.getX())) / Math.sqrt(dx * dx + dy * dy);
+                assertTrue(distance <= tolerance);
+            }
+        }
+
+        // The budget caps the number of samples
+        bent.updatePoints(Sampling.adaptive(0.001, 16));
+        assertEquals(16, bent.getSamples().size());
+        assertFalse(bent.isDirty(Sampling.adaptive(0.001, 16)));
+        assertTrue(bent.isDirty(Sampling.uniform(16)));
+    }
+
+    @Test
+    public void arcLengthSamplingIsEvenlySpaced() {
+        BezierCurve bezierCurve = new CubicBezierCurve();
+        bezierCurve.addControlPoint(new Point(0, 0));
+        bezierCurve.addControlPoint(new Point(50, 400));
+        bezierCurve.addControlPoint(new Point(350, -200));
+        bezierCurve.addControlPoint(new Point(400, 300));
+
+        // Reference length from a dense polyline
+        double length = 0;
+        LinePoint previous = bezierCurve.calcPoint(0);
+        for (int i = 1; i <= 100000; i++) {
+            LinePoint point = bezierCurve.calcPoint(i / 100000d);
+            length += previous.distanceTo(point);
+            previous = point;
+        }
+        assertEquals(length, bezierCurve.getArcLengthTable().length(), 1e-3);
+
+        int numOfSamples = 50;
+        bezierCurve.updatePoints(Sampling.arcLength(numOfSamples));
+        SampleBuffer samples = bezierCurve.getSamples();
+        assertEquals(numOfSamples, samples.size());
+        double spacing = length / (numOfSamples - 1);
+        for (int i = 0; i + 1 < samples.size(); i++) {
+            double s = 0;
+            LinePoint from = bezierCurve.calcPoint(samples.getT(i));
+            for (int k = 1; k <= 1000; k++) {
+                LinePoint to = bezierCurve.calcPoint(samples.getT(i) + k * (samples.getT(i + 1) - samples.getT(i)) / 1000);
+                s += from.distanceTo(to);
+                from = to;
+            }
+            assertEquals(spacing, s, 1e-2);
+        }
+
+        // The table follows the control points
+        ArcLengthTable table = bezierCurve.getArcLengthTable();
+        assertSame(table, bezierCurve.getArcLengthTable());
+        bezierCurve.getControlPoints().get(3).setLocation(800, 300);
+        assertNotSame(table, bezierCurve.getArcLengthTable());
+    }
 
-}
\ No newline at end of file
+    @Test
+    public void generalCurveMatchesCubic() {
+        BezierCurve cubic = new CubicBezierCurve();
+        BezierCurve general = new GeneralBezierCurve(4);
+        for (Point p : new Point[]{new Point(0, 0), new Point(50, 400), new Point(350, -200), new Point(400, 300)}) {
+            cubic.addControlPoint(p);
+            general.addControlPoint(p);
+        }
+
+        int numOfSamples = 1000;
+        cubic.setEvaluator(Evaluator.BERNSTEIN);
+        cubic.updatePoints(numOfSamples);
+        general.updatePoints(numOfSamples);
+        for (int i = 0; i < numOfSamples; i++) {
+            assertEquals(cubic.getSamples().getT(i), general.getSamples().getT(i), 1e-12);
+            assertEquals(cubic.getSamples().getX(i), general.getSamples().getX(i), 1e-9);
+            assertEquals(cubic.getSamples().getY(i), general.getSamples().getY(i), 1e-9);
+        }
+
+        Vector2D expected = new Vector2D();
+        Vector2D actual = new Vector2D();
+        for (int i = 0; i <= 10; i++) {
+            cubic.firstDerivative(i / 10d, expected);
+            general.firstDerivative(i / 10d, actual);
+            assertEquals(expected.x, actual.x, 1e-9);
+            assertEquals(expected.y, actual.y, 1e-9);
+        }
+
+        // The straight line crosses the curve three times
+        ControlPoint light = new ControlPoint(400, 100);
+        List<Double> expectedRoots = inUnitInterval(cubic.calculateRoots(0, 100, light));
+        List<Double> actualRoots = inUnitInterval(general.calculateRoots(0, 100, light));
+        assertEquals(3, expectedRoots.size());
+        assertEquals(expectedRoots.size(), actualRoots.size());
+        for (int i = 0; i < expectedRoots.size(); i++) {
+            assertEquals(expectedRoots.get(i), actualRoots.get(i), 1e-7);
+        }
+    }
+
+    @Test
+    public void higherDegreeCurve() {
+        BezierCurve bezierCurve = BezierCurve.create(7);
+        assertTrue(bezierCurve instanceof GeneralBezierCurve);
+        Random random = new Random(7);
+        for (int i = 0; i < 7; i++) {
+            bezierCurve.addControlPoint(new Point(random.nextInt(600), random.nextInt(600)));
+        }
+
+        int numOfSamples = 200;
+        bezierCurve.updatePoints(numOfSamples);
+        SampleBuffer samples = bezierCurve.getSamples();
+        Vector2D point = new Vector2D();
+        for (int i = 0; i < numOfSamples; i++) {
+            bezierCurve.calcPoint(samples.getT(i), point);
+            assertEquals(point.x, samples.getX(i), 1e-9);
+            assertEquals(point.y, samples.getY(i), 1e-9);
+        }
+
+        // Every root lies on the curve and on the straight line
+        ControlPoint light = new ControlPoint(300, -100);
+        for (double root : inUnitInterval(bezierCurve.calculateRoots(samples.getX(50), samples.getY(50), light))) {
+            bezierCurve.calcPoint(root, point);
+            double cross = (light.getX() - samples.getX(50)) * (point.y - samples.getY(50))
+                    - (light.getY() - samples.getY(50)) * (point.x - samples.getX(50));
+            assertEquals(0, cross / Common.Distance(samples.getX(50), samples.getY(50), light.getX(), light.getY()), 1e-6);
+        }
+
+        // The basis table is shared by all curves of the same degree
+        assertSame(BernsteinBasis.of(6, numOfSamples), BernsteinBasis.of(6, numOfSamples));
+    }
+
+    @Test
+    public void batchRootsMatchAndDoNotAllocate() {
+        Random random = new Random(12);
+        for (int numOfControlPoints = 3; numOfControlPoints <= 7; numOfControlPoints++) {
+            BezierCurve bezierCurve = BezierCurve.create(numOfControlPoints);
+            for (int i = 0; i < numOfControlPoints; i++) {
+                bezierCurve.addControlPoint(new Point(random.nextInt(600), random.nextInt(600)));
+            }
+
+            int numOfPoints = 500;
+            double[] x = new double[numOfPoints];
+            double[] y = new double[numOfPoints];
+            for (int i = 0; i < numOfPoints; i++) {
+                x[i] = random.nextInt(600);
+                y[i] = random.nextInt(600);
+            }
+            ControlPoint light = new ControlPoint(300, 300);
+
+            int stride = bezierCurve.getMaxNumOfRoots();
+            double[] roots = new double[numOfPoints * stride];
+            int[] counts = new int[numOfPoints];
+            bezierCurve.calculateRoots(x, y, 0, numOfPoints, light.getX(), light.getY(), roots, counts);
+
+            for (int i = 0; i < numOfPoints; i++) {
+                List<Double> expected = inUnitInterval(bezierCurve.calculateRoots(x[i], y[i], light));
+                assertEquals(expected.size(), counts[i]);
+                for (int j = 0; j < counts[i]; j++) {
+                    assertEquals(expected.get(j), roots[i * stride + j], 1e-6);
+                }
+            }
+
+            // The overhead cancels what the measurement itself allocates. Both are the best of a
+            // few runs, which ignores the rare allocations of the JIT compiler while the code warms
+            // up; they can land in either measurement, so each is minimised on its own, and a call
+            // that allocates anything at all still measures above the overhead.
+            if (allocatedBytes() >= 0) {
+                long overhead = Long.MAX_VALUE;
+                long allocated = Long.MAX_VALUE;
+                for (int run = 0; run < 10; run++) {
+                    long start = allocatedBytes();
+                    overhead = Math.min(overhead, allocatedBytes() - start);
+                    start = allocatedBytes();
+                    bezierCurve.calculateRoots(x, y, 0, numOfPoints, light.getX(), light.getY(), roots, counts);
+                    allocated = Math.min(allocated, allocatedBytes() - start);
+                }
+                assertEquals(0, allocated - overhead);
+            }
+        }
+    }
+
+    @Test
+    public void bezierClippingMatchesPowerBasis() {
+        Random random = new Random(13);
+        double[] expected = new double[6];
+        double[] actual = new double[6];
+        for (int numOfControlPoints = 3; numOfControlPoints <= 7; numOfControlPoints++) {
+            BezierCurve bezierCurve = BezierCurve.create(numOfControlPoints);
+            for (int i = 0; i < numOfControlPoints; i++) {
+                bezierCurve.addControlPoint(new Point(random.nextInt(600), random.nextInt(600)));
+            }
+
+            for (int i = 0; i < 1000; i++) {
+                double x = random.nextInt(600);
+                double y = random.nextInt(600);
+
+                bezierCurve.setRootSolver(RootSolver.POWER_BASIS);
+                int numOfExpected = bezierCurve.calculateRoots(x, y, 300, 300, expected, 0);
+                bezierCurve.setRootSolver(RootSolver.BEZIER_CLIPPING);
+                int numOfActual = bezierCurve.calculateRoots(x, y, 300, 300, actual, 0);
+
+                assertEquals(numOfExpected, numOfActual);
+                for (int j = 0; j < numOfActual; j++) {
+                    assertEquals(expected[j], actual[j], 1e-7);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void degenerateCubicHasFiniteRoots() {
+        // Evenly spaced collinear control points make the cubic coefficient vanish
+        BezierCurve bezierCurve = new CubicBezierCurve();
+        for (int i = 0; i < 4; i++) {
+            bezierCurve.addControlPoint(new Point(100 * i, 0));
+        }
+        ControlPoint light = new ControlPoint(150, 100);
+
+        for (RootSolver rootSolver : RootSolver.values()) {
+            bezierCurve.setRootSolver(rootSolver);
+            List<Double> roots = bezierCurve.calculateRoots(150, -100, light);
+            assertEquals(1, roots.size());
+            assertEquals(0.5, roots.get(0), 1e-9);
+        }
+    }
+
+    @Test
+    public void cubicRootsLieOnTheLine() {
+        // Lines from points of the receiver to the light source cross the occluder close to its
+        // start, where the closed form of the cubic lost the root or placed it pixels away
+        BezierCurve receiver = new CubicBezierCurve();
+        BezierCurve occluder = new CubicBezierCurve();
+        for (Point point : new Point[]{new Point(11, 213), new Point(816, 218), new Point(288, 651), new Point(18, 519)}) {
+            receiver.addControlPoint(point);
+        }
+        for (Point point : new Point[]{new Point(91, 560), new Point(352, 496), new Point(524, 168), new Point(233, 49)}) {
+            occluder.addControlPoint(point);
+        }
+        ControlPoint light = new ControlPoint(67, 593);
+
+        double[] roots = new double[3];
+        Vector2D sample = new Vector2D();
+        Vector2D point = new Vector2D();
+        for (double t : new double[]{0.188229, 0.898305}) {
+            receiver.calcPoint(t, sample);
+            int numOfRoots = occluder.calculateRoots(sample.x, sample.y, light.getX(), light.getY(), roots, 0);
+            assertEquals(2, numOfRoots);
+            for (int i = 0; i < numOfRoots; i++) {
+                occluder.calcPoint(roots[i], point);
+                double cross = (light.getX() - sample.x) * (point.y - sample.y) - (light.getY() - sample.y) * (point.x - sample.x);
+                assertEquals(0, cross / Common.Distance(sample.x, sample.y, light.getX(), light.getY()), 1e-9);
+            }
+        }
+    }
+
+    /**
+     * @return the bytes allocated by the current thread, or -1 if the JVM does not count them
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = java.lang.management.ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static List<Double> inUnitInterval(List<Double> roots) {
+        List<Double> result = new ArrayList<>();
+        roots.stream().filter(root -> root >= 0 && root <= 1).sorted().forEach(result::add);
+        return result;
+    }
+}
@@ -0,0 +1,54 @@
+package bezierCurve.bezier;
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SampleRasterTest {
+
+    @Test
+    public void matchesJava2D() {
+        int width = 300;
+        int height = 200;
+
+        // Samples partly outside the image, with random colors
+        Random random = new Random(15);
+        SampleBuffer samples = new SampleBuffer();
+        samples.resize(500);
+        for (int i = 0; i < samples.size(); i++) {
+            samples.set(i, i / 499d, random.nextDouble() * (width + 40) - 20, random.nextDouble() * (height + 40) - 20);
+            samples.setArgb(i, 0xFF000000 | random.nextInt(0x1000000));
+        }
+
+        BufferedImage expected = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics g = expected.getGraphics();
+        samples.draw(g);
+        g.dispose();
+
+        SampleRaster raster = new SampleRaster();
+        raster.begin(width, height);
+        raster.splat(samples);
+        BufferedImage actual = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        g = actual.getGraphics();
+        raster.draw(g);
+        g.dispose();
+
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+            }
+        }
+
+        // The raster is cleared between frames
+        raster.begin(width, height);
+        actual = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        g = actual.getGraphics();
+        raster.draw(g);
+        g.dispose();
+        assertEquals(0, actual.getRGB(150, 100));
+    }
+}
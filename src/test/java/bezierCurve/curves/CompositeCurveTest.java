@@ -0,0 +1,211 @@
+package bezierCurve.curves;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.points.ControlPoint;
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.event.InputEvent;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CompositeCurveTest {
+
+    private static MouseEvent event(CompositeCurve curve, int id, Point point) {
+        return new MouseEvent(curve, id, 0, InputEvent.BUTTON1_DOWN_MASK, point.x, point.y, 1, false, MouseEvent.BUTTON1);
+    }
+
+    /**
+     * Builds a composite curve of the given number of complete segments along the x axis.
+     */
+    static CompositeCurve createCompositeCurve(int numOfSegments, int numOfSamples) {
+        CompositeCurve curve = new CompositeCurve(numOfSamples);
+        curve.mousePressed(event(curve, MouseEvent.MOUSE_PRESSED, new Point(50, 300)));
+        curve.mousePressed(event(curve, MouseEvent.MOUSE_PRESSED, new Point(100, 200)));
+        for (int i = 0; i < numOfSegments; i++) {
+            int x = 200 + 200 * i;
+            curve.mousePressed(event(curve, MouseEvent.MOUSE_PRESSED, new Point(x - 50, i % 2 == 0 ? 400 : 200)));
+            curve.mousePressed(event(curve, MouseEvent.MOUSE_PRESSED, new Point(x, 300)));
+        }
+        return curve;
+    }
+
+    @Test
+    public void dragOnlyResamplesNeighbours() {
+        int numOfSegments = 6;
+        CompositeCurve curve = createCompositeCurve(numOfSegments, 50);
+        List<BezierCurve> bezierCurves = curve.getBezierCurves();
+        assertEquals(numOfSegments + 1, bezierCurves.size());
+        curve.update();
+
+        long[] generations = new long[bezierCurves.size()];
+        for (int i = 0; i < bezierCurves.size(); i++) {
+            generations[i] = bezierCurves.get(i).getSamples().getGeneration();
+        }
+
+        // Drag the third control point of the fourth segment
+        ControlPoint dragged = bezierCurves.get(3).getControlPoints().get(2);
+        Point from = new Point(dragged.getX(), dragged.getY());
+        Point to = new Point(from.x + 15, from.y - 25);
+        curve.mousePressed(event(curve, MouseEvent.MOUSE_PRESSED, from));
+        curve.mouseDragged(event(curve, MouseEvent.MOUSE_DRAGGED, to));
+        curve.mouseReleased(event(curve, MouseEvent.MOUSE_RELEASED, to));
+
+        assertEquals(to.x, dragged.getX());
+        assertEquals(to.y, dragged.getY());
+        for (int i = 0; i < bezierCurves.size(); i++) {
+            long generation = bezierCurves.get(i).getSamples().getGeneration();
+            if (i == 3 || i == 4) {
+                assertNotEquals("segment " + i, generations[i], generation);
+            } else {
+                assertEquals("segment " + i, generations[i], generation);
+            }
+        }
+
+        // The next segment mirrors the dragged point
+        ControlPoint mirrored = bezierCurves.get(4).getControlPoints().get(1);
+        ControlPoint joint = bezierCurves.get(4).getControlPoints().get(0);
+        assertEquals(2 * joint.getX() - to.x, mirrored.getX());
+        assertEquals(2 * joint.getY() - to.y, mirrored.getY());
+    }
+
+    @Test
+    public void layerCacheMatchesFullPaint() {
+        int numOfSegments = 6;
+        CompositeCurve cached = createCompositeCurve(numOfSegments, 50);
+        CompositeCurve full = createCompositeCurve(numOfSegments, 50);
+        full.setLayerCache(false);
+        for (CompositeCurve curve : new CompositeCurve[]{cached, full}) {
+            curve.setSize(1500, 600);
+            curve.mousePressed(new MouseEvent(curve, MouseEvent.MOUSE_PRESSED, 0, InputEvent.BUTTON3_DOWN_MASK,
+                    700, 20, 1, false, MouseEvent.BUTTON3));
+            curve.update();
+        }
+        assertSamePixels(cached, full);
+
+        // Drag the third control point of the fourth segment; with the light off only its
+        // neighbours are drawn again
+        for (CompositeCurve curve : new CompositeCurve[]{cached, full}) {
+            ControlPoint dragged = curve.getBezierCurves().get(3).getControlPoints().get(2);
+            Point from = new Point(dragged.getX(), dragged.getY());
+            Point to = new Point(from.x + 15, from.y - 25);
+            curve.mousePressed(event(curve, MouseEvent.MOUSE_PRESSED, from));
+            curve.mouseDragged(event(curve, MouseEvent.MOUSE_DRAGGED, to));
+            curve.mouseReleased(event(curve, MouseEvent.MOUSE_RELEASED, to));
+        }
+        assertSamePixels(cached, full);
+
+        CompositeCurve unlit = createCompositeCurve(numOfSegments, 50);
+        unlit.setSize(1500, 600);
+        unlit.update();
+        paint(unlit);
+        ControlPoint dragged = unlit.getBezierCurves().get(3).getControlPoints().get(2);
+        Point from = new Point(dragged.getX(), dragged.getY());
+        unlit.mousePressed(event(unlit, MouseEvent.MOUSE_PRESSED, from));
+        unlit.mouseDragged(event(unlit, MouseEvent.MOUSE_DRAGGED, new Point(from.x + 15, from.y - 25)));
+        Rectangle dirty = unlit.getLayerCache().dirtyBounds(unlit.new Layers(unlit.getSampleBuffers()));
+        assertNotNull(dirty);
+        assertTrue(dirty.getMinX() > 500);
+        assertTrue(dirty.getMaxX() < 1100);
+    }
+
+    @Test
+    public void rasterLayerCacheMatchesFullPaint() {
+        int numOfSegments = 6;
+        CompositeCurve cached = createCompositeCurve(numOfSegments, 50);
+        CompositeCurve full = createCompositeCurve(numOfSegments, 50);
+        cached.setRaster(true);
+        full.setLayerCache(false);
+        for (CompositeCurve curve : new CompositeCurve[]{cached, full}) {
+            curve.setSize(1500, 600);
+            curve.mousePressed(new MouseEvent(curve, MouseEvent.MOUSE_PRESSED, 0, InputEvent.BUTTON3_DOWN_MASK,
+                    700, 20, 1, false, MouseEvent.BUTTON3));
+            curve.update();
+        }
+        assertSamePixels(cached, full);
+
+        // Only the segments next to the dragged control point are written into the raster again
+        for (CompositeCurve curve : new CompositeCurve[]{cached, full}) {
+            ControlPoint dragged = curve.getBezierCurves().get(3).getControlPoints().get(2);
+            Point from = new Point(dragged.getX(), dragged.getY());
+            Point to = new Point(from.x + 15, from.y - 25);
+            curve.mousePressed(event(curve, MouseEvent.MOUSE_PRESSED, from));
+            curve.mouseDragged(event(curve, MouseEvent.MOUSE_DRAGGED, to));
+            curve.mouseReleased(event(curve, MouseEvent.MOUSE_RELEASED, to));
+        }
+        assertSamePixels(cached, full);
+    }
+
+    @Test
+    public void shutdownLeavesSynchronousCurve() {
+        CompositeCurve curve = createCompositeCurve(2, 10);
+        curve.setAsync(true);
+        assertTrue(curve.isAsync());
+
+        curve.shutdown();
+        assertFalse(curve.isAsync());
+
+        // Updates run on the calling thread instead of the stopped executor
+        curve.getBezierCurves().get(1).getControlPoints().get(2).setLocation(250, 150);
+        curve.requestUpdate();
+        assertFalse(curve.getBezierCurves().get(1).isDirty(10));
+    }
+
+    @Test
+    public void indexFindsMovedControlPoints() {
+        CompositeCurve curve = createCompositeCurve(4, 10);
+        ControlPointIndex index = curve.getControlPointIndex();
+
+        int numOfControlPoints = 0;
+        for (BezierCurve bezierCurve : curve.getBezierCurves()) {
+            for (ControlPoint controlPoint : bezierCurve.getControlPoints()) {
+                numOfControlPoints++;
+                assertNotNull(index.find(new Point(controlPoint.getX(), controlPoint.getY())));
+            }
+        }
+        assertEquals(numOfControlPoints, index.size());
+        assertNull(index.find(new Point(5, 5)));
+
+        // The joint of two segments is found on both of them
+        ControlPoint joint = curve.getBezierCurves().get(1).getControlPoints().get(0);
+        Point at = new Point(joint.getX(), joint.getY());
+        assertEquals(2, index.findPerCurve(at).size());
+        assertSame(curve.getBezierCurves().get(0).getControlPoints().get(3), index.find(at));
+
+        // Dragging the joint moves both copies and the tangent points in the index
+        Point to = new Point(at.x + 100, at.y + 90);
+        curve.mousePressed(event(curve, MouseEvent.MOUSE_PRESSED, at));
+        curve.mouseDragged(event(curve, MouseEvent.MOUSE_DRAGGED, to));
+        curve.mouseReleased(event(curve, MouseEvent.MOUSE_RELEASED, to));
+
+        assertNull(index.find(at));
+        assertEquals(2, index.findPerCurve(to).size());
+        for (BezierCurve bezierCurve : curve.getBezierCurves()) {
+            for (ControlPoint controlPoint : bezierCurve.getControlPoints()) {
+                assertFalse(controlPoint.isSelected());
+                assertNotNull(index.find(new Point(controlPoint.getX(), controlPoint.getY())));
+            }
+        }
+    }
+
+    private static BufferedImage paint(CompositeCurve curve) {
+        BufferedImage image = new BufferedImage(curve.getWidth(), curve.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics g = image.getGraphics();
+        curve.paint(g);
+        g.dispose();
+        return image;
+    }
+
+    private static void assertSamePixels(CompositeCurve cached, CompositeCurve full) {
+        BufferedImage expected = paint(full);
+        BufferedImage actual = paint(cached);
+        for (int x = 0; x < expected.getWidth(); x++) {
+            for (int y = 0; y < expected.getHeight(); y++) {
+                assertEquals(x + ", " + y, expected.getRGB(x, y), actual.getRGB(x, y));
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package bezierCurve.curves;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.bezier.Evaluator;
+import bezierCurve.bezier.RootSolver;
+import bezierCurve.bezier.SampleBuffer;
+import bezierCurve.bezier.Sampling;
+import bezierCurve.lighting.Illumination;
+import bezierCurve.lighting.ShadowMapOcclusion;
+import bezierCurve.points.ControlPoint;
+import bezierCurve.points.LightSource;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ComputePipelineTest {
+
+    @Test
+    public void latestSnapshotWins() throws InterruptedException {
+        CompositeCurve curve = CompositeCurveTest.createCompositeCurve(8, 200);
+        List<BezierCurve> bezierCurves = curve.getBezierCurves();
+        LightSource lightSource = new LightSource(new Point(500, 100));
+
+        AtomicInteger published = new AtomicInteger();
+        ComputePipeline pipeline = new ComputePipeline(published::incrementAndGet);
+        try {
+            ControlPoint moved = bezierCurves.get(2).getControlPoints().get(1);
+            int numOfSnapshots = 50;
+            for (int i = 0; i < numOfSnapshots; i++) {
+                moved.setLocation(moved.getX() + 1, moved.getY() - 1);
+                pipeline.submit(ComputePipeline.Snapshot.of(bezierCurves, Collections.singletonList(lightSource), Sampling.uniform(200)));
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (pipeline.getNumOfComputed() + pipeline.getNumOfCoalesced() < numOfSnapshots && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(numOfSnapshots, pipeline.getNumOfSubmitted());
+            assertEquals(numOfSnapshots, pipeline.getNumOfComputed() + pipeline.getNumOfCoalesced());
+
+            // Wait for the EDT to run the publish callbacks
+            CountDownLatch latch = new CountDownLatch(1);
+            EventQueue.invokeLater(latch::countDown);
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertEquals(pipeline.getNumOfComputed(), published.get());
+        } finally {
+            pipeline.shutdown();
+        }
+
+        // The last frame matches a synchronous computation of the final state
+        bezierCurves.forEach(bezierCurve -> bezierCurve.updatePoints(200));
+        lightSource.updateColors(bezierCurves);
+
+        List<SampleBuffer> frame = pipeline.getFrame().getSamples();
+        assertEquals(bezierCurves.size(), frame.size());
+        for (int i = 0; i < bezierCurves.size(); i++) {
+            SampleBuffer expected = bezierCurves.get(i).getSamples();
+            SampleBuffer actual = frame.get(i);
+            assertEquals(expected.size(), actual.size());
+            for (int s = 0; s < expected.size(); s++) {
+                assertEquals(expected.getX(s), actual.getX(s), 0);
+                assertEquals(expected.getY(s), actual.getY(s), 0);
+                assertEquals(expected.getArgb(s), actual.getArgb(s));
+            }
+        }
+    }
+
+    @Test
+    public void workerLightsTheSceneLikeTheEdt() throws InterruptedException {
+        CompositeCurve curve = CompositeCurveTest.createCompositeCurve(8, 200);
+        List<BezierCurve> bezierCurves = curve.getBezierCurves();
+        for (int i = 0; i < bezierCurves.size(); i++) {
+            bezierCurves.get(i).setEvaluator(i % 2 == 0 ? Evaluator.FORWARD_DIFFERENCES : Evaluator.HORNER);
+            bezierCurves.get(i).setRootSolver(i % 3 == 0 ? RootSolver.BEZIER_CLIPPING : RootSolver.POWER_BASIS);
+        }
+        LightSource lightSource = new LightSource(new Point(500, 100));
+        lightSource.setOcclusion(new ShadowMapOcclusion(64));
+        lightSource.setPool(null);
+        List<LightSource> lightSources = Collections.singletonList(lightSource);
+
+        CountDownLatch published = new CountDownLatch(1);
+        ComputePipeline pipeline = new ComputePipeline(published::countDown);
+        try {
+            pipeline.submit(ComputePipeline.Snapshot.of(bezierCurves, lightSources, Sampling.uniform(200)));
+            assertTrue(published.await(10, TimeUnit.SECONDS));
+        } finally {
+            pipeline.shutdown();
+        }
+
+        bezierCurves.forEach(bezierCurve -> bezierCurve.updatePoints(200));
+        new Illumination().shade(bezierCurves, lightSources);
+
+        List<SampleBuffer> frame = pipeline.getFrame().getSamples();
+        assertEquals(bezierCurves.size(), frame.size());
+        for (int i = 0; i < bezierCurves.size(); i++) {
+            SampleBuffer expected = bezierCurves.get(i).getSamples();
+            SampleBuffer actual = frame.get(i);
+            assertEquals(expected.size(), actual.size());
+            for (int s = 0; s < expected.size(); s++) {
+                assertEquals(expected.getX(s), actual.getX(s), 0);
+                assertEquals(expected.getY(s), actual.getY(s), 0);
+                assertEquals("curve " + i + ", sample " + s, expected.getArgb(s), actual.getArgb(s));
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package bezierCurve.headless;
+
+import bezierCurve.bezier.Sampling;
+import bezierCurve.lighting.ShadowMapOcclusion;
+import bezierCurve.points.LightSource;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BatchRendererTest {
+
+    private static String SCENE = String.join("\n",
+            "# Two curves under one light",
+            "size 400 300",
+            "sampling uniform 30",
+            "light 200 20",
+            "curve 20 280 100 100 180 280",
+            "curve 220 280 260 120 320 120 380 280",
+            "");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsScene() throws IOException {
+        Scene scene = Scene.read("test", new StringReader(SCENE));
+
+        assertEquals(400, scene.getWidth());
+        assertEquals(300, scene.getHeight());
+        assertEquals(Sampling.uniform(30), scene.getSampling());
+        assertEquals(2, scene.getBezierCurves().size());
+        assertEquals(3, scene.getBezierCurves().get(0).getNumOfControlPoints());
+        assertEquals(4, scene.getBezierCurves().get(1).getNumOfControlPoints());
+        assertEquals(1, scene.getLightSources().size());
+        assertEquals(200, scene.getLightSources().get(0).getX());
+
+        try {
+            Scene.read("bad", new StringReader("size 10 10\ncurve 1 2 3\n"));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().startsWith("bad:2:"));
+        }
+
+        Scene mapped = Scene.read("map", new StringReader("light 1 2\nshadows map 512\nlight 3 4\n"));
+        for (LightSource lightSource : mapped.getLightSources()) {
+            assertTrue(lightSource.getOcclusion() instanceof ShadowMapOcclusion);
+        }
+        try {
+            Scene.read("bad", new StringReader("shadows map 2\n"));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().startsWith("bad:1:"));
+        }
+    }
+
+    @Test
+    public void rendersScenesInParallel() throws IOException, InterruptedException {
+        List<File> scenes = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            File file = folder.newFile("scene" + i + BatchRenderer.SCENE_EXTENSION);
+            Files.write(file.toPath(), SCENE.getBytes(StandardCharsets.UTF_8));
+            scenes.add(file);
+        }
+        File broken = folder.newFile("broken" + BatchRenderer.SCENE_EXTENSION);
+        Files.write(broken.toPath(), "curve 1\n".getBytes(StandardCharsets.UTF_8));
+        scenes.add(broken);
+
+        File output = new File(folder.getRoot(), "images");
+        List<BatchRenderer.Result> results = new BatchRenderer(4).render(scenes, output);
+
+        assertEquals(scenes.size(), results.size());
+        for (int i = 0; i < 8; i++) {
+            assertEquals("scene" + i, results.get(i).getName());
+            assertNull(results.get(i).getError());
+            assertTrue(results.get(i).getTotalNanos() > 0);
+        }
+        assertNotNull(results.get(8).getError());
+
+        BufferedImage image = ImageIO.read(new File(output, "scene0.png"));
+        assertEquals(400, image.getWidth());
+        assertEquals(300, image.getHeight());
+        assertEquals(SceneRenderer.BACKGROUND.getRGB(), image.getRGB(399, 0));
+        assertEquals(Color.YELLOW.getRGB(), image.getRGB(200, 20));
+
+        // Same pixels as rendering the scene on this thread
+        BufferedImage expected = SceneRenderer.render(Scene.read("test", new StringReader(SCENE)));
+        for (int x = 0; x < 400; x++) {
+            for (int y = 0; y < 300; y++) {
+                assertEquals(expected.getRGB(x, y), image.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void sceneWithTheSameNameFails() throws IOException, InterruptedException {
+        File first = new File(folder.newFolder("first"), "scene" + BatchRenderer.SCENE_EXTENSION);
+        File second = new File(folder.newFolder("second"), "scene" + BatchRenderer.SCENE_EXTENSION);
+        Files.write(first.toPath(), SCENE.getBytes(StandardCharsets.UTF_8));
+        Files.write(second.toPath(), SCENE.replace("size 400 300", "size 200 100").getBytes(StandardCharsets.UTF_8));
+
+        File output = new File(folder.getRoot(), "images");
+        List<BatchRenderer.Result> results = new BatchRenderer(2).render(Arrays.asList(first, second), output);
+
+        assertEquals(2, results.size());
+        assertNull(results.get(0).getError());
+        assertEquals("scene", results.get(1).getName());
+        assertNotNull(results.get(1).getError());
+
+        // The image of the first scene is kept
+        BufferedImage image = ImageIO.read(new File(output, "scene.png"));
+        assertEquals(400, image.getWidth());
+    }
+
+    @Test
+    public void findsScenesInDirectories() throws IOException {
+        folder.newFile("b" + BatchRenderer.SCENE_EXTENSION);
+        folder.newFile("a" + BatchRenderer.SCENE_EXTENSION);
+        folder.newFile("notes.txt");
+
+        List<File> scenes = BatchRenderer.findScenes(new String[]{folder.getRoot().getPath()});
+        assertEquals(Arrays.asList(new File(folder.getRoot(), "a.scene"), new File(folder.getRoot(), "b.scene")), scenes);
+    }
+}
@@ -0,0 +1,110 @@
+package bezierCurve.io;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.bezier.CubicBezierCurve;
+import bezierCurve.points.ControlPoint;
+import bezierCurve.points.LightSource;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MappedSceneTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Builds the segments of a composite curve the way the editor does, mirroring the third
+     * point of every segment around the joint
+     */
+    private static List<BezierCurve> createSegments(int numOfSegments) {
+        List<BezierCurve> bezierCurves = new ArrayList<>();
+        Point third = new Point(100, 200);
+        Point last = new Point(150, 300);
+        for (int i = 0; i < numOfSegments; i++) {
+            BezierCurve curve = new CubicBezierCurve();
+            if (i == 0) {
+                curve.addControlPoint(new Point(50, 300));
+                curve.addControlPoint(new Point(80, 250));
+            } else {
+                curve.addControlPoint(new Point(last));
+                curve.addControlPoint(new Point(2 * last.x - third.x, 2 * last.y - third.y));
+            }
+            third = new Point(last.x + 60, i % 2 == 0 ? 400 : 200);
+            last = new Point(last.x + 100, 300 + i);
+            curve.addControlPoint(third);
+            curve.addControlPoint(last);
+            bezierCurves.add(curve);
+        }
+        return bezierCurves;
+    }
+
+    @Test
+    public void roundTripsCompositeCurve() throws IOException {
+        List<BezierCurve> bezierCurves = createSegments(5);
+        Path path = folder.newFile("curve" + BinaryScene.EXTENSION).toPath();
+        BinarySceneWriter.write(path, bezierCurves, Collections.singletonList(new LightSource(new Point(300, 20))));
+
+        // The joints and mirrored points are not stored
+        assertEquals(BinaryScene.HEADER_SIZE + (4 + 2 * 4 + 1) * BinaryScene.POINT_SIZE, Files.size(path));
+
+        try (MappedScene scene = MappedScene.open(path)) {
+            assertEquals(bezierCurves.size(), scene.getNumOfSegments());
+            assertEquals(1, scene.getNumOfLightSources());
+            assertEquals(300, scene.getLightX(0), 0);
+            assertEquals(20, scene.getLightY(0), 0);
+
+            List<BezierCurve> loaded = scene.toBezierCurves(0, scene.getNumOfSegments());
+            for (int i = 0; i < bezierCurves.size(); i++) {
+                List<ControlPoint> expected = bezierCurves.get(i).getControlPoints();
+                List<ControlPoint> actual = loaded.get(i).getControlPoints();
+                for (int j = 0; j < 4; j++) {
+                    assertEquals("segment " + i + " point " + j, expected.get(j).getX(), actual.get(j).getX());
+                    assertEquals("segment " + i + " point " + j, expected.get(j).getY(), actual.get(j).getY());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void streamsLargeScene() throws IOException {
+        int numOfControlPoints = 1 << 20;
+        Path path = folder.newFile("large" + BinaryScene.EXTENSION).toPath();
+        try (BinarySceneWriter writer = new BinarySceneWriter(path, BinaryScene.FLOAT_COORDINATES)) {
+            for (int i = 0; i < numOfControlPoints; i++) {
+                writer.addControlPoint(i * 0.5, i % 7);
+            }
+        }
+
+        try (MappedScene scene = MappedScene.open(path)) {
+            assertEquals(numOfControlPoints, scene.getNumOfControlPoints());
+            assertEquals((numOfControlPoints - 2) / 2, scene.getNumOfSegments());
+
+            MappedScene.Segment segment = null;
+            for (long k = 1; k < scene.getNumOfSegments(); k += 9973) {
+                segment = scene.segment(k, segment);
+                long joint = 2 * k + 1;
+                assertEquals(joint * 0.5, segment.getX(0), 0);
+                assertEquals(2 * (joint % 7) - (joint - 1) % 7, segment.getY(1), 0);
+                assertEquals((joint + 2) * 0.5, segment.getX(3), 0);
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherFiles() throws IOException {
+        Path path = folder.newFile("other" + BinaryScene.EXTENSION).toPath();
+        Files.write(path, new byte[BinaryScene.HEADER_SIZE]);
+        MappedScene.open(path).close();
+    }
+}
@@ -0,0 +1,101 @@
+package bezierCurve.io;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.bezier.Sampling;
+import bezierCurve.points.ControlPoint;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class StreamingCurveBuilderTest {
+
+    /**
+     * Hands out a few bytes per read, so that lines are split between reads
+     */
+    private static ReadableByteChannel trickle(String text) {
+        ByteArrayInputStream input = new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+        return new ReadableByteChannel() {
+            @Override
+            public int read(ByteBuffer dst) {
+                int n = Math.min(3, dst.remaining());
+                byte[] bytes = new byte[n];
+                int read = input.read(bytes, 0, n);
+                if (read > 0) {
+                    dst.put(bytes, 0, read);
+                }
+                return read;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Test
+    public void emitsMirroredSegments() throws IOException {
+        String csv = "x,y\n50,300\n80,250\n# comment\n100,200\r\n150,300\n\n210,400\n250,300\n310,200\n";
+        List<BezierCurve> segments = new ArrayList<>();
+        StreamingCurveBuilder builder = new StreamingCurveBuilder(Sampling.uniform(20), (index, segment) -> {
+            assertEquals(segments.size(), index);
+            assertEquals(20, segment.getSamples().size());
+            segments.add(segment);
+        });
+
+        assertEquals(7, builder.read(trickle(csv), PointStreamReader.Format.CSV));
+        assertEquals(2, builder.getNumOfSegments());
+
+        List<ControlPoint> second = segments.get(1).getControlPoints();
+        assertEquals(150, second.get(0).getX());
+        assertEquals(300, second.get(0).getY());
+        assertEquals(200, second.get(1).getX());
+        assertEquals(400, second.get(1).getY());
+        assertEquals(210, second.get(2).getX());
+        assertEquals(250, second.get(3).getX());
+    }
+
+    @Test
+    public void readsNdjson() throws IOException {
+        StringBuilder json = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            json.append("{\"t\": ").append(i).append(", \"y\": ").append(i % 50).append(", \"x\":").append(i * 1.5).append("}\n");
+        }
+
+        long[] numOfSegments = new long[1];
+        StreamingCurveBuilder builder = new StreamingCurveBuilder(Sampling.uniform(8), (index, segment) -> {
+            numOfSegments[0]++;
+            ControlPoint last = segment.getControlPoints().get(3);
+            long point = 2 * index + 3;
+            assertEquals(Math.round(point * 1.5), last.getX());
+            assertEquals(point % 50, last.getY());
+        });
+        builder.read(trickle(json.toString()), PointStreamReader.Format.NDJSON);
+
+        assertEquals(BinaryScene.numOfSegments(1000), numOfSegments[0]);
+    }
+
+    @Test
+    public void reportsLineOfInvalidPoint() throws IOException {
+        StreamingCurveBuilder builder = new StreamingCurveBuilder(Sampling.uniform(8), (index, segment) -> {
+        });
+        try {
+            builder.read(trickle("1,2\n3,4\n5;6\n"), PointStreamReader.Format.CSV);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("line 3:"));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package bezierCurve.lighting;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.bezier.CubicBezierCurve;
+import bezierCurve.bezier.QuadraticBezierCurve;
+import bezierCurve.bezier.SampleBuffer;
+import bezierCurve.points.ControlPoint;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GridOcclusionTest {
+
+    static List<BezierCurve> randomScene(Random random, int numOfCurves, int numOfSamples) {
+        List<BezierCurve> bezierCurves = new ArrayList<>();
+        for (int i = 0; i < numOfCurves; i++) {
+            BezierCurve curve = random.nextBoolean() ? new CubicBezierCurve() : new QuadraticBezierCurve();
+            for (int j = 0; j < curve.getNumOfControlPoints(); j++) {
+                curve.addControlPoint(new Point(random.nextInt(1000), random.nextInt(700)));
+            }
+            curve.updatePoints(numOfSamples);
+            bezierCurves.add(curve);
+        }
+        return bezierCurves;
+    }
+
+    static int assertSameShadows(List<BezierCurve> bezierCurves, ControlPoint lightSource, Occlusion expected, Occlusion actual) {
+        expected.prepare(bezierCurves, lightSource);
+        actual.prepare(bezierCurves, lightSource);
+        int numOfShadows = 0;
+        for (BezierCurve curve : bezierCurves) {
+            SampleBuffer samples = curve.getSamples();
+            for (int s = 0; s < samples.size(); s++) {
+                boolean shadowed = expected.findOccluder(curve, samples.getT(s), samples.getX(s), samples.getY(s)) != Occlusion.NONE;
+                boolean found = actual.findOccluder(curve, samples.getT(s), samples.getX(s), samples.getY(s)) != Occlusion.NONE;
+                assertEquals("sample " + s, shadowed, found);
+                numOfShadows += shadowed ? 1 : 0;
+            }
+        }
+        return numOfShadows;
+    }
+
+    @Test
+    public void matchesExactOcclusion() {
+        Random random = new Random(7);
+        int numOfShadows = 0;
+        for (int scene = 0; scene < 20; scene++) {
+            List<BezierCurve> bezierCurves = randomScene(random, 1 + random.nextInt(12), 40);
+            ControlPoint lightSource = new ControlPoint(random.nextInt(1000), random.nextInt(700));
+            numOfShadows += assertSameShadows(bezierCurves, lightSource, new ExactOcclusion(), new GridOcclusion(1 + random.nextInt(100)));
+        }
+        assertTrue(numOfShadows > 0);
+    }
+
+    @Test
+    public void updatesMovedCurves() {
+        Random random = new Random(11);
+        List<BezierCurve> bezierCurves = randomScene(random, 10, 40);
+        ControlPoint lightSource = new ControlPoint(500, 350);
+        GridOcclusion grid = new GridOcclusion(50);
+
+        for (int move = 0; move < 20; move++) {
+            BezierCurve curve = bezierCurves.get(random.nextInt(bezierCurves.size()));
+            curve.getControlPoints().get(0).setLocation(random.nextInt(1000), random.nextInt(700));
+            curve.updatePoints(40);
+            if (move == 10) {
+                bezierCurves.remove(0);
+            }
+            assertSameShadows(bezierCurves, lightSource, new ExactOcclusion(), grid);
+        }
+    }
+}
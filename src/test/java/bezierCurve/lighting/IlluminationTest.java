@@ -0,0 +1,131 @@
+package bezierCurve.lighting;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.bezier.SampleBuffer;
+import bezierCurve.points.LightSource;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IlluminationTest {
+
+    private static LightSource light(int x, int y) {
+        LightSource lightSource = new LightSource(new Point(x, y));
+        lightSource.setPool(null);
+        return lightSource;
+    }
+
+    private static int[][] colors(List<BezierCurve> bezierCurves) {
+        int[][] colors = new int[bezierCurves.size()][];
+        for (int i = 0; i < bezierCurves.size(); i++) {
+            SampleBuffer samples = bezierCurves.get(i).getSamples();
+            colors[i] = new int[samples.size()];
+            for (int s = 0; s < samples.size(); s++) {
+                colors[i][s] = samples.getArgb(s);
+            }
+        }
+        return colors;
+    }
+
+    @Test
+    public void singleLightMatchesShading() {
+        List<BezierCurve> bezierCurves = GridOcclusionTest.randomScene(new Random(3), 20, 100);
+        LightSource lightSource = light(450, 320);
+
+        lightSource.updateColors(bezierCurves);
+        int[][] expected = colors(bezierCurves);
+
+        assertTrue(new Illumination().shade(bezierCurves, Arrays.asList(lightSource)));
+        assertArrayEquals(expected, colors(bezierCurves));
+    }
+
+    @Test
+    public void movingOneLightKeepsTheOthers() {
+        List<BezierCurve> bezierCurves = GridOcclusionTest.randomScene(new Random(8), 15, 60);
+        List<LightSource> lightSources = Arrays.asList(light(100, 100), light(900, 600), light(500, 50));
+
+        Illumination illumination = new Illumination();
+        assertTrue(illumination.shade(bezierCurves, lightSources));
+        assertEquals(lightSources.size() * bezierCurves.size(), illumination.getNumOfVisibilityUpdates());
+        assertFalse(illumination.shade(bezierCurves, lightSources));
+
+        lightSources.get(1).setLocation(700, 400);
+        assertTrue(illumination.shade(bezierCurves, lightSources));
+        assertEquals((lightSources.size() + 1) * bezierCurves.size(), illumination.getNumOfVisibilityUpdates());
+
+        int[][] incremental = colors(bezierCurves);
+        new Illumination().shade(bezierCurves, lightSources);
+        assertArrayEquals(colors(bezierCurves), incremental);
+
+        // Moving a curve only recomputes all the samples of that curve
+        bezierCurves.get(4).getControlPoints().get(0).setLocation(350, 250);
+        bezierCurves.get(4).updatePoints(60);
+        long numOfSampleTests = illumination.getNumOfSampleTests();
+        illumination.shade(bezierCurves, lightSources);
+        assertEquals((lightSources.size() + 1) * bezierCurves.size() + lightSources.size(), illumination.getNumOfVisibilityUpdates());
+        assertTrue(illumination.getNumOfSampleTests() - numOfSampleTests < lightSources.size() * bezierCurves.size() * 60);
+
+        incremental = colors(bezierCurves);
+        new Illumination().shade(bezierCurves, lightSources);
+        assertArrayEquals(colors(bezierCurves), incremental);
+    }
+
+    @Test
+    public void movingCurvesMatchesFullRecompute() {
+        Random random = new Random(21);
+        List<BezierCurve> bezierCurves = GridOcclusionTest.randomScene(random, 25, 40);
+        List<LightSource> lightSources = Arrays.asList(light(150, 600), light(800, 100));
+        lightSources.get(1).setOcclusion(new GridOcclusion(50));
+
+        Illumination illumination = new Illumination();
+        illumination.shade(bezierCurves, lightSources);
+        long numOfFullTests = illumination.getNumOfSampleTests();
+
+        for (int step = 0; step < 200; step++) {
+            // Drag a control point, and sometimes the neighbour of the next curve as a composite curve does
+            int curve = random.nextInt(bezierCurves.size());
+            int x = random.nextInt(1000);
+            int y = random.nextInt(700);
+            bezierCurves.get(curve).getControlPoints().get(0).setLocation(x, y);
+            if (random.nextBoolean() && curve + 1 < bezierCurves.size()) {
+                bezierCurves.get(curve + 1).getControlPoints().get(1).setLocation(y, x % 700);
+            }
+            bezierCurves.forEach(bezierCurve -> bezierCurve.updatePointsIfDirty(40));
+
+            long numOfSampleTests = illumination.getNumOfSampleTests();
+            assertTrue(illumination.shade(bezierCurves, lightSources));
+            assertTrue(illumination.getNumOfSampleTests() - numOfSampleTests < numOfFullTests);
+            int[][] incremental = colors(bezierCurves);
+
+            new Illumination().shade(bezierCurves, lightSources);
+            assertArrayEquals("step " + step, colors(bezierCurves), incremental);
+        }
+    }
+
+    @Test
+    public void lightsAddUp() {
+        List<BezierCurve> bezierCurves = GridOcclusionTest.randomScene(new Random(2), 10, 50);
+        LightSource first = light(200, 200);
+        LightSource second = light(800, 500);
+
+        new Illumination().shade(bezierCurves, Arrays.asList(first));
+        int[][] firstColors = colors(bezierCurves);
+        new Illumination().shade(bezierCurves, Arrays.asList(second));
+        int[][] secondColors = colors(bezierCurves);
+        new Illumination().shade(bezierCurves, Arrays.asList(first, second));
+        int[][] both = colors(bezierCurves);
+
+        for (int i = 0; i < both.length; i++) {
+            for (int s = 0; s < both[i].length; s++) {
+                int sum = Math.min(255, (firstColors[i][s] & 0xFF) + (secondColors[i][s] & 0xFF));
+                // Each contribution is rounded on its own in the single light colors
+                assertEquals(sum, both[i][s] & 0xFF, 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package bezierCurve.lighting;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.bezier.CubicBezierCurve;
+import bezierCurve.bezier.Evaluator;
+import bezierCurve.points.ControlPoint;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IntervalOcclusionTest {
+
+    @Test
+    public void matchesExactOcclusion() {
+        Random random = new Random(13);
+        int numOfShadows = 0;
+        for (int scene = 0; scene < 30; scene++) {
+            List<BezierCurve> bezierCurves = GridOcclusionTest.randomScene(random, 1 + random.nextInt(12), 60);
+            ControlPoint lightSource = new ControlPoint(random.nextInt(1000), random.nextInt(700));
+            numOfShadows += GridOcclusionTest.assertSameShadows(bezierCurves, lightSource, new ExactOcclusion(), new IntervalOcclusion());
+        }
+        assertTrue(numOfShadows > 0);
+    }
+
+    @Test
+    public void samplesOffTheCurveMatchExactOcclusion() {
+        // Forward differences leave the samples off the curve by rounding errors
+        Random random = new Random(13);
+        for (int scene = 0; scene < 200; scene++) {
+            List<BezierCurve> bezierCurves = GridOcclusionTest.randomScene(random, 1 + random.nextInt(12), 60);
+            for (BezierCurve curve : bezierCurves) {
+                curve.setEvaluator(Evaluator.FORWARD_DIFFERENCES);
+                curve.updatePoints(60);
+            }
+            ControlPoint lightSource = new ControlPoint(random.nextInt(1000), random.nextInt(700));
+            GridOcclusionTest.assertSameShadows(bezierCurves, lightSource, new ExactOcclusion(), new IntervalOcclusion());
+        }
+    }
+
+    @Test
+    public void curveShadowsCurveBehindIt() {
+        BezierCurve near = new CubicBezierCurve();
+        BezierCurve far = new CubicBezierCurve();
+        for (int x : new int[]{400, 450, 550, 600}) {
+            near.addControlPoint(new Point(x, 300));
+            far.addControlPoint(new Point(4 * x - 1500, 500));
+        }
+        List<BezierCurve> bezierCurves = Arrays.asList(near, far);
+        ControlPoint lightSource = new ControlPoint(500, 100);
+
+        // The shadow of [400, 600] at y = 300 covers [300, 700] at y = 500, the middle half of far
+        ShadowIntervals shadows = ShadowIntervals.compute(far, bezierCurves, lightSource);
+        assertEquals(1, shadows.getNumOfIntervals());
+        assertEquals(300, far.calcPoint(shadows.getFrom(0)).getX(), 1e-6);
+        assertEquals(700, far.calcPoint(shadows.getTo(0)).getX(), 1e-6);
+        assertEquals(0, shadows.findOccluder(0.5));
+        assertEquals(Occlusion.NONE, shadows.findOccluder(0.02));
+        assertEquals(0, ShadowIntervals.compute(near, bezierCurves, lightSource).getNumOfIntervals());
+    }
+
+    @Test
+    public void loopShadowsItself() {
+        BezierCurve loop = new CubicBezierCurve();
+        for (Point point : new Point[]{new Point(100, 500), new Point(1300, 100), new Point(-300, 100), new Point(900, 500)}) {
+            loop.addControlPoint(point);
+        }
+        List<BezierCurve> bezierCurves = Collections.singletonList(loop);
+        ControlPoint lightSource = new ControlPoint(500, 650);
+
+        ShadowIntervals shadows = ShadowIntervals.compute(loop, bezierCurves, lightSource);
+        assertTrue(shadows.getNumOfIntervals() > 0);
+
+        loop.updatePoints(500);
+        GridOcclusionTest.assertSameShadows(bezierCurves, lightSource, new ExactOcclusion(), new IntervalOcclusion());
+    }
+}
@@ -0,0 +1,45 @@
+package bezierCurve.lighting;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.bezier.SampleBuffer;
+import bezierCurve.points.ControlPoint;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class ShadingTest {
+
+    @Test
+    public void parallelMatchesSerial() {
+        List<BezierCurve> bezierCurves = GridOcclusionTest.randomScene(new Random(5), 30, 200);
+        ControlPoint lightSource = new ControlPoint(400, 300);
+
+        Shading.shade(bezierCurves, lightSource, new ExactOcclusion(), null, 0);
+        int[][] expected = new int[bezierCurves.size()][];
+        for (int i = 0; i < bezierCurves.size(); i++) {
+            SampleBuffer samples = bezierCurves.get(i).getSamples();
+            expected[i] = new int[samples.size()];
+            for (int s = 0; s < samples.size(); s++) {
+                expected[i][s] = samples.getArgb(s);
+                samples.setArgb(s, 0);
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Shading.shade(bezierCurves, lightSource, new GridOcclusion(), pool, 0);
+        } finally {
+            pool.shutdown();
+        }
+        for (int i = 0; i < bezierCurves.size(); i++) {
+            SampleBuffer samples = bezierCurves.get(i).getSamples();
+            for (int s = 0; s < samples.size(); s++) {
+                assertEquals("curve " + i + " sample " + s, expected[i][s], samples.getArgb(s));
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package bezierCurve.lighting;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.bezier.CubicBezierCurve;
+import bezierCurve.points.ControlPoint;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ShadowMapOcclusionTest {
+
+    @Test
+    public void reportsSmallErrorOnRandomScenes() {
+        Random random = new Random(11);
+        for (int i = 0; i < 5; i++) {
+            List<BezierCurve> bezierCurves = GridOcclusionTest.randomScene(random, 20, 200);
+            ControlPoint lightSource = new ControlPoint(random.nextInt(1000), random.nextInt(700));
+
+            ShadowMapOcclusion.ErrorReport report = ShadowMapOcclusion.compare(bezierCurves, lightSource, ShadowMapOcclusion.DEFAULT_NUM_OF_BINS);
+            assertEquals(20 * 200, report.getNumOfSamples());
+            assertTrue(report.toString(), report.getErrorRate() < 0.005);
+        }
+    }
+
+    @Test
+    public void curveShadowsCurveBehindIt() {
+        BezierCurve near = new CubicBezierCurve();
+        BezierCurve far = new CubicBezierCurve();
+        for (int x : new int[]{300, 400, 600, 700}) {
+            near.addControlPoint(new Point(x, 300));
+            far.addControlPoint(new Point(x - 300, 500));
+        }
+        List<BezierCurve> bezierCurves = Arrays.asList(near, far);
+        bezierCurves.forEach(curve -> curve.updatePoints(50));
+        ControlPoint lightSource = new ControlPoint(500, 100);
+
+        ShadowMapOcclusion occlusion = new ShadowMapOcclusion();
+        occlusion.prepare(bezierCurves, lightSource);
+        assertEquals(0, occlusion.findOccluder(far, 0.75, 300, 500));
+        assertEquals(Occlusion.NONE, occlusion.findOccluder(far, 0, 0, 500));
+        assertEquals(Occlusion.NONE, occlusion.findOccluder(near, 0.5, 500, 300));
+    }
+}
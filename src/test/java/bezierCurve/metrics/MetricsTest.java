@@ -0,0 +1,76 @@
+package bezierCurve.metrics;
+
+import bezierCurve.bezier.BezierCurve;
+import bezierCurve.points.LightSource;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.awt.*;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class MetricsTest {
+
+    static BezierCurve createCurve() {
+        BezierCurve curve = BezierCurve.create(4);
+        curve.addControlPoint(new Point(100, 400));
+        curve.addControlPoint(new Point(200, 100));
+        curve.addControlPoint(new Point(400, 100));
+        curve.addControlPoint(new Point(500, 400));
+        return curve;
+    }
+
+    @Test
+    public void histogramPercentiles() {
+        Histogram histogram = new Histogram("test");
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        histogram.record(0);
+
+        assertEquals(101, histogram.getCount());
+        assertEquals(5050, histogram.getTotal());
+        assertEquals(100, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(0));
+        // The median 50 lies in [32, 64)
+        assertEquals(63, histogram.getPercentile(50));
+        assertEquals(100, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void recordsHotPaths() {
+        long samples = Metrics.SAMPLES.get();
+        long rootSolves = Metrics.ROOT_SOLVES.get();
+        long updatePoints = Metrics.UPDATE_POINTS.getHistogram().getCount();
+        long updateColors = Metrics.UPDATE_COLORS.getHistogram().getCount();
+
+        BezierCurve curve = createCurve();
+        curve.updatePoints(40);
+        LightSource lightSource = new LightSource(new Point(300, 0));
+        lightSource.setPool(null);
+        lightSource.updateColors(Collections.singletonList(curve));
+
+        // Counters only grow, so other curves updated meanwhile cannot break these checks
+        assertTrue(Metrics.SAMPLES.get() - samples >= 40);
+        assertTrue(Metrics.ROOT_SOLVES.get() > rootSolves);
+        assertTrue(Metrics.UPDATE_POINTS.getHistogram().getCount() > updatePoints);
+        assertTrue(Metrics.UPDATE_COLORS.getHistogram().getCount() > updateColors);
+    }
+
+    @Test
+    public void exposesMBean() throws Exception {
+        assertTrue(Metrics.registerMBean());
+        assertTrue(Metrics.registerMBean());
+        createCurve().updatePoints(10);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        TabularData counters = (TabularData) server.getAttribute(new ObjectName("bezierCurve:type=Metrics"), "Counters");
+        CompositeData samples = counters.get(new Object[]{"samples"});
+        assertTrue((Long) samples.get("value") >= 10);
+    }
+}
@@ -0,0 +1,38 @@
+package bezierCurve.metrics;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class JfrSpansTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void recordsJfrSpans() throws Exception {
+        Path path = folder.newFile("metrics.jfr").toPath();
+        try (Recording recording = new Recording()) {
+            recording.enable("bezierCurve.Span");
+            recording.start();
+            MetricsTest.createCurve().updatePoints(10);
+            recording.stop();
+            recording.dump(path);
+        }
+
+        Set<String> spans = new HashSet<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(path)) {
+            spans.add(event.getString("span"));
+        }
+        assertTrue(spans.toString(), spans.contains("updatePoints"));
+    }
+}